@@ -0,0 +1,55 @@
+package com.myscrabble.benchmarks;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Entry point of benchmarks.jar. Takes JMH's usual options and, unless
+ * a result format or file is given, saves the results as JSON in
+ * benchmarks/results (one timestamped file per run), so runs can be
+ * compared over time. Run from the Scrabble directory, where the
+ * dictionary resources and the corpus are found.
+ * <br>
+ * Usage: java -jar benchmarks/target/benchmarks.jar [JMH options] [benchmark regexps]
+ */
+public class BenchmarkRunner
+{
+	private static final String RESULTS_DIR = "benchmarks/results";
+
+	public static void main(String[] args) throws Exception
+	{
+		CommandLineOptions options = new CommandLineOptions(args);
+
+		if(options.shouldHelp() || options.shouldList() || options.shouldListWithParams() ||
+		   options.shouldListProfilers() || options.shouldListResultFormats())
+		{
+			Main.main(args);
+			return;
+		}
+
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+
+		if(!options.getResultFormat().hasValue() && !options.getResult().hasValue())
+		{
+			File directory = new File(RESULTS_DIR);
+			directory.mkdirs();
+
+			String name = "jmh-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json";
+
+			builder.resultFormat(ResultFormatType.JSON).result(new File(directory, name).getPath());
+		}
+
+		new Runner(builder.build()).run();
+	}
+}
@@ -0,0 +1,256 @@
+package com.myscrabble.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.myscrabble.benchmarks.PositionCorpus.Position;
+import com.myscrabble.entities.BagState;
+import com.myscrabble.util.ScrabbleDictionary;
+import com.myscrabble.util.ScrabbleUtils;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Dictionary lookups of the words on the corpus' boards (every lookup
+ * a hit) and of the same words reversed where that is not a word
+ * (mostly rejected early in the word graph), one word per operation.
+ * Also the words a rack forms with one letter of the board, one corpus
+ * position per operation: the bulk scan of the packed letter-count
+ * vectors and the anagram index's walk of the rack's sub-multisets
+ * against the per-word scan the AI ran before move generation
+ * (isValidWord, rebuilt here with the board's letters standing in for
+ * the neutral tiles it looked up on the Board).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DictionaryBenchmark
+{
+	private ScrabbleDictionary dictionary;
+
+	private String[] words;
+	private String[] nonWords;
+	private int wordIndex;
+	private int nonWordIndex;
+
+	private Position[] positions;
+	private int[][] boardCounts;
+	private String[] rackStrings;
+	private String[] boardStrings;
+	private int positionIndex;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		dictionary = new ScrabbleDictionary();
+
+		ArrayList<String> boardWords = PositionCorpus.getShared().getBoardWords();
+		ArrayList<String> reversed = new ArrayList<>();
+
+		for(String word : boardWords)
+		{
+			String reverse = ScrabbleUtils.reverse(word);
+
+			if(!dictionary.wordExists(reverse))
+			{
+				reversed.add(reverse);
+			}
+		}
+
+		words = boardWords.toArray(new String[boardWords.size()]);
+		nonWords = reversed.toArray(new String[reversed.size()]);
+
+		positions = PositionCorpus.getShared().getPositions();
+		boardCounts = new int[positions.length][BagState.LETTERS];
+		rackStrings = new String[positions.length];
+		boardStrings = new String[positions.length];
+
+		for(int i = 0; i < positions.length; i++)
+		{
+			for(char letter : positions[i].boardBefore)
+			{
+				if(letter != 0)
+				{
+					boardCounts[i][letter - 'A']++;
+				}
+			}
+
+			rackStrings[i] = toLetters(positions[i].rack);
+			boardStrings[i] = toLetters(boardCounts[i]);
+		}
+
+		/* The scans must all find the same words for the comparison to hold */
+		for(int i = 0; i < Math.min(positions.length, 20); i++)
+		{
+			int prefilter = dictionary.wordsFormableFrom(positions[i].rack, boardCounts[i], 1, 1).size();
+			int anagrams = dictionary.getAnagrams(rackStrings[i], boardStrings[i], 1, 1).size();
+			int perWord = scanWords(positions[i].rack, boardCounts[i]).size();
+
+			if(prefilter != perWord || anagrams != perWord)
+			{
+				throw new IllegalStateException("Position " + i + ": prefilter found " + prefilter +
+												" words, anagram index " + anagrams + ", per-word scan " + perWord);
+			}
+		}
+	}
+
+	@Benchmark
+	public boolean wordExists()
+	{
+		if(++wordIndex == words.length)
+		{
+			wordIndex = 0;
+		}
+
+		return dictionary.wordExists(words[wordIndex]);
+	}
+
+	@Benchmark
+	public boolean wordExistsMiss()
+	{
+		if(++nonWordIndex == nonWords.length)
+		{
+			nonWordIndex = 0;
+		}
+
+		return dictionary.wordExists(nonWords[nonWordIndex]);
+	}
+
+	@Benchmark
+	public ArrayList<String> wordsFormableFrom()
+	{
+		nextPosition();
+		return dictionary.wordsFormableFrom(positions[positionIndex].rack, boardCounts[positionIndex], 1, 1);
+	}
+
+	@Benchmark
+	public ArrayList<String> getAnagrams()
+	{
+		nextPosition();
+		return dictionary.getAnagrams(rackStrings[positionIndex], boardStrings[positionIndex], 1, 1);
+	}
+
+	@Benchmark
+	public ArrayList<String> isValidWordScan()
+	{
+		nextPosition();
+		return scanWords(positions[positionIndex].rack, boardCounts[positionIndex]);
+	}
+
+	private void nextPosition()
+	{
+		if(++positionIndex == positions.length)
+		{
+			positionIndex = 0;
+		}
+	}
+
+	/**
+	 *
+	 * @param counts Number of each letter (index 0 = 'A')
+	 * @return The letters counted, in alphabetical order
+	 */
+	private static String toLetters(int[] counts)
+	{
+		StringBuilder letters = new StringBuilder();
+
+		for(int symbol = 0; symbol < BagState.LETTERS; symbol++)
+		{
+			for(int i = 0; i < counts[symbol]; i++)
+			{
+				letters.append((char)('A' + symbol));
+			}
+		}
+
+		return letters.toString();
+	}
+
+	/**
+	 *
+	 * @param rack The rack's letter counts
+	 * @param boardLetters The board's letter counts
+	 * @return Every word formed from rack letters and exactly one
+	 * board letter, checking each word of the dictionary in turn
+	 */
+	private ArrayList<String> scanWords(int[] rack, int[] boardLetters)
+	{
+		String rackLetters = "";
+
+		for(int symbol = 0; symbol < BagState.LETTERS; symbol++)
+		{
+			for(int i = 0; i < rack[symbol]; i++)
+			{
+				rackLetters += (char)('A' + symbol);
+			}
+		}
+
+		ArrayList<String> candidates = new ArrayList<>();
+		Iterator<String> dictWords = dictionary.getWords();
+
+		while(dictWords.hasNext())
+		{
+			String word = dictWords.next();
+
+			if(word.length() <= 1 || word.length() > rackLetters.length() + 1)
+			{
+				continue;
+			}
+
+			if(isValidWord(rackLetters, boardLetters, word))
+			{
+				candidates.add(word);
+			}
+		}
+
+		return candidates;
+	}
+
+	private static boolean isValidWord(String rackLetters, int[] boardLetters, String word)
+	{
+		ArrayList<Character> charList = new ArrayList<>();
+
+		for(int i = 0; i < rackLetters.length(); i++)
+		{
+			charList.add(rackLetters.charAt(i));
+		}
+
+		boolean charOnBoardUsed = false;
+
+		for(int i = 0; i < word.length(); i++)
+		{
+			int index = charList.indexOf(word.charAt(i));
+
+			if(index != -1)
+			{
+				charList.remove(index);
+			}
+			else if(!charOnBoardUsed && boardLetters[word.charAt(i) - 'A'] > 0)
+			{
+				charOnBoardUsed = true;
+			}
+			else
+			{
+				return false;
+			}
+		}
+
+		return charOnBoardUsed;
+	}
+}
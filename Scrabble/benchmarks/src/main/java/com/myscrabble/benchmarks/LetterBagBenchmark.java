@@ -0,0 +1,84 @@
+package com.myscrabble.benchmarks;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.myscrabble.entities.BagState;
+import com.myscrabble.util.GameRecord;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * The letter bag's draws: emptying a full bag with the draws of a
+ * recorded game (the game's seeded generator and the balanced opening
+ * racks, as the LetterBag draws them), and copying a bag as every
+ * simulated game does. One game per operation, cycling through the
+ * corpus' seeds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LetterBagBenchmark
+{
+	private BagState fullBag;
+	private BagState bag;
+
+	private long[] seeds;
+	private int index;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		fullBag = new BagState();
+		bag = new BagState();
+		seeds = PositionCorpus.getShared().getSeeds();
+	}
+
+	/**
+	 *
+	 * @return A checksum of the letters drawn
+	 */
+	@Benchmark
+	public int drawGame()
+	{
+		if(++index == seeds.length)
+		{
+			index = 0;
+		}
+
+		SplittableRandom random = GameRecord.getBagRandom(new SplittableRandom(seeds[index]));
+		int checksum = 0;
+
+		bag.copyFrom(fullBag);
+
+		while(!bag.isEmpty())
+		{
+			checksum = checksum * 31 + bag.drawForRack(random);
+		}
+
+		return checksum;
+	}
+
+	@Benchmark
+	public BagState copyBag()
+	{
+		bag.copyFrom(fullBag);
+		return bag;
+	}
+}
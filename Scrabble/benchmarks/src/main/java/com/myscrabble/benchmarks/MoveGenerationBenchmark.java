@@ -0,0 +1,84 @@
+package com.myscrabble.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.myscrabble.ai.AIController.MoveGeneration;
+import com.myscrabble.ai.GaddagMoveGenerator;
+import com.myscrabble.ai.Move;
+import com.myscrabble.ai.MoveGenerator;
+import com.myscrabble.benchmarks.PositionCorpus.Position;
+import com.myscrabble.util.ScrabbleDictionary;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Move generation on the positions of the corpus, with the mover's
+ * rack of the time: every legal move on one thread, with the DAWG's
+ * or the GADDAG's generator. One position per operation, cycling
+ * through the corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoveGenerationBenchmark
+{
+	@Param({ "DAWG", "GADDAG" })
+	private MoveGeneration generation;
+
+	private MoveGenerator generator;
+
+	private Position[] positions;
+	private int index;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		ScrabbleDictionary dictionary = new ScrabbleDictionary();
+
+		if(generation == MoveGeneration.GADDAG)
+		{
+			generator = new GaddagMoveGenerator(dictionary.getDawg(), ScrabbleDictionary.getGaddag());
+		}
+		else
+		{
+			generator = new MoveGenerator(dictionary.getDawg());
+		}
+
+		positions = PositionCorpus.getShared().getPositions();
+	}
+
+	@Benchmark
+	public ArrayList<Move> generateMoves()
+	{
+		Position position = nextPosition();
+		return generator.generate(position.boardBefore, position.rack);
+	}
+
+	private Position nextPosition()
+	{
+		if(++index == positions.length)
+		{
+			index = 0;
+		}
+
+		return positions[index];
+	}
+}
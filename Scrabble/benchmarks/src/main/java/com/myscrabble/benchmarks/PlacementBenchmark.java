@@ -0,0 +1,71 @@
+package com.myscrabble.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.myscrabble.benchmarks.PositionCorpus.Position;
+import com.myscrabble.entities.PlacementValidator;
+import com.myscrabble.util.ScoringEngine;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Validation and scoring of the moves of the corpus, each on the board
+ * it was played on: the checks and points of a player's placement once
+ * the tiles are set (PlacementValidator and ScoringEngine, the headless
+ * paths behind the game's tile formations and point calculation).
+ * One move per operation, cycling through the corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlacementBenchmark
+{
+	private Position[] positions;
+	private int index;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		positions = PositionCorpus.getShared().getPositions();
+	}
+
+	@Benchmark
+	public int validate()
+	{
+		Position position = nextPosition();
+		return PlacementValidator.validate(position.boardAfter, position.placedSquares, position.placedSquares.length);
+	}
+
+	@Benchmark
+	public int score()
+	{
+		Position position = nextPosition();
+		return ScoringEngine.score(position.boardAfter, position.placedSquares, position.placedSquares.length);
+	}
+
+	private Position nextPosition()
+	{
+		if(++index == positions.length)
+		{
+			index = 0;
+		}
+
+		return positions[index];
+	}
+}
@@ -0,0 +1,217 @@
+package com.myscrabble.benchmarks;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.myscrabble.ai.UnseenTiles;
+import com.myscrabble.entities.BoardState;
+import com.myscrabble.util.GameRecord;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * The board positions of a directory of saved game records, shared by
+ * all the benchmarks. Every record is replayed (and so checked) once
+ * and each of its moves kept as a position: the board before and after
+ * the move, the mover's rack and the placed tiles with their score.
+ * The directory is given by the myscrabble.corpus system property and
+ * is relative to the Scrabble directory the benchmarks run from.
+ */
+public class PositionCorpus
+{
+	public static final String CORPUS_PROPERTY = "myscrabble.corpus";
+	public static final String DEFAULT_DIR = "benchmarks/corpus";
+
+	/**
+	 * A move of a recorded game and the position it was played on
+	 */
+	public static class Position
+	{
+		/* Row-major letters of the board before the move (0 if empty) */
+		public final char[] boardBefore;
+
+		/* The board with the move's tiles set on it */
+		public final BoardState boardAfter;
+
+		/* The mover's rack before the move (index 0 = 'A') */
+		public final int[] rack;
+
+		public final int[] placedSquares;
+		public final char[] placedLetters;
+		public final int score;
+
+		/* The tiles the mover had not seen before the move */
+		public final UnseenTiles unseen;
+
+		Position(BoardState board, int[] rack, int[] placedSquares, char[] placedLetters, int score)
+		{
+			this.boardAfter = board.copy();
+			this.rack = rack;
+			this.placedSquares = placedSquares.clone();
+			this.placedLetters = placedLetters.clone();
+			this.score = score;
+
+			boardBefore = board.getLetters();
+
+			for(int square : placedSquares)
+			{
+				boardBefore[square] = 0;
+			}
+
+			unseen = new UnseenTiles();
+
+			for(char letter : boardBefore)
+			{
+				if(letter != 0)
+				{
+					unseen.tileSeen(letter);
+				}
+			}
+
+			for(int symbol = 0; symbol < rack.length; symbol++)
+			{
+				for(int i = 0; i < rack[symbol]; i++)
+				{
+					unseen.tileSeen((char)('A' + symbol));
+				}
+			}
+		}
+	}
+
+	private static PositionCorpus shared;
+
+	private long[] seeds;
+	private Position[] positions;
+
+	/* Final board of every game */
+	private BoardState[] finalBoards;
+
+	/**
+	 *
+	 * @return The corpus of the configured directory, loaded on first use
+	 * @throws IOException if the directory holds no readable records or
+	 * a record's replay diverges
+	 */
+	public static synchronized PositionCorpus getShared() throws IOException
+	{
+		if(shared == null)
+		{
+			shared = new PositionCorpus(new File(System.getProperty(CORPUS_PROPERTY, DEFAULT_DIR)));
+		}
+
+		return shared;
+	}
+
+	/**
+	 *
+	 * @param directory A directory of saved game records
+	 * @throws IOException if the directory holds no readable records or
+	 * a record's replay diverges
+	 */
+	public PositionCorpus(File directory) throws IOException
+	{
+		File[] files = directory.listFiles(new FilenameFilter()
+		{
+			@Override
+			public boolean accept(File dir, String name)
+			{
+				return name.endsWith(GameRecord.EXTENSION);
+			}
+		});
+
+		if(files == null || files.length == 0)
+		{
+			throw new IOException("No game records found in " + directory.getAbsolutePath());
+		}
+
+		Arrays.sort(files);
+
+		final ArrayList<Position> result = new ArrayList<>();
+		seeds = new long[files.length];
+		finalBoards = new BoardState[files.length];
+
+		for(int i = 0; i < files.length; i++)
+		{
+			GameRecord record = GameRecord.read(files[i]);
+			final BoardState[] lastBoard = { new BoardState() };
+
+			int[] scores = record.replay(new GameRecord.PositionVisitor()
+			{
+				@Override
+				public void visit(BoardState board, int[] rack, int[] placedSquares, char[] placedLetters, int score)
+				{
+					Position position = new Position(board, rack, placedSquares, placedLetters, score);
+					result.add(position);
+					lastBoard[0] = position.boardAfter;
+				}
+			}, false);
+
+			if(scores == null)
+			{
+				throw new IOException("Game record diverges: " + files[i].getPath());
+			}
+
+			seeds[i] = record.getSeed();
+			finalBoards[i] = lastBoard[0];
+		}
+
+		positions = result.toArray(new Position[result.size()]);
+
+		System.out.println("Corpus " + directory.getPath() + ": " + files.length + " games, " +
+						   positions.length + " positions");
+	}
+
+	/**
+	 *
+	 * @return The words (2 letters or more) on the final boards of the games
+	 */
+	public ArrayList<String> getBoardWords()
+	{
+		ArrayList<String> words = new ArrayList<>();
+		StringBuilder run = new StringBuilder();
+
+		for(BoardState board : finalBoards)
+		{
+			for(int dir = BoardState.ACROSS; dir <= BoardState.DOWN; dir++)
+			{
+				for(int line = 0; line < BoardState.SIZE; line++)
+				{
+					for(int pos = 0; pos <= BoardState.SIZE; pos++)
+					{
+						int col = dir == BoardState.ACROSS ? pos : line;
+						int row = dir == BoardState.ACROSS ? line : pos;
+
+						if(!board.isEmpty(col, row))
+						{
+							run.append(board.getLetter(col, row));
+							continue;
+						}
+
+						if(run.length() > 1)
+						{
+							words.add(run.toString());
+						}
+
+						run.setLength(0);
+					}
+				}
+			}
+		}
+
+		return words;
+	}
+
+	public long[] getSeeds()
+	{
+		return seeds;
+	}
+
+	public Position[] getPositions()
+	{
+		return positions;
+	}
+}
@@ -0,0 +1,80 @@
+package com.myscrabble.benchmarks;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.myscrabble.ai.AIController.AILevel;
+import com.myscrabble.ai.AIController.MoveGeneration;
+import com.myscrabble.ai.Move;
+import com.myscrabble.ai.MoveSelector;
+import com.myscrabble.benchmarks.PositionCorpus.Position;
+import com.myscrabble.util.ScrabbleDictionary;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * The AI's word selection on the positions of the corpus, with the
+ * mover's rack of the time: the level's ranked search on the common
+ * ForkJoinPool and its choice of word, as on the AI's turn. The HARD
+ * level simulates for a fixed time per move, so it is not measured
+ * here. One position per operation, cycling through the corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WordSelectionBenchmark
+{
+	@Param({ "DAWG", "GADDAG" })
+	private MoveGeneration generation;
+
+	@Param({ "ROOKIE", "AMATEUR", "INTERMEDIATE" })
+	private AILevel level;
+
+	private MoveSelector selector;
+
+	private Position[] positions;
+	private int index;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		/* Seeded, so the weaker levels' random picks are the same on every run */
+		selector = new MoveSelector(level, generation, new ScrabbleDictionary(), new SplittableRandom(1L));
+
+		positions = PositionCorpus.getShared().getPositions();
+	}
+
+	@Benchmark
+	public Move selectMove()
+	{
+		Position position = nextPosition();
+		return selector.selectMove(position.boardBefore, position.rack, false, position.unseen);
+	}
+
+	private Position nextPosition()
+	{
+		if(++index == positions.length)
+		{
+			index = 0;
+		}
+
+		return positions[index];
+	}
+}
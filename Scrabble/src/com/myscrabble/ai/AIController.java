@@ -1,20 +1,21 @@
 package com.myscrabble.ai;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import com.myscrabble.entities.Board;
 import com.myscrabble.entities.LetterTile;
 import com.myscrabble.entities.LetterTile.Direction;
-import com.myscrabble.entities.LetterTile.Movement;
 import com.myscrabble.entities.Player;
 import com.myscrabble.entities.Tile;
-import com.myscrabble.entities.TileRack;
+import com.myscrabble.util.AnagramIndex;
 import com.myscrabble.util.ScrabbleDictionary;
-import com.myscrabble.util.ScrabbleUtils;
 
 /**
  * 
@@ -27,19 +28,38 @@ public class AIController
 {	
 	public enum AILevel
 	{
-		ROOKIE(0),
-		AMATEUR(1),
-		INTERMEDIATE(2),
-		HARD(3);
+		/* Level, candidate moves searched, lookahead time (ms) and node budgets */
+		ROOKIE(0, ParallelMoveSearch.ALL_MOVES, 0, Long.MAX_VALUE),
+		AMATEUR(1, ParallelMoveSearch.ALL_MOVES, 0, Long.MAX_VALUE),
+		INTERMEDIATE(2, ParallelMoveSearch.ALL_MOVES, 0, Long.MAX_VALUE),
+		HARD(3, 8, 1500, 2000000);
 		
 		public int levelValue;
+		public int candidates;
+		public long timeBudget;
+		public long nodeBudget;
 		
-		private AILevel(int levelValue)
+		private AILevel(int levelValue, int candidates, long timeBudget, long nodeBudget)
 		{
 			this.levelValue = levelValue;
+			this.candidates = candidates;
+			this.timeBudget = timeBudget;
+			this.nodeBudget = nodeBudget;
 		}
 	}
 	
+	/* Time allowed to solve an endgame (ms) */
+	public static final long ENDGAME_TIME_LIMIT = 5000;
+	
+	public enum MoveGeneration
+	{
+		/* Left-part enumeration over the lexicon's DAWG */
+		DAWG,
+		
+		/* Bidirectional growth from each anchor over the lexicon's GADDAG */
+		GADDAG;
+	}
+	
 	public enum AIState
 	{
 		WORD_SELECTION,
@@ -49,54 +69,62 @@ public class AIController
 		PASS;
 	}
 	
-	/* The ability of this AI controller */
-	private AILevel aiLevel;
-	
 	/* The current state of this controller */
 	private AIState aiState;
 	
 	/* References to core objects */
 	private Player  aiPlayer;
 	private Board   board;
-	private ScrabbleDictionary dictionary;
 	
-	/* The missing letter tiles per word that is are candidates */
-	private HashMap<String,LetterTile> missingTilePerWord; 
+	/* Background thread planning the AI moves, off the game loop */
+	private static final ExecutorService planner = Executors.newSingleThreadExecutor(new ThreadFactory()
+	{
+		@Override
+		public Thread newThread(Runnable runnable)
+		{
+			Thread thread = new Thread(runnable, "AI planner");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	/* Chooses the move of the level from snapshots of the game */
+	private MoveSelector moveSelector;
 	
-	/* The final selection for missing letter tile */
-	private LetterTile finalMissingTile;
+	/* The move chosen this turn (null if passing) */
+	private Move lastMove;
+	
+	/* The move being planned in the background (null if none) and its cancellation */
+	private Future<Move> plannedMove;
+	private Cancellation planCancellation;
 	
 	/* Reference to the last word selection done by this AI controller */
 	private ArrayList<LetterTile> lastAISelection;
-	
-	/* Holds the previous word selections that need to be avoided */
-	private HashSet<String> blacklist;
 
 	private int nextLetterTileIndex;
 	
-	/* A check done in higher AI levels instead of passing
-	 * attempting to find a word where a prefix can be placed
-	 */
-	private boolean prefixCheck;
-	
-	/* The prefix addition was succesful */
-	private boolean prefixSuccesful;
-	
 	public AIController(AILevel aiLevel, Player aiPlayer, Board board, ScrabbleDictionary dictionary)
 	{
-		this.aiLevel = aiLevel;
+		this(aiLevel, MoveGeneration.DAWG, aiPlayer, board, dictionary, new SplittableRandom());
+	}
+	
+	/**
+	 * 
+	 * @param random Generator of the AI's random choices (the word
+	 * picked by the weaker levels and the simulations' samples), so
+	 * that a seeded game makes the same choices again
+	 */
+	public AIController(AILevel aiLevel, MoveGeneration moveGeneration, Player aiPlayer, Board board,
+						ScrabbleDictionary dictionary, SplittableRandom random)
+	{
 		this.aiPlayer = aiPlayer;
 		this.board = board;
-		this.dictionary = dictionary;
 
 		aiState = AIState.WORD_SELECTION;
 		nextLetterTileIndex = 0;
-		missingTilePerWord = new HashMap<>();
-		
-		prefixCheck = false;
-		prefixSuccesful = false;
 		
-		blacklist = new HashSet<>();
+		moveSelector = new MoveSelector(aiLevel, moveGeneration, dictionary, random);
+		lastAISelection = new ArrayList<>();
 	}
 	
 	/**
@@ -106,7 +134,7 @@ public class AIController
 	 */
 	public int calculatePoints()
 	{
-	    return ScrabbleUtils.calculatePoints(lastAISelection, board.getTilemap());
+	    return lastMove == null ? 0 : lastMove.getScore();
 	}
 	
 	/**
@@ -117,13 +145,33 @@ public class AIController
 	{	
 		if(aiState == AIState.WORD_SELECTION)
 		{
-		    prefixCheck = false;
-		    prefixSuccesful = false;
-			lastAISelection = getSelection();
+			planMove();
 			aiState = AIState.RACK_UPDATE;
 		}
 		else if(aiState == AIState.RACK_UPDATE)
 		{	
+			if(plannedMove != null)
+			{
+				/* Keep animating while the move is being planned */
+				if(!plannedMove.isDone())
+				{
+					aiPlayer.getTileRack().update();
+					return;
+				}
+				
+				lastMove = collectPlannedMove();
+				plannedMove = null;
+				
+				if(lastMove == null)
+				{
+					lastAISelection = new ArrayList<>();
+					aiState = AIState.PASS;
+					return;
+				}
+				
+				lastAISelection = getSelection();
+			}
+			
 			if(aiPlayer.getTileRack().tilesAreIdle() &&
 			   nextLetterTileIndex != lastAISelection.size())
 			{
@@ -144,32 +192,23 @@ public class AIController
 		}
 	}
 	
+	/**
+	 * Moves the next letter of the chosen move from the
+	 * rack to the board. Letters of the word that already
+	 * lie on the board are skipped.
+	 */
 	private void removeNextLetterTile()
 	{
-		if(!prefixCheck && (finalMissingTile.getAIMovement() == Movement.NONE || finalMissingTile == null))
-		{
-			aiState = AIState.WORD_SELECTION;
-			return;
-		}
-
 		LetterTile nextLetterTile = lastAISelection.get(nextLetterTileIndex);
 		
-		if(aiPlayer.getTileRack().contains(nextLetterTile))
+		if(lastMove.isPlaced(nextLetterTileIndex) && aiPlayer.getTileRack().contains(nextLetterTile))
 		{
 			int ltIndex = aiPlayer.getTileRack().getTileIndex(nextLetterTile);
 			aiPlayer.getTileRack().removeTile(nextLetterTile);
 			aiPlayer.getTileRack().resetAllFlagsAI(ltIndex);
 			aiPlayer.getTileRack().pushTiles(Direction.LEFT, ltIndex + 1);
 			
-			if(!prefixCheck)
-			{
-			    positionTile(nextLetterTile);
-			}
-			else
-			{
-			    board.addLetterTileAI(nextLetterTile);
-			    prefixSuccesful = true;
-			}
+			positionTile(nextLetterTile, nextLetterTileIndex);
 		}
 		
 		nextLetterTileIndex++;
@@ -178,247 +217,119 @@ public class AIController
 	/**
 	 * 
 	 * @param lt LetterTile to be positioned.
+	 * @param index The index of its letter in the chosen word
 	 * <br>
-	 * Positions the tile to its respective position in the 
-	 * game board based on the only neutral tile's position
-	 * and index.
+	 * Positions the tile on the board square the chosen
+	 * move assigns to that letter.
 	 */
-	private void positionTile(LetterTile lt)
+	private void positionTile(LetterTile lt, int index)
 	{	
-		float boardLetterX = finalMissingTile.getX();
-		float boardLetterY = finalMissingTile.getY();
-		int boardLetterIndex = lastAISelection.indexOf(finalMissingTile);
-		int currentIndex = lastAISelection.indexOf(lt);
+		Tile target = board.getTilemap().getTile(lastMove.getCol(index), lastMove.getRow(index));
 		
-		if(finalMissingTile.getAIMovement() == Movement.HORIZONTAL)
-		{
-			lastAISelection.get(currentIndex).setX(boardLetterX + (currentIndex - boardLetterIndex) * Tile.TILE_SIZE);
-			lastAISelection.get(currentIndex).setY(boardLetterY);
-		}
-		else
-		{
-			lastAISelection.get(currentIndex).setX(boardLetterX);
-			lastAISelection.get(currentIndex).setY(boardLetterY + (currentIndex - boardLetterIndex) * Tile.TILE_SIZE);
-		}
+		lt.setX(target.getX());
+		lt.setY(target.getY());
 		
-		board.addLetterTileAI(lastAISelection.get(currentIndex));
+		board.addLetterTileAI(lt);
 	}
 	
 	/**
-	 * A validation check and a prompt to search
-	 * for prefixes as a last attempt to find a valid
-	 * move. Also resets the core variables for the next
-	 * round.
+	 * Resets the core variables for the next
+	 * round and finishes the move.
 	 */
 	private void validateLetterTiles()
 	{
-	    if(finalMissingTile != null)
-	    {
-    		finalMissingTile.setAIDirectionFreedom(null);
-    		finalMissingTile.setAIMovement(Movement.NONE);
-    		finalMissingTile = null;
-    		aiState = AIState.FINISHING;
-	    }
-	    else
-	    {
-	        cancelChoice();
-	    }
-	        
-	    missingTilePerWord.clear();
-        nextLetterTileIndex = 0;
-        blacklist.clear();
+		nextLetterTileIndex = 0;
+		aiState = AIState.FINISHING;
 	}
 	
 	/**
-	 * Determines whether the AI level is high 
-	 * enough to search for a prefix-addition as 
-	 * a valid move, instead of passing this turn.
+	 * Cancels the move being planned in the background (if any).
+	 * Planning starts over the next time this controller is updated.
 	 */
-	private void cancelChoice()
+	public void cancelPlanning()
 	{
-	    if((aiLevel == AILevel.HARD || aiLevel == AILevel.INTERMEDIATE) && !prefixCheck)
-	    {
-	        prefixAdditionCheck();
-	    }
-	    else
-	    {
-	        if(!prefixSuccesful)
-	        {
-	            aiState = AIState.PASS;
-	        }
-	        else
-	        {
-	            aiState = AIState.FINISHING;
-	        }
-	    }
+		if(plannedMove != null)
+		{
+			plannedMove.cancel(true);
+			planCancellation.cancel();
+			plannedMove = null;
+			aiState = AIState.WORD_SELECTION;
+		}
 	}
 	
 	/**
-	 * Searches every word played, against every
-	 * possible prefix that ScrabbleDictionary provides.
-	 * If a valid combination from the word and the prefix is 
-	 * found, the ai tile rack contains the appropriate tiles and
-	 * enough empty tiles are next to the word so that the prefix
-	 * tiles can be placed, this combination is added to possible
-	 * candidates.
+	 * Snapshots the board, the rack and the unseen tiles and submits
+	 * the move selection to the background planner.
 	 */
-	private void prefixAdditionCheck()
+	private void planMove()
 	{
-	    prefixCheck = true;
-	    
-	    if(board.getRegisteredWords().size() < 1)
-	    {
-	        aiState = AIState.PASS;
-	        cancelChoice();
-	    }
-	    
-	    ArrayList<LetterTile[]> prefixCandidates = new ArrayList<>();
-	    
-	    for(LetterTile[] tiles : board.getRegisteredWords())
-	    {
-	        StringBuilder sb = new StringBuilder();
-	        
-	        for(LetterTile lt : tiles)
-	        {
-	            sb.append(lt.getLetter());
-	        }
-	        
-	        Iterator<String> prefixIter = dictionary.getCommonPrefixes();
-	        
-	        while(prefixIter.hasNext())
-	        {
-	            String prefix = prefixIter.next();
-
-	            if(dictionary.wordExists(sb.toString() + prefix) && 
-	               ScrabbleUtils.formationContains(aiPlayer.getTileRack().getLetterTiles(), prefix))
-	            {
-	                System.out.println(sb.toString() + prefix);
-	                addPrefixCandidate(prefixCandidates, tiles, prefix);
-	            }
-	        }
-	    }
-	    
-	    
-	    if(prefixCandidates.size() < 1)
-	    {
-	        aiState = AIState.PASS;
-	        cancelChoice();
-	    }
-	    else
-	    {
-	        LetterTile[] decision = prefixCandidates.get(0);
-	        lastAISelection.clear();
-	        
-	        for(LetterTile lt : decision)
-	        {
-	            lastAISelection.add(lt);
-	        }
-	        
-	        aiState = AIState.RACK_UPDATE;
-	    }
+		StringBuilder currentLetters = new StringBuilder();
+		
+		for(LetterTile letterTile : aiPlayer.getTileRack().getLetterTiles())
+		{
+			currentLetters.append(letterTile.getLetter());
+		}
+		
+		final char[] boardLetters = board.getState().getLetters();
+		final int[] rackCounts = AnagramIndex.countLetters(currentLetters);
+		final boolean bagEmpty = aiPlayer.getLetterBag().hasRunOut();
+		final UnseenTiles unseen = aiPlayer.getUnseenTiles().copy();
+		final Cancellation cancellation = new Cancellation();
+		
+		lastMove = null;
+		planCancellation = cancellation;
+		plannedMove = planner.submit(new Callable<Move>()
+		{
+			@Override
+			public Move call()
+			{
+				return moveSelector.selectMove(boardLetters, rackCounts, bagEmpty, unseen, cancellation);
+			}
+		});
 	}
 	
 	/**
 	 * 
-	 * @param prefixCandidates list of candidates found
-	 * @param tiles all the neutral tiles that the target word is composed of
-	 * @param prefix the prefix to add to the target word
-	 * <br>
-	 * Gets the direction of the target word, determines whether there is enough
-	 * space after it for the prefix tiles, positions the new tiles(that the prefix is composed of)
-	 * and adds them to the final result.
+	 * @return The move planned in the background
+	 * or null if planning failed
 	 */
-	private void addPrefixCandidate(ArrayList<LetterTile[]> prefixCandidates, LetterTile[] tiles, String prefix)
+	private Move collectPlannedMove()
 	{
-	    int tileDist = (int)ScrabbleUtils.xDistanceBetween(tiles[0], tiles[1]);
-	    
-	    Movement wordDir = tileDist == Tile.TILE_SIZE ? Movement.HORIZONTAL : Movement.VERTICAL;
-	    
-	    int freedomSpaceReq = prefix.length() + 1;
-	    int currentFreedom  = 0;
-	    
-	    Tile lastHolder = board.getTilemap().getLetterTileHolder(tiles[tiles.length - 1]);
-	    
-	    if(wordDir == Movement.HORIZONTAL)
-	    {
-	        for(int col = lastHolder.getCol(); col <= col + freedomSpaceReq; col++)
-	        {
-	            if(board.getTilemap().isTileEmpty(col, lastHolder.getRow()))
-	            {
-	                currentFreedom++;
-	            }
-	        }
-	    }
-	    else if(wordDir == Movement.VERTICAL)
-	    {
-	        for(int row = lastHolder.getCol(); row <= row + freedomSpaceReq; row++)
-            {
-                if(board.getTilemap().isTileEmpty(lastHolder.getCol(), row))
-                {
-                    currentFreedom++;
-                }
-            }
-	    }
-	    
-	    if(currentFreedom >= freedomSpaceReq)
-	    {
-	        LetterTile[] result = new LetterTile[tiles.length + prefix.length()];
-	        
-	        for(int i = 0; i < tiles.length; i++)
-	        {
-	            result[i] = tiles[i];
-	        }
-	        
-	        for(int i = 0; i < prefix.length(); i++)
-	        {
-	            result[tiles.length + i] = ScrabbleUtils.getFirstOccurence(prefix.charAt(i), aiPlayer.getTileRack().getLetterTiles());
-	            
-	            if(wordDir == Movement.HORIZONTAL)
-	            {
-	                result[tiles.length + i].setX(tiles[tiles.length + i - 1].getX() + Tile.TILE_SIZE);
-	                result[tiles.length + i].setY(tiles[tiles.length + i - 1].getY());
-	            }
-	            else if(wordDir == Movement.VERTICAL)
-	            {
-	                result[tiles.length + i].setX(tiles[tiles.length + i - 1].getX());
-	                result[tiles.length + i].setY(tiles[tiles.length + i - 1].getY() + Tile.TILE_SIZE);
-	            }
-	        }
-	        
-	        prefixCandidates.add(result);
-	    }
+		try
+		{
+			return plannedMove.get();
+		}
+		catch (InterruptedException | ExecutionException e)
+		{
+			System.err.println("AI move planning failed");
+			e.printStackTrace();
+			return null;
+		}
 	}
 	
 	/**
 	 * 
-	 * @return Selection of LetterTiles based
-	 * on the word currently chosen
+	 * @return Selection of LetterTiles making up the
+	 * main word of the move chosen (rack tiles for the
+	 * letters to be placed, board tiles for the rest).
 	 */
 	private ArrayList<LetterTile> getSelection()
 	{	
-	    String wordSelection = getWordSelection();
-	    
-	    blacklist.add(wordSelection);
-	    
-	    finalMissingTile = missingTilePerWord.get(wordSelection);
-	    
-		char[] selection = wordSelection.toCharArray();
-		
 		ArrayList<LetterTile> result = new ArrayList<>();
 		
-		TileRack playerRack = aiPlayer.getTileRack();
+		String word = lastMove.getWord();
 		
-		for(char character : selection)
+		for(int i = 0; i < word.length(); i++)
 		{
-		    if(character == finalMissingTile.getLetter() && !
-		       result.contains(finalMissingTile))
-		    {
-		        result.add(finalMissingTile);
-		        continue;
-		    }
-			for(LetterTile lt : playerRack.getLetterTiles())
+			if(!lastMove.isPlaced(i))
+			{
+				result.add(board.getTilemap().getTile(lastMove.getCol(i), lastMove.getRow(i)).getLetterTile());
+				continue;
+			}
+			
+			for(LetterTile lt : aiPlayer.getTileRack().getLetterTiles())
 			{
-				if(lt.getLetter() == character && !result.contains(lt))
+				if(lt.getLetter() == word.charAt(i) && !result.contains(lt))
 				{
 					result.add(lt);
 					break;
@@ -429,121 +340,38 @@ public class AIController
 		return result;
 	}
 		
-	/**
-	 * 
-	 * @return The word selection made by the ai controller
-	 * for this turn of the game. 
-	 */
-	private String getWordSelection()
+	public AIState getState()
 	{
-		String currentLetters = new String();
-		
-		for(LetterTile letterTile : aiPlayer.getTileRack().getLetterTiles())
-		{
-			currentLetters += letterTile.getLetter();
-		}
-		
-		ArrayList<String> candidates = new ArrayList<>();
-		
-		Iterator<String> dictWords = dictionary.getWords();
-		
-		while(dictWords.hasNext())
-		{
-		    String word = dictWords.next();
-		    
-			if(word.length() <= 1 || word.length() > currentLetters.length())
-			{
-				continue;
-			}
-			
-			if(isValidWord(currentLetters, word))
-			{
-				candidates.add(word);
-			}
-		}
-		
-		for(String word : blacklist)
-		{
-			if(candidates.contains(word))
-			{
-				candidates.remove(word);
-			}
-		}
-		
-		if(aiLevel == AILevel.AMATEUR)
-		{
-			return ScrabbleUtils.getRandomCommon(candidates, dictionary);
-		}
-		else if(aiLevel == AILevel.ROOKIE)
-		{
-			return ScrabbleUtils.getBiggestCommon(candidates, dictionary);
-		}
-		else if(aiLevel == AILevel.INTERMEDIATE)
-		{
-			return ScrabbleUtils.getRandomWord(candidates);
-		}
-		else
-		{
-			return ScrabbleUtils.getBiggestWord(candidates);
-		}
+		return aiState;
 	}
-
 	
 	/**
 	 * 
-	 * @param currentLetters The String extracted from current formation of letter tiles
-	 * @param word The word to be checked against the current letters
-	 * @return Whether the word's characters are all present in the
-	 * current letters
+	 * @param logging Whether to print the statistics of every search
 	 */
-	private boolean isValidWord(String currentLetters, String word)
+	public void setLogging(boolean logging)
 	{
-	    List<Character> charList = new ArrayList<Character>();
-	    
-	    for(int i = 0; i < currentLetters.length(); i++)
-	    {
-	    	charList.add(currentLetters.charAt(i));
-	    }
-	    
-		boolean charOnBoardUsed = false;
-		
-		for(int i = 0; i < word.length(); i++)
-		{
-			if(!charList.contains(word.charAt(i)))
-			{
-				if(!charOnBoardUsed && board.getValidNeutral(word.charAt(i), word) != null)
-				{
-					charOnBoardUsed = true;
-					missingTilePerWord.put(word, board.getValidNeutral(word.charAt(i), word));
-				}
-				else
-				{
-				    missingTilePerWord.remove(word);
-					return false;
-				}
-			}
-			else
-			{
-			    removeCharFromList(charList, word.charAt(i));
-			}
-		}
-		
-		return charOnBoardUsed;
+		moveSelector.setLogging(logging);
 	}
 	
-	private void removeCharFromList(List<Character> charList, char character)
+	public MoveSelector getMoveSelector()
 	{
-	    charList.remove(charList.indexOf(character));
+		return moveSelector;
 	}
 	
-	public AIState getState()
+	public ArrayList<LetterTile> getLastSelection()
 	{
-		return aiState;
+	    return lastAISelection;
 	}
 	
-	public ArrayList<LetterTile> getLastSelection()
+	/**
+	 * 
+	 * @return The letters of the tiles placed by
+	 * the move chosen (empty if passing)
+	 */
+	public String getLastPlacedLetters()
 	{
-	    return lastAISelection;
+	    return lastMove == null ? "" : lastMove.getPlacedLetters();
 	}
 	
 	public void setState(AIState aiState)
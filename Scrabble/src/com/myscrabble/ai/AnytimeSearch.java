@@ -0,0 +1,149 @@
+package com.myscrabble.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * A budgeted, anytime AI search. Depth 0 is the static
+ * ranking of the move generator. Every further depth is one
+ * round of Monte Carlo simulation (see Simulator) adding a batch
+ * of 2-ply playouts to each candidate. The candidates are re-ranked
+ * by their average equity after every round, so a best-so-far
+ * ranking is always available and is returned as soon as the time
+ * or node budget runs out (checked between rounds). Without a time
+ * limit the rounds have a fixed number of playouts, so a search
+ * stopped by its node budget alone ranks alike on any machine.
+ */
+public class AnytimeSearch
+{
+	/* Time budget of searches stopped by their node budget alone */
+	public static final long NO_TIME_LIMIT = -1;
+
+	/* Playouts per candidate and round without a time limit */
+	private static final int FIXED_PLAYOUTS_PER_ROUND = 8;
+
+	private ParallelMoveSearch moveSearch;
+	private Simulator simulator;
+
+	private SearchStats lastStats;
+
+	public AnytimeSearch(ParallelMoveSearch moveSearch, Simulator simulator)
+	{
+		this.moveSearch = moveSearch;
+		this.simulator = simulator;
+	}
+
+	/**
+	 *
+	 * @param boardSquares Row-major letters of the board ('A'-'Z', 0 if empty)
+	 * @param rackCounts Number of each letter (index 0 = 'A') in the rack
+	 * @param unseenCounts Number of each letter not seen by the searching
+	 * player, which the simulation's racks are drawn from
+	 * @param candidates Number of best static moves considered
+	 * @param timeBudget Milliseconds allowed for simulation (0 for a static
+	 * search, NO_TIME_LIMIT to simulate until the node budget runs out)
+	 * @param nodeBudget Nodes (generated moves) allowed for the whole search
+	 * @param cancellation Abandons the search once cancelled, returning
+	 * the best-so-far ranking
+	 * @return The candidates ranked by equity after the last completed round
+	 * (the static ranking if no simulation was run). The static ranking is
+	 * always computed in full, whatever the budget.
+	 */
+	public ArrayList<Move> search(char[] boardSquares, int[] rackCounts, int[] unseenCounts, int candidates,
+								  long timeBudget, long nodeBudget, Cancellation cancellation)
+	{
+		long start = System.nanoTime();
+		long deadline = timeBudget == NO_TIME_LIMIT ? Long.MAX_VALUE : start + timeBudget * 1000000L;
+
+		ArrayList<Move> ranking = moveSearch.search(boardSquares, rackCounts, candidates, cancellation);
+		long nodes = moveSearch.getMovesGenerated();
+		int depth = 0;
+
+		int size = ranking.size();
+		int playoutsPerRound = timeBudget == NO_TIME_LIMIT ? FIXED_PLAYOUTS_PER_ROUND :
+							   Math.max(1, simulator.getParallelism());
+		double[] equityTotals = new double[size];
+
+		boolean expired = cancellation.isCancelled() || timeBudget == 0 || size < 2;
+
+		while(!expired)
+		{
+			double[] roundTotals = new double[size];
+			nodes += simulator.simulate(boardSquares, rackCounts, unseenCounts, ranking, playoutsPerRound, roundTotals);
+
+			/* A cancelled round may be incomplete */
+			if(cancellation.isCancelled())
+			{
+				break;
+			}
+
+			for(int i = 0; i < size; i++)
+			{
+				equityTotals[i] += roundTotals[i];
+			}
+
+			depth++;
+			expired = System.nanoTime() >= deadline || nodes >= nodeBudget;
+		}
+
+		if(depth > 0)
+		{
+			ranking = rankByEquity(ranking, equityTotals, depth * playoutsPerRound);
+		}
+
+		lastStats = new SearchStats(depth, nodes, (long)depth * playoutsPerRound * size,
+									System.nanoTime() - start);
+		return ranking;
+	}
+
+	/**
+	 *
+	 * @return The statistics of the last search
+	 * (null if none has completed)
+	 */
+	public SearchStats getLastStats()
+	{
+		return lastStats;
+	}
+
+	/**
+	 *
+	 * @return The candidates sorted by their average
+	 * equity, ties kept in static ranking order
+	 */
+	private static ArrayList<Move> rankByEquity(final ArrayList<Move> ranking, double[] equityTotals,
+												int playouts)
+	{
+		final double[] equity = new double[ranking.size()];
+		ArrayList<Integer> order = new ArrayList<>(ranking.size());
+
+		for(int i = 0; i < equity.length; i++)
+		{
+			equity[i] = equityTotals[i] / playouts;
+			order.add(i);
+		}
+
+		/* Stable sort keeps the static ranking for equal equities */
+		Collections.sort(order, new Comparator<Integer>()
+		{
+			@Override
+			public int compare(Integer a, Integer b)
+			{
+				return Double.compare(equity[b], equity[a]);
+			}
+		});
+
+		ArrayList<Move> result = new ArrayList<>(ranking.size());
+
+		for(int index : order)
+		{
+			result.add(ranking.get(index));
+		}
+
+		return result;
+	}
+}
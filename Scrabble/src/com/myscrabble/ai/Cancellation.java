@@ -0,0 +1,26 @@
+package com.myscrabble.ai;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Cancels one move selection (and the searches it runs) from
+ * another thread. Every selection is given its own cancellation
+ * before it is submitted, so a cancel made before the search has
+ * started still stops it, and cancelling an abandoned selection
+ * never reaches the one planned after it.
+ */
+public class Cancellation
+{
+	private volatile boolean cancelled;
+
+	public void cancel()
+	{
+		cancelled = true;
+	}
+
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+}
@@ -0,0 +1,334 @@
+package com.myscrabble.ai;
+
+import com.myscrabble.entities.BoardState;
+import com.myscrabble.util.Dawg;
+import com.myscrabble.util.ScrabbleUtils;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * The per-square state move generation needs besides the letters:
+ * the anchor squares and, for both directions, the letters allowed on
+ * every empty square by the perpendicular word they would form together
+ * with that word's letter sum. The state is kept for the last board it
+ * was updated to and is brought up to date incrementally: a changed
+ * square only affects its own state, the anchors of its neighbours and
+ * the cross-checks of the two empty squares bounding its row and column
+ * runs, so only those are recomputed. Every row and column holding a
+ * recomputed square is flagged dirty until the flags are cleared, which
+ * lets callers cache per-line results between updates. The board copy
+ * is a BoardState, whose occupancy bitboards answer the anchor and
+ * run-length queries.
+ */
+public class CrossChecks
+{
+	/* Cross score value of squares without perpendicular neighbours */
+	public static final int NO_CROSS = -1;
+
+	private static final int SIZE = MoveGenerator.SIZE;
+	private static final int SQUARES = MoveGenerator.SQUARES;
+	private static final int ALL_LETTERS = (1 << 26) - 1;
+	private static final int CENTRE = BoardState.CENTRE;
+
+	private Dawg dawg;
+	private int[] letterValues;
+
+	/* The board this state was last updated to */
+	private BoardState squares;
+
+	private int[][] crossMasks;
+	private int[][] crossScores;
+	private boolean[] anchors;
+
+	/* Rows (ACROSS) and columns (DOWN) changed since the flags were last cleared */
+	private boolean[][] dirtyLines;
+
+	/* Squares to recompute in the current update */
+	private int[] pending;
+	private boolean[] isPending;
+	private int pendingCount;
+
+	public CrossChecks(Dawg dawg)
+	{
+		this.dawg = dawg;
+
+		letterValues = new int[26];
+
+		for(int i = 0; i < letterValues.length; i++)
+		{
+			letterValues[i] = ScrabbleUtils.getValueOf((char)('A' + i));
+		}
+
+		squares = new BoardState();
+		crossMasks = new int[2][SQUARES];
+		crossScores = new int[2][SQUARES];
+		anchors = new boolean[SQUARES];
+		dirtyLines = new boolean[2][SIZE];
+		pending = new int[SQUARES];
+		isPending = new boolean[SQUARES];
+
+		/* An empty board: anything goes anywhere, moves start from the centre */
+		for(int dir = MoveGenerator.ACROSS; dir <= MoveGenerator.DOWN; dir++)
+		{
+			for(int square = 0; square < SQUARES; square++)
+			{
+				crossMasks[dir][square] = ALL_LETTERS;
+				crossScores[dir][square] = NO_CROSS;
+			}
+		}
+
+		anchors[CENTRE] = true;
+		markAllDirty();
+	}
+
+	/**
+	 *
+	 * @param boardSquares Row-major letters of the board ('A'-'Z', 0 if empty)
+	 * Brings the state up to date with the board, recomputing
+	 * only what the squares that differ from the last board affect
+	 */
+	public void update(char[] boardSquares)
+	{
+		for(int square = 0; square < SQUARES; square++)
+		{
+			if(squares.getLetter(square) != boardSquares[square])
+			{
+				setSquare(square, boardSquares[square]);
+			}
+		}
+
+		recomputePending();
+	}
+
+	/**
+	 *
+	 * @param square Row-major index of the square
+	 * @param letter The letter placed there ('A'-'Z', 0 to clear it)
+	 * Registers a single change, e.g. a tile of a move just made
+	 */
+	public void set(int square, char letter)
+	{
+		if(squares.getLetter(square) != letter)
+		{
+			setSquare(square, letter);
+			recomputePending();
+		}
+	}
+
+	public boolean isDirty(int dir, int lineIndex)
+	{
+		return dirtyLines[dir][lineIndex];
+	}
+
+	public void clearDirty(int dir, int lineIndex)
+	{
+		dirtyLines[dir][lineIndex] = false;
+	}
+
+	public void markAllDirty()
+	{
+		for(int lineIndex = 0; lineIndex < SIZE; lineIndex++)
+		{
+			dirtyLines[MoveGenerator.ACROSS][lineIndex] = true;
+			dirtyLines[MoveGenerator.DOWN][lineIndex] = true;
+		}
+	}
+
+	/**
+	 * Changes a square and queues every square whose state it affects
+	 */
+	private void setSquare(int square, char letter)
+	{
+		squares.set(square, letter);
+
+		int row = square / SIZE;
+		int col = square % SIZE;
+
+		/* Anchors depend on the four neighbours */
+		queue(square);
+		queueIfOnBoard(row - 1, col);
+		queueIfOnBoard(row + 1, col);
+		queueIfOnBoard(row, col - 1);
+		queueIfOnBoard(row, col + 1);
+
+		/* Cross-checks depend on the runs bounded by empty squares */
+		queueRunEnds(MoveGenerator.ACROSS, row, col);
+		queueRunEnds(MoveGenerator.DOWN, col, row);
+
+		/* The centre stops being an anchor once the board is not empty */
+		queue(CENTRE);
+	}
+
+	/**
+	 * Queues the first empty square on either side of the run
+	 * of filled squares next to position pos of the line
+	 */
+	private void queueRunEnds(int dir, int line, int pos)
+	{
+		queueOnLine(dir, line, pos - 1 - squares.filledBefore(dir, line, pos));
+		queueOnLine(dir, line, pos + 1 + squares.filledAfter(dir, line, pos));
+	}
+
+	private void queueOnLine(int dir, int line, int pos)
+	{
+		if(pos >= 0 && pos < SIZE)
+		{
+			queue(MoveGenerator.getSquare(dir, line, pos));
+		}
+	}
+
+	private void queueIfOnBoard(int row, int col)
+	{
+		if(row >= 0 && col >= 0 && row < SIZE && col < SIZE)
+		{
+			queue(row * SIZE + col);
+		}
+	}
+
+	private void queue(int square)
+	{
+		if(!isPending[square])
+		{
+			isPending[square] = true;
+			pending[pendingCount++] = square;
+		}
+	}
+
+	private void recomputePending()
+	{
+		for(int i = 0; i < pendingCount; i++)
+		{
+			int square = pending[i];
+
+			computeAnchor(square);
+			computeCrossCheck(MoveGenerator.ACROSS, square);
+			computeCrossCheck(MoveGenerator.DOWN, square);
+
+			dirtyLines[MoveGenerator.ACROSS][square / SIZE] = true;
+			dirtyLines[MoveGenerator.DOWN][square % SIZE] = true;
+			isPending[square] = false;
+		}
+
+		pendingCount = 0;
+
+		/* The copy is only ever moved forwards */
+		squares.clearUndo();
+	}
+
+	private void computeAnchor(int square)
+	{
+		anchors[square] = squares.isAnchor(square);
+	}
+
+	/**
+	 *
+	 * @param dir Direction of the main words generated
+	 * @param square The square to compute
+	 * Computes the letters allowed on the square by the
+	 * perpendicular word it would form and that word's letter sum
+	 */
+	private void computeCrossCheck(int dir, int square)
+	{
+		int other = 1 - dir;
+
+		if(!squares.isEmpty(square))
+		{
+			crossMasks[dir][square] = 0;
+			crossScores[dir][square] = NO_CROSS;
+			return;
+		}
+
+		/* Along the perpendicular line the square sits at position lineIndex */
+		int lineIndex = dir == MoveGenerator.ACROSS ? square / SIZE : square % SIZE;
+		int pos = dir == MoveGenerator.ACROSS ? square % SIZE : square / SIZE;
+
+		int start = lineIndex - squares.filledBefore(other, pos, lineIndex);
+		int end = lineIndex + squares.filledAfter(other, pos, lineIndex);
+
+		if(start == lineIndex && end == lineIndex)
+		{
+			crossMasks[dir][square] = ALL_LETTERS;
+			crossScores[dir][square] = NO_CROSS;
+			return;
+		}
+
+		int sum = 0;
+		int node = dawg.getRoot();
+
+		for(int p = start; p < lineIndex && node != Dawg.NO_EDGE; p++)
+		{
+			char letter = squares.getLetter(MoveGenerator.getSquare(other, pos, p));
+			sum += letterValues[letter - 'A'];
+			int edge = dawg.getEdge(node, letter);
+			node = edge == Dawg.NO_EDGE ? Dawg.NO_EDGE : dawg.getTarget(edge);
+		}
+
+		for(int p = lineIndex + 1; p <= end; p++)
+		{
+			sum += letterValues[squares.getLetter(MoveGenerator.getSquare(other, pos, p)) - 'A'];
+		}
+
+		int mask = 0;
+
+		if(node != Dawg.NO_EDGE && node != Dawg.NONE)
+		{
+			for(int edge = node; ; edge++)
+			{
+				if(acceptsSuffix(edge, other, pos, lineIndex + 1, end))
+				{
+					mask |= 1 << dawg.getSymbol(edge);
+				}
+
+				if(dawg.isLastEdge(edge))
+				{
+					break;
+				}
+			}
+		}
+
+		crossMasks[dir][square] = mask;
+		crossScores[dir][square] = sum;
+	}
+
+	/**
+	 *
+	 * @return whether following the board letters from 'from' to 'to'
+	 * (inclusive) after the given edge ends on a complete word
+	 */
+	private boolean acceptsSuffix(int edge, int dir, int lineIndex, int from, int to)
+	{
+		for(int p = from; p <= to; p++)
+		{
+			edge = dawg.getEdge(dawg.getTarget(edge), squares.getLetter(MoveGenerator.getSquare(dir, lineIndex, p)));
+
+			if(edge == Dawg.NO_EDGE)
+			{
+				return false;
+			}
+		}
+
+		return dawg.isTerminal(edge);
+	}
+
+	/* Getters (the arrays are updated in place) */
+	public int[][] getCrossMasks()
+	{
+		return crossMasks;
+	}
+
+	public int[][] getCrossScores()
+	{
+		return crossScores;
+	}
+
+	public boolean[] getAnchors()
+	{
+		return anchors;
+	}
+
+	public BoardState getBoard()
+	{
+		return squares;
+	}
+}
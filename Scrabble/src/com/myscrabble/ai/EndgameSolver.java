@@ -0,0 +1,421 @@
+package com.myscrabble.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.myscrabble.util.ScrabbleUtils;
+import com.myscrabble.util.Zobrist;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Solves endgames, i.e. positions where the letter bag is empty
+ * and both racks are therefore known. Negamax with alpha-beta pruning
+ * searches the moves of both players (and passes), ordered by static
+ * score, maximising the final score spread including the end of game
+ * rack penalties: a player going out gains the value of the opponent's
+ * rack twice over (once added, once subtracted from the opponent), and
+ * after a pass by each player in a row both lose their own rack's value.
+ * <br>
+ * Positions are Zobrist-hashed (board, both racks and side to move) into
+ * a fixed-size transposition table holding bounds and the best move of
+ * each searched position. The search deepens iteratively until it sees
+ * every game through to the end or runs out of time or nodes, in which
+ * case the best move of the last completed depth is returned. A solve
+ * limited by nodes alone starts from an empty table, so its result
+ * depends on the position only and a replayed game solves alike.
+ */
+public class EndgameSolver
+{
+	/* Number of passes in a row ending the game (one per player) */
+	public static final int PASSES_ENDING_GAME = 2;
+
+	/* Node limit of solves stopped by time alone */
+	public static final long NO_NODE_LIMIT = Long.MAX_VALUE;
+
+	/* Depth stored for positions searched to the end of the game */
+	private static final byte SOLVED = Byte.MAX_VALUE;
+
+	/* Bound types of the transposition table entries */
+	private static final byte EXACT = 0;
+	private static final byte LOWER = 1;
+	private static final byte UPPER = 2;
+
+	private static final int TABLE_BITS = 18;
+	private static final int TABLE_SIZE = 1 << TABLE_BITS;
+
+	/* Nodes searched between two checks of the clock and the node limit */
+	private static final int CHECK_INTERVAL = 256;
+
+	private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+	/* Mixed into the hash of positions following a pass */
+	private static final long PASS_KEY = 0x9E3779B97F4A7C15L;
+
+	/* Thrown to unwind a search that ran out of time or nodes or was cancelled */
+	private static final RuntimeException TIME_OUT = new RuntimeException("Endgame search timed out");
+
+	private MoveGenerator generator;
+
+	/* Transposition table */
+	private long[] keys;
+	private int[] values;
+	private short[] bestMoves;
+	private byte[] depths;
+	private byte[] bounds;
+
+	/* Position being searched: side 0 is the searching player */
+	private char[] board;
+	private int[][] racks;
+	private int[] rackSizes;
+	private int side;
+	private long hash;
+
+	/* Depth of the iteration in progress and its best root move */
+	private int rootDepth;
+	private ArrayList<Move> rootMoves;
+	private int rootBest;
+
+	/* Positions visited by the current solve */
+	private long nodes;
+	private long nodeLimit;
+	private long deadline;
+	private boolean horizonReached;
+
+	private int lastSpread;
+	private SearchStats lastStats;
+
+	/* Abandons the solve in progress once cancelled */
+	private Cancellation cancellation;
+
+	public EndgameSolver(MoveGenerator generator)
+	{
+		this.generator = generator;
+
+		keys = new long[TABLE_SIZE];
+		values = new int[TABLE_SIZE];
+		bestMoves = new short[TABLE_SIZE];
+		depths = new byte[TABLE_SIZE];
+		bounds = new byte[TABLE_SIZE];
+	}
+
+	/**
+	 *
+	 * @param boardSquares Row-major letters of the board ('A'-'Z', 0 if empty)
+	 * @param rackCounts Number of each letter (index 0 = 'A') in the searching player's rack
+	 * @param opponentCounts Number of each letter in the opponent's rack
+	 * @param timeLimit Milliseconds allowed for the search (AnytimeSearch.NO_TIME_LIMIT for none)
+	 * @param nodeLimit Positions the search may visit (NO_NODE_LIMIT for no limit)
+	 * @param cancellation Abandons the search once cancelled, returning
+	 * the best move of the last completed depth
+	 * @return The best move found for the searching player, or null
+	 * if passing is best (or there is no move at all)
+	 */
+	public Move solve(char[] boardSquares, int[] rackCounts, int[] opponentCounts, long timeLimit, long nodeLimit,
+					  Cancellation cancellation)
+	{
+		this.cancellation = cancellation;
+
+		long start = System.nanoTime();
+		deadline = timeLimit == AnytimeSearch.NO_TIME_LIMIT ? Long.MAX_VALUE : start + timeLimit * 1000000L;
+		this.nodeLimit = nodeLimit;
+
+		if(nodeLimit != NO_NODE_LIMIT)
+		{
+			Arrays.fill(keys, 0L);
+		}
+
+		board = boardSquares.clone();
+		racks = new int[][]{ rackCounts.clone(), opponentCounts.clone() };
+		rackSizes = new int[]{ sum(racks[0]), sum(racks[1]) };
+		side = 0;
+		hash = Zobrist.hashBoard(board) ^ Zobrist.hashRack(0, racks[0]) ^ Zobrist.hashRack(1, racks[1]);
+		nodes = 0;
+
+		/* Otherwise entries of earlier solves stay valid as hashes cover the whole position */
+		ArrayList<Move> moves = generator.generate(board, racks[0]);
+		Move best = moves.isEmpty() ? null : moves.get(0);
+		int completedDepth = 0;
+
+		/* Every move places a tile and no two passes in a row continue the game */
+		int maxDepth = 2 * (rackSizes[0] + rackSizes[1]) + 1;
+
+		for(int depth = 1; depth <= maxDepth; depth++)
+		{
+			horizonReached = false;
+			rootDepth = depth;
+
+			try
+			{
+				lastSpread = negamax(depth, -INFINITY, INFINITY, 0);
+			}
+			catch(RuntimeException e)
+			{
+				if(e != TIME_OUT)
+				{
+					throw e;
+				}
+
+				break;
+			}
+
+			best = rootBest < rootMoves.size() ? rootMoves.get(rootBest) : null;
+			completedDepth = depth;
+
+			/* Every line was searched to the end of the game */
+			if(!horizonReached)
+			{
+				break;
+			}
+		}
+
+		lastStats = new SearchStats(completedDepth, nodes, 0, System.nanoTime() - start);
+		return best;
+	}
+
+	/**
+	 *
+	 * @return The spread (searching player's points minus the opponent's,
+	 * from now until the end of the game) of the last completed depth
+	 */
+	public int getLastSpread()
+	{
+		return lastSpread;
+	}
+
+	/**
+	 *
+	 * @return The statistics of the last solve
+	 * (null if none has completed)
+	 */
+	public SearchStats getLastStats()
+	{
+		return lastStats;
+	}
+
+	/**
+	 *
+	 * @param depth Plies left to search
+	 * @param passes Number of passes played in a row before this position
+	 * @return The best spread the side to move can secure
+	 */
+	private int negamax(int depth, int alpha, int beta, int passes)
+	{
+		if(++nodes % CHECK_INTERVAL == 0 &&
+		   (cancellation.isCancelled() || nodes >= nodeLimit || System.nanoTime() >= deadline))
+		{
+			throw TIME_OUT;
+		}
+
+		long key = passes == 0 ? hash : hash ^ PASS_KEY;
+		int slot = (int)(key ^ (key >>> 32)) & (TABLE_SIZE - 1);
+		int storedMove = -1;
+
+		if(keys[slot] == key)
+		{
+			storedMove = bestMoves[slot];
+
+			/* The root is always searched to record its best move */
+			if(depths[slot] >= depth && depth != rootDepth)
+			{
+				int value = values[slot];
+
+				if(bounds[slot] == EXACT ||
+				   bounds[slot] == LOWER && value >= beta ||
+				   bounds[slot] == UPPER && value <= alpha)
+				{
+					horizonReached |= depths[slot] != SOLVED;
+					return value;
+				}
+			}
+		}
+
+		if(depth == 0)
+		{
+			horizonReached = true;
+			return rackValue(1 - side) - rackValue(side);
+		}
+
+		ArrayList<Move> moves = generator.generate(board, racks[side]);
+
+		/* Whether this position's own subtree reaches the horizon */
+		boolean outerHorizon = horizonReached;
+		horizonReached = false;
+
+		int originalAlpha = alpha;
+		int best = -INFINITY;
+		int bestMove = 0;
+
+		/* Moves in static order after the stored best one, passing last */
+		for(int i = -1; i <= moves.size(); i++)
+		{
+			int candidate = i == -1 ? storedMove : i;
+
+			if(candidate == -1 || i != -1 && candidate == storedMove || candidate > moves.size())
+			{
+				continue;
+			}
+
+			int value;
+
+			if(candidate == moves.size())
+			{
+				value = pass(depth, alpha, beta, passes);
+			}
+			else
+			{
+				value = play(moves.get(candidate), depth, alpha, beta);
+			}
+
+			if(value > best)
+			{
+				best = value;
+				bestMove = candidate;
+			}
+
+			if(best > alpha)
+			{
+				alpha = best;
+			}
+
+			if(alpha >= beta)
+			{
+				break;
+			}
+		}
+
+		keys[slot] = key;
+		values[slot] = best;
+		bestMoves[slot] = (short)bestMove;
+		depths[slot] = horizonReached ? (byte)Math.min(depth, SOLVED - 1) : SOLVED;
+		bounds[slot] = best <= originalAlpha ? UPPER : best >= beta ? LOWER : EXACT;
+
+		horizonReached |= outerHorizon;
+
+		if(depth == rootDepth)
+		{
+			rootMoves = moves;
+			rootBest = bestMove;
+		}
+
+		return best;
+	}
+
+	/**
+	 *
+	 * @return The spread the side to move secures by playing the move
+	 */
+	private int play(Move move, int depth, int alpha, int beta)
+	{
+		String word = move.getWord();
+		int[] rack = racks[side];
+
+		for(int i = 0; i < word.length(); i++)
+		{
+			if(move.isPlaced(i))
+			{
+				int symbol = word.charAt(i) - 'A';
+				int square = move.getRow(i) * MoveGenerator.SIZE + move.getCol(i);
+
+				board[square] = word.charAt(i);
+				hash ^= Zobrist.square(square, word.charAt(i)) ^
+						Zobrist.rack(side, symbol, rack[symbol]) ^
+						Zobrist.rack(side, symbol, rack[symbol] - 1);
+				rack[symbol]--;
+			}
+		}
+
+		rackSizes[side] -= move.getTilesPlaced();
+
+		int value;
+
+		if(rackSizes[side] == 0)
+		{
+			/* Went out: the opponent's rack counts for us and against them */
+			value = move.getScore() + 2 * rackValue(1 - side);
+		}
+		else
+		{
+			switchSide();
+			value = move.getScore() - negamax(depth - 1, -beta, -alpha, 0);
+			switchSide();
+		}
+
+		rackSizes[side] += move.getTilesPlaced();
+
+		for(int i = 0; i < word.length(); i++)
+		{
+			if(move.isPlaced(i))
+			{
+				int symbol = word.charAt(i) - 'A';
+				int square = move.getRow(i) * MoveGenerator.SIZE + move.getCol(i);
+
+				board[square] = 0;
+				rack[symbol]++;
+				hash ^= Zobrist.square(square, word.charAt(i)) ^
+						Zobrist.rack(side, symbol, rack[symbol] - 1) ^
+						Zobrist.rack(side, symbol, rack[symbol]);
+			}
+		}
+
+		return value;
+	}
+
+	/**
+	 *
+	 * @return The spread the side to move secures by passing
+	 */
+	private int pass(int depth, int alpha, int beta, int passes)
+	{
+		if(passes + 1 >= PASSES_ENDING_GAME)
+		{
+			/* Game over: both players lose their rack's value */
+			return rackValue(1 - side) - rackValue(side);
+		}
+
+		switchSide();
+		int value = -negamax(depth - 1, -beta, -alpha, passes + 1);
+		switchSide();
+
+		return value;
+	}
+
+	private void switchSide()
+	{
+		side = 1 - side;
+		hash ^= Zobrist.side();
+	}
+
+	/**
+	 *
+	 * @return The sum of the letter values
+	 * in the given side's rack
+	 */
+	private int rackValue(int player)
+	{
+		int value = 0;
+
+		for(int symbol = 0; symbol < racks[player].length; symbol++)
+		{
+			if(racks[player][symbol] > 0)
+			{
+				value += racks[player][symbol] * ScrabbleUtils.getValueOf((char)('A' + symbol));
+			}
+		}
+
+		return value;
+	}
+
+	private static int sum(int[] counts)
+	{
+		int result = 0;
+
+		for(int count : counts)
+		{
+			result += count;
+		}
+
+		return result;
+	}
+}
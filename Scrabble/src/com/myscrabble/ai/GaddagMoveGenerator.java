@@ -0,0 +1,248 @@
+package com.myscrabble.ai;
+
+import com.myscrabble.util.Dawg;
+import com.myscrabble.util.Gaddag;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * A move generator growing words in both directions from each
+ * anchor over a GADDAG: the anchor letter is placed first, the
+ * word is extended leftwards following the reversed prefix and,
+ * once the separator is taken, rightwards following the suffix.
+ * Unlike left-part enumeration no prefix is ever tried that cannot
+ * reach the anchor, which roughly halves the search. Leftward
+ * growth never covers another empty anchor, so every move is
+ * generated once (from its leftmost anchor) and the result is
+ * identical to the MoveGenerator's.
+ */
+public class GaddagMoveGenerator extends MoveGenerator
+{
+	private Gaddag source;
+	private Dawg gaddag;
+
+	/* Letters of the word being built, by position along the line */
+	private char[] lineLetters;
+	private boolean[] linePlaced;
+
+	/**
+	 *
+	 * @param dawg The lexicon's word graph (used for the cross-checks)
+	 * @param gaddag The GADDAG of the same lexicon
+	 */
+	public GaddagMoveGenerator(Dawg dawg, Gaddag gaddag)
+	{
+		super(dawg);
+		this.source = gaddag;
+		this.gaddag = gaddag.getGraph();
+
+		lineLetters = new char[SIZE];
+		linePlaced = new boolean[SIZE];
+	}
+
+	private GaddagMoveGenerator(GaddagMoveGenerator prepared)
+	{
+		super(prepared);
+		source = prepared.source;
+		gaddag = prepared.gaddag;
+
+		lineLetters = new char[SIZE];
+		linePlaced = new boolean[SIZE];
+	}
+
+	@Override
+	public MoveGenerator fork()
+	{
+		return new GaddagMoveGenerator(this);
+	}
+
+	@Override
+	public MoveGenerator duplicate()
+	{
+		MoveGenerator result = new GaddagMoveGenerator(getDawg(), source);
+		result.setLeaveTable(getLeaveTable());
+		return result;
+	}
+
+	@Override
+	protected void generateAnchor(int pos)
+	{
+		anchor = pos;
+		goLeft(pos, gaddag.getRoot());
+	}
+
+	/**
+	 *
+	 * @param pos Position (at or left of the anchor) to fill next
+	 * @param node GADDAG node reached so far
+	 */
+	private void goLeft(int pos, int node)
+	{
+		if(isFilledAt(pos))
+		{
+			int edge = gaddag.getEdge(node, letterAt(pos));
+
+			if(edge != Dawg.NO_EDGE)
+			{
+				lineLetters[pos] = letterAt(pos);
+				linePlaced[pos] = false;
+				leftStep(pos, edge);
+			}
+
+			return;
+		}
+
+		/* Squares left of the anchor that are anchors themselves are covered from there */
+		if(node == Dawg.NONE || (pos != anchor && anchors[getSquare(direction, line, pos)]))
+		{
+			return;
+		}
+
+		int allowed = crossMasks[direction][getSquare(direction, line, pos)];
+
+		for(int edge = node; ; edge++)
+		{
+			int symbol = gaddag.getSymbol(edge);
+
+			if(symbol < ALPHABET_SIZE && rack[symbol] > 0 && (allowed & (1 << symbol)) != 0)
+			{
+				rack[symbol]--;
+				lineLetters[pos] = (char)('A' + symbol);
+				linePlaced[pos] = true;
+				leftStep(pos, edge);
+				rack[symbol]++;
+			}
+
+			if(gaddag.isLastEdge(edge))
+			{
+				break;
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param pos Position of the letter just taken leftwards
+	 * @param edge The GADDAG edge of that letter
+	 */
+	private void leftStep(int pos, int edge)
+	{
+		boolean leftOpen = pos == 0 || !isFilledAt(pos - 1);
+		boolean rightOpen = anchor == SIZE - 1 || !isFilledAt(anchor + 1);
+
+		if(gaddag.isTerminal(edge) && leftOpen && rightOpen)
+		{
+			record(pos, anchor);
+		}
+
+		int node = gaddag.getTarget(edge);
+
+		if(node == Dawg.NONE)
+		{
+			return;
+		}
+
+		if(pos > 0)
+		{
+			goLeft(pos - 1, node);
+		}
+
+		if(leftOpen && anchor < SIZE - 1)
+		{
+			int separator = gaddag.getEdge(node, Gaddag.SEPARATOR);
+
+			if(separator != Dawg.NO_EDGE)
+			{
+				goRight(anchor + 1, gaddag.getTarget(separator), pos);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param pos Position (right of the anchor) to fill next
+	 * @param node GADDAG node reached so far
+	 * @param start Position of the word's first letter
+	 */
+	private void goRight(int pos, int node, int start)
+	{
+		if(pos >= SIZE || node == Dawg.NONE)
+		{
+			return;
+		}
+
+		if(isFilledAt(pos))
+		{
+			int edge = gaddag.getEdge(node, letterAt(pos));
+
+			if(edge != Dawg.NO_EDGE)
+			{
+				lineLetters[pos] = letterAt(pos);
+				linePlaced[pos] = false;
+				rightStep(pos, edge, start);
+			}
+
+			return;
+		}
+
+		int allowed = crossMasks[direction][getSquare(direction, line, pos)];
+
+		for(int edge = node; ; edge++)
+		{
+			int symbol = gaddag.getSymbol(edge);
+
+			if(symbol < ALPHABET_SIZE && rack[symbol] > 0 && (allowed & (1 << symbol)) != 0)
+			{
+				rack[symbol]--;
+				lineLetters[pos] = (char)('A' + symbol);
+				linePlaced[pos] = true;
+				rightStep(pos, edge, start);
+				rack[symbol]++;
+			}
+
+			if(gaddag.isLastEdge(edge))
+			{
+				break;
+			}
+		}
+	}
+
+	private void rightStep(int pos, int edge, int start)
+	{
+		if(gaddag.isTerminal(edge) && (pos == SIZE - 1 || !isFilledAt(pos + 1)))
+		{
+			record(start, pos);
+		}
+
+		goRight(pos + 1, gaddag.getTarget(edge), start);
+	}
+
+	/**
+	 *
+	 * @param start Position of the word's first letter
+	 * @param end Position of the word's last letter
+	 */
+	private void record(int start, int end)
+	{
+		int len = end - start + 1;
+		int placedMask = 0;
+
+		if(len < 2)
+		{
+			return;
+		}
+
+		for(int i = 0; i < len; i++)
+		{
+			word[i] = lineLetters[start + i];
+
+			if(linePlaced[start + i])
+			{
+				placedMask |= 1 << i;
+			}
+		}
+
+		recordMove(start, len, placedMask);
+	}
+}
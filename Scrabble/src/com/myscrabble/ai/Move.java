@@ -0,0 +1,209 @@
+package com.myscrabble.ai;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * A legal placement found by the move generator: the main
+ * word it forms, the square of the word's first letter, its
+ * direction, which of its letters are newly placed tiles, the
+ * exact score of the placement and its equity (the score plus
+ * the value of the tiles kept, see LeaveTable). Moves are ordered
+ * by descending equity, then score, with ties broken by position,
+ * direction and word so that rankings are deterministic.
+ */
+public class Move implements Comparable<Move>
+{
+	private String word;
+	private int row;
+	private int col;
+	private boolean horizontal;
+
+	/* Bit i is set if the word's i-th letter is placed from the rack */
+	private int placedMask;
+	private int score;
+	private float equity;
+
+	public Move(String word, int row, int col, boolean horizontal, int placedMask, int score)
+	{
+		this(word, row, col, horizontal, placedMask, score, score);
+	}
+
+	public Move(String word, int row, int col, boolean horizontal, int placedMask, int score, float equity)
+	{
+		this.word = word;
+		this.row = row;
+		this.col = col;
+		this.horizontal = horizontal;
+		this.placedMask = placedMask;
+		this.score = score;
+		this.equity = equity;
+	}
+
+	@Override
+	public int compareTo(Move other)
+	{
+		if(equity != other.equity)
+		{
+			return Float.compare(other.equity, equity);
+		}
+
+		if(score != other.score)
+		{
+			return other.score - score;
+		}
+
+		if(row != other.row)
+		{
+			return row - other.row;
+		}
+
+		if(col != other.col)
+		{
+			return col - other.col;
+		}
+
+		if(horizontal != other.horizontal)
+		{
+			return horizontal ? -1 : 1;
+		}
+
+		return word.compareTo(other.word);
+	}
+
+	@Override
+	public boolean equals(Object object)
+	{
+		if(!(object instanceof Move))
+		{
+			return false;
+		}
+
+		Move other = (Move)object;
+
+		return other.row == row && other.col == col && other.horizontal == horizontal &&
+			   other.placedMask == placedMask && other.word.equals(word);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return ((word.hashCode() * 31 + row) * 31 + col) * 2 + (horizontal ? 1 : 0);
+	}
+
+	@Override
+	public String toString()
+	{
+		return word + " at (" + col + ", " + row + ") " + (horizontal ? "HORIZONTAL" : "VERTICAL") +
+			   " for " + score + " points";
+	}
+
+	/**
+	 *
+	 * @param index Index of a letter in the main word
+	 * @return the row of the square holding that letter
+	 */
+	public int getRow(int index)
+	{
+		return horizontal ? row : row + index;
+	}
+
+	/**
+	 *
+	 * @param index Index of a letter in the main word
+	 * @return the column of the square holding that letter
+	 */
+	public int getCol(int index)
+	{
+		return horizontal ? col + index : col;
+	}
+
+	/**
+	 *
+	 * @param index Index of a letter in the main word
+	 * @return whether that letter is placed from the rack
+	 * (as opposed to already lying on the board)
+	 */
+	public boolean isPlaced(int index)
+	{
+		return (placedMask & (1 << index)) != 0;
+	}
+
+	/**
+	 *
+	 * @return the number of tiles placed from the rack
+	 */
+	public int getTilesPlaced()
+	{
+		return Integer.bitCount(placedMask);
+	}
+
+	/**
+	 *
+	 * @return the letters placed from the rack
+	 * in word order
+	 */
+	public String getPlacedLetters()
+	{
+		StringBuilder result = new StringBuilder();
+
+		for(int i = 0; i < word.length(); i++)
+		{
+			if(isPlaced(i))
+			{
+				result.append(word.charAt(i));
+			}
+		}
+
+		return result.toString();
+	}
+
+	/**
+	 *
+	 * @param squares Row-major letters of a board
+	 * Writes the letters of this move's word onto the board
+	 */
+	public void placeOn(char[] squares)
+	{
+		for(int i = 0; i < word.length(); i++)
+		{
+			squares[getRow(i) * MoveGenerator.SIZE + getCol(i)] = word.charAt(i);
+		}
+	}
+	
+	/* Getters */
+	public String getWord()
+	{
+		return word;
+	}
+
+	public int getRow()
+	{
+		return row;
+	}
+
+	public int getCol()
+	{
+		return col;
+	}
+
+	public boolean isHorizontal()
+	{
+		return horizontal;
+	}
+
+	public int getPlacedMask()
+	{
+		return placedMask;
+	}
+
+	public int getScore()
+	{
+		return score;
+	}
+
+	public float getEquity()
+	{
+		return equity;
+	}
+}
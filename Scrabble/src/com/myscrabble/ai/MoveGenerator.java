@@ -0,0 +1,530 @@
+package com.myscrabble.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.myscrabble.entities.BoardState;
+import com.myscrabble.entities.TileRack;
+import com.myscrabble.util.Dawg;
+import com.myscrabble.util.LeaveTable;
+import com.myscrabble.util.ScoringEngine;
+import com.myscrabble.util.ScrabbleUtils;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Generates every legal move for a rack on a given board
+ * using the Appel-Jacobson algorithm over the lexicon's word
+ * graph. For each direction the generator first brings up to date
+ * the anchor squares (empty squares next to a placed tile, or the
+ * centre on an empty board) and, for every empty square, the set
+ * of letters that form a valid perpendicular word there together
+ * with that cross-word's letter sum (see CrossChecks, which only
+ * recomputes what changed since the last position generated for,
+ * e.g. the tiles of the moves made in between). Words are then grown from
+ * each anchor: a left part made of rack tiles (or the tiles
+ * already on the board left of the anchor), extended right through
+ * board and rack letters while the prefix stays in the word graph.
+ * The moves of every row and column are cached, and generate()
+ * only searches the lines that changed since (or every line, if
+ * the rack or leave table did). Every legal placement is scored exactly while it is recorded
+ * (main word, cross-words, premium squares under new tiles only,
+ * and the bingo bonus). If a leave table is set, every move's
+ * equity also counts the value of the tiles it keeps, read from
+ * the rack counts left once its tiles are taken out.
+ * <br>
+ * The board is supplied as a row-major array of letters with
+ * 0 for empty squares. Instances are not thread-safe. Subclasses
+ * may replace the per-anchor word search (see GaddagMoveGenerator)
+ * while reusing the anchors, cross-checks and scoring.
+ */
+public class MoveGenerator
+{
+	public static final int ACROSS = BoardState.ACROSS;
+	public static final int DOWN   = BoardState.DOWN;
+
+	/* Points awarded for using all the tiles of a full rack */
+	public static final int BINGO_BONUS = ScoringEngine.BINGO_BONUS;
+
+	/* The board is square */
+	public static final int SIZE = BoardState.SIZE;
+	public static final int SQUARES = BoardState.SQUARES;
+
+	protected static final int ALPHABET_SIZE = 26;
+
+	private Dawg dawg;
+	private int[] letterValues;
+	private int[] letterMultipliers;
+	private int[] wordMultipliers;
+
+	/* Values the tiles kept by each move (null to rank by score alone) */
+	private LeaveTable leaves;
+
+	/* Anchors and cross-checks of the last position, updated incrementally */
+	private CrossChecks position;
+
+	/* Moves of each row (ACROSS) and column (DOWN) for the cached rack */
+	private ArrayList<ArrayList<Move>> lineMoves;
+	private int[] cachedRack;
+
+	/* Per generation state (board is the position's copy, for run-length queries) */
+	protected char[] squares;
+	protected BoardState board;
+	protected int[][] crossMasks;
+	private int[][] crossScores;
+	protected boolean[] anchors;
+	protected int[] rack;
+	protected int rackSize;
+	protected char[] word;
+	private ArrayList<Move> moves;
+
+	protected int direction;
+	protected int line;
+	protected int anchor;
+
+	public MoveGenerator(Dawg dawg)
+	{
+		this.dawg = dawg;
+
+		letterValues = new int[ALPHABET_SIZE];
+
+		for(int i = 0; i < ALPHABET_SIZE; i++)
+		{
+			letterValues[i] = ScrabbleUtils.getValueOf((char)('A' + i));
+		}
+
+		letterMultipliers = new int[SQUARES];
+		wordMultipliers = new int[SQUARES];
+
+		for(int square = 0; square < SQUARES; square++)
+		{
+			letterMultipliers[square] = BoardState.getLetterMultiplier(square);
+			wordMultipliers[square] = BoardState.getWordMultiplier(square);
+		}
+
+		position = new CrossChecks(dawg);
+		crossMasks = position.getCrossMasks();
+		crossScores = position.getCrossScores();
+		anchors = position.getAnchors();
+		board = position.getBoard();
+
+		lineMoves = new ArrayList<>(2 * SIZE);
+		cachedRack = new int[ALPHABET_SIZE];
+
+		for(int i = 0; i < 2 * SIZE; i++)
+		{
+			lineMoves.add(new ArrayList<Move>());
+		}
+
+		rack = new int[ALPHABET_SIZE];
+		word = new char[SIZE];
+	}
+
+	/**
+	 *
+	 * @param prepared A generator that has been prepared for a position
+	 * Creates a generator sharing the prepared position (board, anchors
+	 * and cross-checks, which are only read while searching) but with
+	 * its own rack, word buffer and move list, so that several anchors
+	 * of the same position can be searched concurrently. Forks may not
+	 * be prepared for another position.
+	 */
+	protected MoveGenerator(MoveGenerator prepared)
+	{
+		dawg = prepared.dawg;
+		letterValues = prepared.letterValues;
+		letterMultipliers = prepared.letterMultipliers;
+		wordMultipliers = prepared.wordMultipliers;
+		leaves = prepared.leaves;
+		position = prepared.position;
+
+		squares = prepared.squares;
+		board = prepared.board;
+		crossMasks = prepared.crossMasks;
+		crossScores = prepared.crossScores;
+		anchors = prepared.anchors;
+		rack = prepared.rack.clone();
+		rackSize = prepared.rackSize;
+		word = new char[SIZE];
+		moves = new ArrayList<>();
+	}
+
+	/**
+	 *
+	 * @param boardSquares Row-major letters of the board ('A'-'Z', 0 if empty)
+	 * @param rackCounts Number of each letter (index 0 = 'A') in the rack
+	 * @return Every legal move for the rack, ranked by descending
+	 * equity, then score (ties broken by position, direction and word)
+	 */
+	public ArrayList<Move> generate(char[] boardSquares, int[] rackCounts)
+	{
+		prepare(boardSquares, rackCounts);
+
+		if(!Arrays.equals(rack, cachedRack))
+		{
+			System.arraycopy(rack, 0, cachedRack, 0, ALPHABET_SIZE);
+			position.markAllDirty();
+		}
+
+		for(direction = ACROSS; direction <= DOWN; direction++)
+		{
+			for(line = 0; line < SIZE; line++)
+			{
+				ArrayList<Move> cached = lineMoves.get(direction * SIZE + line);
+
+				if(position.isDirty(direction, line))
+				{
+					int first = moves.size();
+					generateLine();
+
+					cached.clear();
+					cached.addAll(moves.subList(first, moves.size()));
+					position.clearDirty(direction, line);
+				}
+				else
+				{
+					moves.addAll(cached);
+				}
+			}
+		}
+
+		Collections.sort(moves);
+		return moves;
+	}
+
+	/**
+	 *
+	 * @param boardSquares Row-major letters of the board ('A'-'Z', 0 if empty)
+	 * @param rackCounts Number of each letter (index 0 = 'A') in the rack
+	 * Brings the anchors and both directions' cross-checks up to date with
+	 * a position and clears the move list, ready for generateAt() calls.
+	 */
+	public void prepare(char[] boardSquares, int[] rackCounts)
+	{
+		squares = boardSquares;
+		moves = new ArrayList<>();
+		rackSize = 0;
+
+		for(int i = 0; i < ALPHABET_SIZE; i++)
+		{
+			rack[i] = rackCounts[i];
+			rackSize += rackCounts[i];
+		}
+
+		position.update(boardSquares);
+	}
+
+	/**
+	 *
+	 * @return A generator searching the position this generator
+	 * was last prepared for, independently of this one
+	 */
+	public MoveGenerator fork()
+	{
+		return new MoveGenerator(this);
+	}
+
+	/**
+	 *
+	 * @return A new generator over the same lexicon with
+	 * its own position state (e.g. for another thread)
+	 */
+	public MoveGenerator duplicate()
+	{
+		MoveGenerator result = new MoveGenerator(dawg);
+		result.setLeaveTable(leaves);
+		return result;
+	}
+
+	/**
+	 *
+	 * @param dir Direction of the main words to generate
+	 * @param square An anchor square of the prepared position
+	 * Adds every move of the given direction that is generated
+	 * from that anchor to the move list (unsorted)
+	 */
+	public void generateAt(int dir, int square)
+	{
+		direction = dir;
+		line = dir == ACROSS ? square / SIZE : square % SIZE;
+		generateAnchor(dir == ACROSS ? square % SIZE : square / SIZE);
+	}
+
+	/**
+	 *
+	 * @param square A square of the prepared position
+	 * @return Whether moves may be generated from that square
+	 */
+	public boolean isAnchor(int square)
+	{
+		return anchors[square];
+	}
+
+	/**
+	 *
+	 * @return The moves generated since the last prepare()
+	 * call, in generation order
+	 */
+	public ArrayList<Move> getMoves()
+	{
+		return moves;
+	}
+
+	/**
+	 *
+	 * @param dir Direction of the main word
+	 * @param lineIndex The row (ACROSS) or column (DOWN)
+	 * @param pos The position along that line
+	 * @return the row-major index of that square
+	 */
+	public static int getSquare(int dir, int lineIndex, int pos)
+	{
+		return dir == ACROSS ? lineIndex * SIZE + pos : pos * SIZE + lineIndex;
+	}
+
+	/**
+	 * Generates every move of the current direction
+	 * along the current line (row or column)
+	 */
+	private void generateLine()
+	{
+		for(int pos = 0; pos < SIZE; pos++)
+		{
+			if(anchors[getSquare(direction, line, pos)])
+			{
+				generateAnchor(pos);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param pos Position of an anchor along the current line
+	 * Generates the moves of the current direction
+	 * grown from that anchor
+	 */
+	protected void generateAnchor(int pos)
+	{
+		anchor = pos;
+
+		if(pos > 0 && isFilledAt(pos - 1))
+		{
+			/* The left part is fixed: the tiles already on the board */
+			int start = pos - board.filledBefore(direction, line, pos);
+
+			int node = dawg.getRoot();
+			int len = 0;
+
+			for(int p = start; p < pos; p++)
+			{
+				char letter = letterAt(p);
+				int edge = dawg.getEdge(node, letter);
+
+				if(edge == Dawg.NO_EDGE)
+				{
+					return;
+				}
+
+				word[len++] = letter;
+				node = dawg.getTarget(edge);
+			}
+
+			extendRight(node, pos, len, 0, false);
+		}
+		else
+		{
+			/* Left parts may only use empty squares that are not anchors */
+			int limit = 0;
+
+			while(limit < pos && limit < rackSize - 1 &&
+				  !anchors[getSquare(direction, line, pos - limit - 1)])
+			{
+				limit++;
+			}
+
+			leftPart(dawg.getRoot(), limit, 0);
+		}
+	}
+
+	private void leftPart(int node, int limit, int len)
+	{
+		extendRight(node, anchor, len, (1 << len) - 1, false);
+
+		if(limit == 0 || node == Dawg.NONE)
+		{
+			return;
+		}
+
+		for(int edge = node; ; edge++)
+		{
+			int symbol = dawg.getSymbol(edge);
+
+			if(rack[symbol] > 0)
+			{
+				rack[symbol]--;
+				word[len] = (char)('A' + symbol);
+				leftPart(dawg.getTarget(edge), limit - 1, len + 1);
+				rack[symbol]++;
+			}
+
+			if(dawg.isLastEdge(edge))
+			{
+				break;
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param node Word graph node reached by the letters so far
+	 * @param pos The next position along the line
+	 * @param len Number of letters in the word so far
+	 * @param placedMask Which of those letters come from the rack
+	 * @param terminal Whether the letters so far form a word
+	 */
+	private void extendRight(int node, int pos, int len, int placedMask, boolean terminal)
+	{
+		if(pos >= SIZE || !isFilledAt(pos))
+		{
+			if(terminal && pos > anchor && len > 1 && placedMask != 0)
+			{
+				recordMove(pos - len, len, placedMask);
+			}
+
+			if(pos >= SIZE || node == Dawg.NONE)
+			{
+				return;
+			}
+
+			int allowed = crossMasks[direction][getSquare(direction, line, pos)];
+
+			for(int edge = node; ; edge++)
+			{
+				int symbol = dawg.getSymbol(edge);
+
+				if(rack[symbol] > 0 && (allowed & (1 << symbol)) != 0)
+				{
+					rack[symbol]--;
+					word[len] = (char)('A' + symbol);
+					extendRight(dawg.getTarget(edge), pos + 1, len + 1, placedMask | (1 << len),
+								dawg.isTerminal(edge));
+					rack[symbol]++;
+				}
+
+				if(dawg.isLastEdge(edge))
+				{
+					break;
+				}
+			}
+		}
+		else
+		{
+			char letter = letterAt(pos);
+			int edge = dawg.getEdge(node, letter);
+
+			if(edge != Dawg.NO_EDGE)
+			{
+				word[len] = letter;
+				extendRight(dawg.getTarget(edge), pos + 1, len + 1, placedMask, dawg.isTerminal(edge));
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param start Line position of the word's first letter
+	 * @param len Length of the word held in the word buffer
+	 * @param placedMask Which of its letters are placed from the rack
+	 */
+	protected void recordMove(int start, int len, int placedMask)
+	{
+		int tilesPlaced = Integer.bitCount(placedMask);
+
+		/* A single tile forming a word both ways was already found across */
+		if(direction == DOWN && tilesPlaced == 1)
+		{
+			int placedSquare = getSquare(direction, line, start + Integer.numberOfTrailingZeros(placedMask));
+
+			if(crossScores[DOWN][placedSquare] != CrossChecks.NO_CROSS)
+			{
+				return;
+			}
+		}
+
+		int mainSum = 0;
+		int mainMultiplier = 1;
+		int crossTotal = 0;
+
+		for(int i = 0; i < len; i++)
+		{
+			int square = getSquare(direction, line, start + i);
+			int value = letterValues[word[i] - 'A'];
+
+			if((placedMask & (1 << i)) != 0)
+			{
+				int letterScore = value * letterMultipliers[square];
+				mainSum += letterScore;
+				mainMultiplier *= wordMultipliers[square];
+
+				if(crossScores[direction][square] != CrossChecks.NO_CROSS)
+				{
+					crossTotal += (crossScores[direction][square] + letterScore) * wordMultipliers[square];
+				}
+			}
+			else
+			{
+				mainSum += value;
+			}
+		}
+
+		int score = mainSum * mainMultiplier + crossTotal;
+
+		if(tilesPlaced == TileRack.MAX_NO_TILES)
+		{
+			score += BINGO_BONUS;
+		}
+
+		int row = direction == ACROSS ? line : start;
+		int col = direction == ACROSS ? start : line;
+
+		/* The rack holds exactly the move's leave while it is recorded */
+		float equity = leaves == null ? score : score + leaves.valueOf(rack);
+
+		moves.add(new Move(new String(word, 0, len), row, col, direction == ACROSS, placedMask, score, equity));
+	}
+
+	public Dawg getDawg()
+	{
+		return dawg;
+	}
+
+	public LeaveTable getLeaveTable()
+	{
+		return leaves;
+	}
+
+	/**
+	 *
+	 * @param leaves The table valuing the tiles kept by each
+	 * move, or null to rank the moves by score alone
+	 */
+	public void setLeaveTable(LeaveTable leaves)
+	{
+		this.leaves = leaves;
+
+		/* Cached moves were valued with the previous table */
+		position.markAllDirty();
+	}
+
+	protected boolean isFilledAt(int pos)
+	{
+		return squares[getSquare(direction, line, pos)] != 0;
+	}
+
+	protected char letterAt(int pos)
+	{
+		return squares[getSquare(direction, line, pos)];
+	}
+}
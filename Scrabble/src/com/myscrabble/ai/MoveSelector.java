@@ -0,0 +1,265 @@
+package com.myscrabble.ai;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import com.myscrabble.ai.AIController.AILevel;
+import com.myscrabble.ai.AIController.MoveGeneration;
+import com.myscrabble.util.AnagramIndex;
+import com.myscrabble.util.LeaveTable;
+import com.myscrabble.util.ScrabbleDictionary;
+import com.myscrabble.util.ScrabbleUtils;
+import com.myscrabble.util.Zobrist;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Chooses the move an AI level plays on a position. Works on
+ * snapshots of the board and the rack alone (no tiles, textures or
+ * display), so the same choice is made in a game on screen, where an
+ * AIController runs it on its planner thread, and in headless games
+ * between AI levels. A selector is used by one thread at a time.
+ * <br>
+ * The random choices of a turn come from a generator seeded by the
+ * selector's seed and the position (board and rack), so a selection
+ * that is cancelled and run again (e.g. when the game is paused) makes
+ * the same choices. With a static level, or with no time limits (see
+ * isDeterministic()), a position always gets the same move and a
+ * recorded game can be replayed move for move.
+ */
+public class MoveSelector
+{
+	private AILevel aiLevel;
+	private MoveGeneration moveGeneration;
+	private ScrabbleDictionary dictionary;
+
+	/* Seed of the AI's random choices (the word picked by the weaker levels and the simulations) */
+	private long seed;
+
+	/* Ranks the legal moves for the current rack and board within the level's budget */
+	private AnytimeSearch moveSearch;
+
+	/* Simulates the candidate moves, sampling the opponent's rack from its estimate */
+	private Simulator simulator;
+
+	/* Searches the endgame once the letter bag is empty and both racks are known */
+	private EndgameSolver endgameSolver;
+
+	/* Budgets of the searches, the level's unless changed */
+	private long timeBudget;
+	private long nodeBudget;
+	private long endgameTimeLimit;
+	private long endgameNodeLimit;
+
+	/* Whether the searches' statistics are printed (off unless enabled) */
+	private boolean logging;
+
+	/**
+	 *
+	 * @param random Generator of the AI's random choices, so that
+	 * a seeded game makes the same choices again
+	 */
+	public MoveSelector(AILevel aiLevel, MoveGeneration moveGeneration, ScrabbleDictionary dictionary,
+						SplittableRandom random)
+	{
+		this.aiLevel = aiLevel;
+		this.moveGeneration = moveGeneration;
+		this.dictionary = dictionary;
+
+		seed = random.nextLong();
+
+		MoveGenerator generator;
+
+		if(moveGeneration == MoveGeneration.GADDAG)
+		{
+			generator = new GaddagMoveGenerator(dictionary.getDawg(), ScrabbleDictionary.getGaddag());
+		}
+		else
+		{
+			generator = new MoveGenerator(dictionary.getDawg());
+		}
+
+		/* Leaves are worthless once the bag is empty */
+		endgameSolver = new EndgameSolver(generator.duplicate());
+
+		generator.setLeaveTable(LeaveTable.getShared());
+		simulator = new Simulator(generator, ForkJoinPool.commonPool(), seed);
+		moveSearch = new AnytimeSearch(new ParallelMoveSearch(generator), simulator);
+
+		timeBudget = aiLevel.timeBudget;
+		nodeBudget = aiLevel.nodeBudget;
+		endgameTimeLimit = AIController.ENDGAME_TIME_LIMIT;
+		endgameNodeLimit = EndgameSolver.NO_NODE_LIMIT;
+		logging = false;
+	}
+
+	/**
+	 *
+	 * @param boardLetters Snapshot of the board's letters (see BoardState.getLetters())
+	 * @param rackCounts Snapshot of the rack's letter counts
+	 * @param bagEmpty Whether the letter bag had run out
+	 * @param unseen Snapshot of the tiles the AI has not seen
+	 * @return The move selected for this turn of the game (null if
+	 * there is no legal move or passing is best). The moves are ranked
+	 * within the level's budget (by score plus the value of the tiles
+	 * kept, or by simulated equity once the search looks ahead, with
+	 * the opponent's racks sampled from their estimate); the AI level
+	 * decides how the ranking is used. At the HARD level the endgame
+	 * is solved instead, the opponent's rack being all the unseen tiles.
+	 */
+	public Move selectMove(char[] boardLetters, int[] rackCounts, boolean bagEmpty, UnseenTiles unseen)
+	{
+		return selectMove(boardLetters, rackCounts, bagEmpty, unseen, new Cancellation());
+	}
+
+	/**
+	 *
+	 * @param cancellation Stops the selection's search early once
+	 * cancelled (even before it has started), the search returning its
+	 * best ranking so far
+	 * @return The move selected (see selectMove without a cancellation)
+	 */
+	public Move selectMove(char[] boardLetters, int[] rackCounts, boolean bagEmpty, UnseenTiles unseen,
+						   Cancellation cancellation)
+	{
+		SplittableRandom random = new SplittableRandom(seed ^ Zobrist.hashBoard(boardLetters) ^
+													   Zobrist.hashRack(0, rackCounts));
+
+		if(aiLevel == AILevel.HARD && bagEmpty)
+		{
+			int[] opponentCounts = unseen.getCounts(new int[AnagramIndex.ALPHABET_SIZE]);
+			Move move = endgameSolver.solve(boardLetters, rackCounts, opponentCounts, endgameTimeLimit,
+											endgameNodeLimit, cancellation);
+
+			if(logging)
+			{
+				System.out.println("AI endgame: spread " + endgameSolver.getLastSpread() + ", " +
+								   endgameSolver.getLastStats());
+			}
+
+			return move;
+		}
+
+		simulator.setSeed(random.nextLong());
+		simulator.setOpponentRack(unseen.getOpponentRack());
+
+		int[] unseenCounts = unseen.getCounts(new int[AnagramIndex.ALPHABET_SIZE]);
+		ArrayList<Move> moves = moveSearch.search(boardLetters, rackCounts, unseenCounts, aiLevel.candidates,
+												  timeBudget, nodeBudget, cancellation);
+
+		if(logging)
+		{
+			System.out.println("AI search: " + moveSearch.getLastStats());
+		}
+
+		if(moves.isEmpty())
+		{
+			return null;
+		}
+
+		if(aiLevel == AILevel.HARD)
+		{
+			return moves.get(0);
+		}
+
+		/* Words of the ranked moves, so that a word picked maps to its best placement */
+		ArrayList<String> candidates = new ArrayList<>(moves.size());
+
+		for(Move move : moves)
+		{
+			candidates.add(move.getWord());
+		}
+
+		String selection;
+
+		if(aiLevel == AILevel.AMATEUR)
+		{
+			selection = ScrabbleUtils.getRandomCommon(candidates, dictionary, random);
+		}
+		else if(aiLevel == AILevel.ROOKIE)
+		{
+			selection = ScrabbleUtils.getBiggestCommon(candidates, dictionary);
+		}
+		else
+		{
+			selection = ScrabbleUtils.getRandomWord(candidates, random);
+		}
+
+		int index = candidates.indexOf(selection);
+
+		/* No common word at all: the weakest move is played */
+		return index == -1 ? moves.get(moves.size() - 1) : moves.get(index);
+	}
+
+	/**
+	 *
+	 * @param timeBudget Milliseconds allowed for simulation (0 for a static
+	 * search, AnytimeSearch.NO_TIME_LIMIT to stop on the node budget alone)
+	 * @param nodeBudget Moves the simulation may generate
+	 * @param endgameTimeLimit Milliseconds allowed to solve an endgame
+	 * (AnytimeSearch.NO_TIME_LIMIT to stop on the node limit alone)
+	 * @param endgameNodeLimit Positions an endgame solve may visit
+	 * (EndgameSolver.NO_NODE_LIMIT for no limit)
+	 */
+	public void setBudgets(long timeBudget, long nodeBudget, long endgameTimeLimit, long endgameNodeLimit)
+	{
+		this.timeBudget = timeBudget;
+		this.nodeBudget = nodeBudget;
+		this.endgameTimeLimit = endgameTimeLimit;
+		this.endgameNodeLimit = endgameNodeLimit;
+	}
+
+	/**
+	 *
+	 * @return Whether every selection depends on the position alone:
+	 * the searches used are static or only limited by nodes
+	 */
+	public boolean isDeterministic()
+	{
+		boolean staticOrNodes = timeBudget == 0 || timeBudget == AnytimeSearch.NO_TIME_LIMIT;
+		boolean solvesEndgames = aiLevel == AILevel.HARD;
+
+		return staticOrNodes && (!solvesEndgames || endgameTimeLimit == AnytimeSearch.NO_TIME_LIMIT);
+	}
+
+	/**
+	 *
+	 * @param logging Whether to print the statistics of every search
+	 */
+	public void setLogging(boolean logging)
+	{
+		this.logging = logging;
+	}
+
+	public AILevel getLevel()
+	{
+		return aiLevel;
+	}
+
+	public MoveGeneration getMoveGeneration()
+	{
+		return moveGeneration;
+	}
+
+	public long getTimeBudget()
+	{
+		return timeBudget;
+	}
+
+	public long getNodeBudget()
+	{
+		return nodeBudget;
+	}
+
+	public long getEndgameTimeLimit()
+	{
+		return endgameTimeLimit;
+	}
+
+	public long getEndgameNodeLimit()
+	{
+		return endgameNodeLimit;
+	}
+}
@@ -0,0 +1,205 @@
+package com.myscrabble.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Fans the move generation of a position out across a
+ * ForkJoinPool. The position's anchors and cross-checks are
+ * computed once; the (direction, anchor) pairs are then split
+ * recursively into tasks, each searching its anchors with its own
+ * forked generator state. Every task keeps only its best moves in a
+ * bounded heap and the heaps are merged on the way back up. Move
+ * ordering is total (score, then position, direction and word) so
+ * the result does not depend on how the work was scheduled. A search
+ * can be cancelled from another thread through its Cancellation, in
+ * which case the tasks not yet started return nothing.
+ */
+public class ParallelMoveSearch
+{
+	/* Keep every move instead of only the best ones */
+	public static final int ALL_MOVES = Integer.MAX_VALUE;
+
+	/* Anchors searched sequentially by a single task */
+	private static final int ANCHORS_PER_TASK = 4;
+
+	private ForkJoinPool pool;
+	private MoveGenerator generator;
+
+	/* Number of moves generated by the last search */
+	private AtomicLong movesGenerated;
+
+	/**
+	 *
+	 * @param generator The generator whose search is parallelised
+	 * (only used from the thread calling search())
+	 */
+	public ParallelMoveSearch(MoveGenerator generator)
+	{
+		this(generator, ForkJoinPool.commonPool());
+	}
+
+	public ParallelMoveSearch(MoveGenerator generator, ForkJoinPool pool)
+	{
+		this.generator = generator;
+		this.pool = pool;
+
+		movesGenerated = new AtomicLong();
+	}
+
+	/**
+	 *
+	 * @param boardSquares Row-major letters of the board ('A'-'Z', 0 if empty)
+	 * @param rackCounts Number of each letter (index 0 = 'A') in the rack
+	 * @param maxMoves Number of best moves to keep (ALL_MOVES for every move)
+	 * @return The best maxMoves legal moves, ranked as MoveGenerator ranks them
+	 */
+	public ArrayList<Move> search(char[] boardSquares, int[] rackCounts, int maxMoves)
+	{
+		return search(boardSquares, rackCounts, maxMoves, new Cancellation());
+	}
+
+	/**
+	 *
+	 * @param cancellation Abandons the search once cancelled, which
+	 * then returns an incomplete ranking
+	 * @return The best maxMoves legal moves (see search(char[], int[], int))
+	 */
+	public ArrayList<Move> search(char[] boardSquares, int[] rackCounts, int maxMoves, Cancellation cancellation)
+	{
+		movesGenerated.set(0);
+		generator.prepare(boardSquares, rackCounts);
+
+		/* Work units: direction * SQUARES + anchor square */
+		ArrayList<Integer> units = new ArrayList<>();
+
+		for(int dir = MoveGenerator.ACROSS; dir <= MoveGenerator.DOWN; dir++)
+		{
+			for(int square = 0; square < MoveGenerator.SQUARES; square++)
+			{
+				if(generator.isAnchor(square))
+				{
+					units.add(dir * MoveGenerator.SQUARES + square);
+				}
+			}
+		}
+
+		int[] work = new int[units.size()];
+
+		for(int i = 0; i < work.length; i++)
+		{
+			work[i] = units.get(i);
+		}
+
+		PriorityQueue<Move> best = pool.invoke(new AnchorTask(generator, work, 0, work.length, maxMoves,
+																	 cancellation));
+
+		ArrayList<Move> result = new ArrayList<>(best);
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 *
+	 * @return The number of moves generated by the last
+	 * search, including those not kept in its ranking
+	 */
+	public long getMovesGenerated()
+	{
+		return movesGenerated.get();
+	}
+
+	/**
+	 * Searches a range of work units, splitting it in
+	 * halves until it is small enough to search directly.
+	 */
+	private class AnchorTask extends RecursiveTask<PriorityQueue<Move>>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private MoveGenerator prepared;
+		private int[] work;
+		private int from;
+		private int to;
+		private int maxMoves;
+		private Cancellation cancellation;
+
+		AnchorTask(MoveGenerator prepared, int[] work, int from, int to, int maxMoves, Cancellation cancellation)
+		{
+			this.prepared = prepared;
+			this.work = work;
+			this.from = from;
+			this.to = to;
+			this.maxMoves = maxMoves;
+			this.cancellation = cancellation;
+		}
+
+		@Override
+		protected PriorityQueue<Move> compute()
+		{
+			if(cancellation.isCancelled())
+			{
+				return newHeap(maxMoves);
+			}
+
+			if(to - from <= ANCHORS_PER_TASK)
+			{
+				MoveGenerator generator = prepared.fork();
+
+				for(int i = from; i < to; i++)
+				{
+					generator.generateAt(work[i] / MoveGenerator.SQUARES, work[i] % MoveGenerator.SQUARES);
+				}
+
+				movesGenerated.addAndGet(generator.getMoves().size());
+
+				PriorityQueue<Move> result = newHeap(maxMoves);
+				offerAll(result, generator.getMoves(), maxMoves);
+				return result;
+			}
+
+			int middle = (from + to) >>> 1;
+
+			AnchorTask left = new AnchorTask(prepared, work, from, middle, maxMoves, cancellation);
+			AnchorTask right = new AnchorTask(prepared, work, middle, to, maxMoves, cancellation);
+
+			left.fork();
+			PriorityQueue<Move> result = right.compute();
+			offerAll(result, left.join(), maxMoves);
+			return result;
+		}
+	}
+
+	/**
+	 *
+	 * @return An empty heap with the worst
+	 * kept move at its head
+	 */
+	private static PriorityQueue<Move> newHeap(int maxMoves)
+	{
+		return new PriorityQueue<>(Math.min(maxMoves, 64) + 1, Collections.<Move>reverseOrder());
+	}
+
+	private static void offerAll(PriorityQueue<Move> heap, Iterable<Move> moves, int maxMoves)
+	{
+		for(Move move : moves)
+		{
+			if(heap.size() < maxMoves)
+			{
+				heap.add(move);
+			}
+			else if(move.compareTo(heap.peek()) < 0)
+			{
+				heap.poll();
+				heap.add(move);
+			}
+		}
+	}
+}
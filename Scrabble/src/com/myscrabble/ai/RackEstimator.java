@@ -0,0 +1,232 @@
+package com.myscrabble.ai;
+
+import java.util.SplittableRandom;
+
+import com.myscrabble.entities.BagState;
+import com.myscrabble.entities.TileRack;
+import com.myscrabble.util.LeaveTable;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Bayesian estimate of the opponent's rack from their recent
+ * plays and passes. Tiles the opponent drew after their last
+ * move are a uniform sample of the unseen tiles, but the tiles
+ * they kept are not: a player keeps good tiles when playing and
+ * holds on to bad ones when passing. Each kept tile's letter is
+ * therefore drawn from the unseen tiles weighted by a likelihood
+ * built from the leave value of the letter, raised for good letters
+ * by every play and for bad letters by every pass. Older evidence
+ * fades as the kept tiles get played out. The weights are worked
+ * out when a move is observed, so queries and rack samples only
+ * take a pass over the alphabet and can be made every playout.
+ */
+public class RackEstimator
+{
+	/* Log-likelihood per point of leave value of keeping a letter when playing */
+	private static final double KEEP_BIAS = 0.2;
+
+	/* Log-likelihood per point of leave value of holding a letter when passing */
+	private static final double PASS_BIAS = 0.3;
+
+	/* Share of the earlier evidence still standing after each observed move */
+	private static final double DECAY = 0.5;
+
+	/* Leave value of each letter on its own */
+	private static final float[] letterLeaves;
+
+	static
+	{
+		letterLeaves = new float[BagState.LETTERS];
+
+		LeaveTable table = LeaveTable.getShared();
+		int[] leave = new int[BagState.LETTERS];
+
+		for(int symbol = 0; symbol < BagState.LETTERS; symbol++)
+		{
+			leave[symbol] = 1;
+			letterLeaves[symbol] = table.valueOf(leave);
+			leave[symbol] = 0;
+		}
+	}
+
+	private UnseenTiles unseen;
+
+	/* Log-likelihood and likelihood of each letter for a kept tile */
+	private double[] logWeights;
+	private double[] weights;
+
+	/* Tiles of the opponent's rack kept from earlier turns */
+	private int keptTiles;
+
+	/**
+	 *
+	 * @param unseen The unseen tiles the opponent's rack comes from
+	 */
+	public RackEstimator(UnseenTiles unseen)
+	{
+		this.unseen = unseen;
+
+		logWeights = new double[BagState.LETTERS];
+		weights = new double[BagState.LETTERS];
+		keptTiles = 0;
+
+		updateWeights();
+	}
+
+	/**
+	 *
+	 * @param unseen The unseen tiles of the copy
+	 * @param other The estimate to copy
+	 */
+	public RackEstimator(UnseenTiles unseen, RackEstimator other)
+	{
+		this.unseen = unseen;
+
+		logWeights = other.logWeights.clone();
+		weights = other.weights.clone();
+		keptTiles = other.keptTiles;
+	}
+
+	/**
+	 *
+	 * @param placed The number of tiles the opponent placed
+	 * The rest of a full rack was kept, more likely good letters
+	 */
+	public void observePlay(int placed)
+	{
+		keptTiles = Math.max(0, TileRack.MAX_NO_TILES - placed);
+
+		for(int symbol = 0; symbol < BagState.LETTERS; symbol++)
+		{
+			logWeights[symbol] = keptTiles == 0 ? 0 : DECAY * logWeights[symbol] + KEEP_BIAS * letterLeaves[symbol];
+		}
+
+		updateWeights();
+	}
+
+	/**
+	 * The opponent kept their whole rack, more likely bad letters
+	 */
+	public void observePass()
+	{
+		keptTiles = TileRack.MAX_NO_TILES;
+
+		for(int symbol = 0; symbol < BagState.LETTERS; symbol++)
+		{
+			logWeights[symbol] = DECAY * logWeights[symbol] - PASS_BIAS * letterLeaves[symbol];
+		}
+
+		updateWeights();
+	}
+
+	/**
+	 *
+	 * @param result Receives the expected number of tiles of each
+	 * letter (index 0 = 'A') on the opponent's rack
+	 * @return result, for chaining
+	 */
+	public double[] getExpectedCounts(double[] result)
+	{
+		int rackSize = Math.min(TileRack.MAX_NO_TILES, unseen.size());
+		int kept = Math.min(keptTiles, rackSize);
+		int drawn = rackSize - kept;
+
+		double weightTotal = 0;
+
+		for(int symbol = 0; symbol < BagState.LETTERS; symbol++)
+		{
+			weightTotal += unseen.getCount((char)('A' + symbol)) * weights[symbol];
+		}
+
+		for(int symbol = 0; symbol < BagState.LETTERS; symbol++)
+		{
+			int count = unseen.getCount((char)('A' + symbol));
+
+			if(count == 0)
+			{
+				result[symbol] = 0;
+				continue;
+			}
+
+			double expected = drawn * (double)count / unseen.size() + kept * count * weights[symbol] / weightTotal;
+			result[symbol] = Math.min(count, expected);
+		}
+
+		return result;
+	}
+
+	/**
+	 *
+	 * @param random The generator choosing the tiles
+	 * @param pool The tiles the rack may come from, the
+	 * sampled tiles are taken out of it
+	 * @param rack Receives the sampled letters (index 0 = 'A')
+	 * @param amount Number of tiles to sample (all of the
+	 * pool if it holds fewer)
+	 * Samples a rack from the estimate: the kept tiles by the
+	 * letters' likelihoods, the rest uniformly
+	 */
+	public void sampleRack(SplittableRandom random, BagState pool, int[] rack, int amount)
+	{
+		int kept = Math.min(keptTiles, amount);
+
+		for(int draw = 0; draw < amount && !pool.isEmpty(); draw++)
+		{
+			char letter = draw < kept ? drawWeighted(random, pool) : pool.draw(random);
+			rack[letter - 'A']++;
+		}
+	}
+
+	/**
+	 *
+	 * @param letter A letter
+	 * @return The likelihood of a kept tile being the
+	 * letter, relative to a tile drawn at random
+	 */
+	public double getWeight(char letter)
+	{
+		return weights[letter - 'A'];
+	}
+
+	public int getKeptTiles()
+	{
+		return keptTiles;
+	}
+
+	private char drawWeighted(SplittableRandom random, BagState pool)
+	{
+		double total = 0;
+
+		for(int symbol = 0; symbol < BagState.LETTERS; symbol++)
+		{
+			total += pool.getCount((char)('A' + symbol)) * weights[symbol];
+		}
+
+		double target = random.nextDouble() * total;
+
+		for(int symbol = 0; symbol < BagState.LETTERS; symbol++)
+		{
+			char letter = (char)('A' + symbol);
+			target -= pool.getCount(letter) * weights[symbol];
+
+			if(target < 0 && pool.getCount(letter) > 0)
+			{
+				pool.remove(letter);
+				return letter;
+			}
+		}
+
+		/* Rounding left the target past the end */
+		return pool.draw(random);
+	}
+
+	private void updateWeights()
+	{
+		for(int symbol = 0; symbol < BagState.LETTERS; symbol++)
+		{
+			weights[symbol] = Math.exp(logWeights[symbol]);
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.myscrabble.ai;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Statistics of a single AI search: the depth it
+ * reached, the number of nodes (generated moves) it
+ * visited, the number of simulation playouts it ran
+ * and the wall-clock time it took.
+ */
+public class SearchStats
+{
+	private int depth;
+	private long nodes;
+	private long iterations;
+	private long elapsedNanos;
+
+	public SearchStats(int depth, long nodes, long iterations, long elapsedNanos)
+	{
+		this.depth = depth;
+		this.nodes = nodes;
+		this.iterations = iterations;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 *
+	 * @return the number of nodes visited per
+	 * second of wall-clock time
+	 */
+	public long getNodesPerSecond()
+	{
+		return elapsedNanos == 0 ? 0 : nodes * 1000000000L / elapsedNanos;
+	}
+
+	/**
+	 *
+	 * @return the number of simulation playouts
+	 * run per second of wall-clock time
+	 */
+	public long getIterationsPerSecond()
+	{
+		return elapsedNanos == 0 ? 0 : iterations * 1000000000L / elapsedNanos;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "depth " + depth + ", " + nodes + " nodes and " + iterations + " playouts in " +
+			   elapsedNanos / 1000000 + " ms (" + getNodesPerSecond() + " nodes/sec, " +
+			   getIterationsPerSecond() + " playouts/sec)";
+	}
+
+	/* Getters */
+	public int getDepth()
+	{
+		return depth;
+	}
+
+	public long getNodes()
+	{
+		return nodes;
+	}
+
+	public long getIterations()
+	{
+		return iterations;
+	}
+
+	public long getElapsedNanos()
+	{
+		return elapsedNanos;
+	}
+}
@@ -0,0 +1,276 @@
+package com.myscrabble.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.myscrabble.entities.BagState;
+import com.myscrabble.entities.TileRack;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Monte Carlo simulation of candidate moves. A playout of a
+ * candidate plays it on a copy of the board, samples the opponent's
+ * rack from the unseen tiles (weighted by the estimate of the tiles
+ * the opponent kept, when one is given), plays the opponent's best reply, refills
+ * the searching player's rack (the candidate's leave plus tiles drawn
+ * from what is left of the unseen tiles) and plays its best follow-up.
+ * The playout's equity is the candidate's score minus the reply plus
+ * the follow-up.
+ * <br>
+ * Playouts run in parallel on a ForkJoinPool. Every task owns its
+ * board copy and racks, generators are kept per worker thread and the
+ * random numbers come from a SplittableRandom split along the (fixed)
+ * task tree, so nothing mutable is shared and a given seed always
+ * gives the same equities.
+ */
+public class Simulator
+{
+	/* Playouts run sequentially by a single task */
+	private static final int PLAYOUTS_PER_TASK = 2;
+
+	private ForkJoinPool pool;
+	private SplittableRandom random;
+
+	/* A generator per worker thread */
+	private ThreadLocal<MoveGenerator> generators;
+
+	/* Estimate of the opponent's rack (null to draw it uniformly) */
+	private RackEstimator opponentRack;
+
+	public Simulator(final MoveGenerator prototype, ForkJoinPool pool, long seed)
+	{
+		this.pool = pool;
+
+		random = new SplittableRandom(seed);
+		generators = new ThreadLocal<MoveGenerator>()
+		{
+			@Override
+			protected MoveGenerator initialValue()
+			{
+				return prototype.duplicate();
+			}
+		};
+	}
+
+	/**
+	 *
+	 * @param boardSquares Row-major letters of the board ('A'-'Z', 0 if empty)
+	 * @param rackCounts Number of each letter (index 0 = 'A') in the rack
+	 * @param unseenCounts Number of each letter the searching player has not
+	 * seen (in the bag or in the opponent's rack, see UnseenTiles)
+	 * @param candidates The moves to simulate
+	 * @param playouts Number of playouts to run per candidate
+	 * @param equityTotals Receives the sum of the playouts' equities per candidate
+	 * @return The number of moves generated by the playouts
+	 */
+	public long simulate(char[] boardSquares, int[] rackCounts, int[] unseenCounts, List<Move> candidates,
+						 int playouts, double[] equityTotals)
+	{
+		PlayoutTask root = new PlayoutTask(boardSquares, rackCounts, unseenCounts, candidates,
+										   0, candidates.size() * playouts, random.split());
+		Result result = pool.invoke(root);
+
+		for(int i = 0; i < equityTotals.length; i++)
+		{
+			equityTotals[i] += result.equityTotals[i];
+		}
+
+		return result.nodes;
+	}
+
+	/**
+	 *
+	 * @param seed Seed of the random numbers of the simulations from now on
+	 */
+	public void setSeed(long seed)
+	{
+		random = new SplittableRandom(seed);
+	}
+
+	/**
+	 *
+	 * @param opponentRack Estimate of the opponent's rack, only read by
+	 * the playouts (null to draw the opponent's racks uniformly)
+	 */
+	public void setOpponentRack(RackEstimator opponentRack)
+	{
+		this.opponentRack = opponentRack;
+	}
+
+	/**
+	 *
+	 * @return The number of playouts that keep every worker
+	 * thread of the pool busy
+	 */
+	public int getParallelism()
+	{
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Equity sums per candidate and moves
+	 * generated by a range of playouts
+	 */
+	private static class Result
+	{
+		double[] equityTotals;
+		long nodes;
+
+		Result(int candidates)
+		{
+			equityTotals = new double[candidates];
+		}
+
+		void add(Result other)
+		{
+			for(int i = 0; i < equityTotals.length; i++)
+			{
+				equityTotals[i] += other.equityTotals[i];
+			}
+
+			nodes += other.nodes;
+		}
+	}
+
+	/**
+	 * Runs playouts [from, to) where playout i simulates
+	 * candidate i % candidates, splitting the range (and
+	 * the random generator) in halves until it is small
+	 */
+	private class PlayoutTask extends RecursiveTask<Result>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private char[] boardSquares;
+		private int[] rackCounts;
+		private int[] unseen;
+		private List<Move> candidates;
+		private int from;
+		private int to;
+		private SplittableRandom taskRandom;
+
+		PlayoutTask(char[] boardSquares, int[] rackCounts, int[] unseen, List<Move> candidates,
+					int from, int to, SplittableRandom taskRandom)
+		{
+			this.boardSquares = boardSquares;
+			this.rackCounts = rackCounts;
+			this.unseen = unseen;
+			this.candidates = candidates;
+			this.from = from;
+			this.to = to;
+			this.taskRandom = taskRandom;
+		}
+
+		@Override
+		protected Result compute()
+		{
+			if(to - from <= PLAYOUTS_PER_TASK)
+			{
+				Result result = new Result(candidates.size());
+				MoveGenerator generator = generators.get();
+				char[] board = new char[boardSquares.length];
+				BagState unseenBag = new BagState(unseen);
+				BagState pool = unseenBag.copy();
+
+				for(int i = from; i < to; i++)
+				{
+					int candidate = i % candidates.size();
+
+					System.arraycopy(boardSquares, 0, board, 0, board.length);
+					pool.copyFrom(unseenBag);
+					result.equityTotals[candidate] += playout(generator, board, pool, candidates.get(candidate), result);
+				}
+
+				return result;
+			}
+
+			int middle = (from + to) >>> 1;
+
+			PlayoutTask left = new PlayoutTask(boardSquares, rackCounts, unseen, candidates,
+											   from, middle, taskRandom.split());
+			PlayoutTask right = new PlayoutTask(boardSquares, rackCounts, unseen, candidates,
+												middle, to, taskRandom);
+
+			left.fork();
+			Result result = right.compute();
+			result.add(left.join());
+			return result;
+		}
+
+		/**
+		 *
+		 * @param board A copy of the board to play the playout on
+		 * @param pool A copy of the unseen tiles to draw from
+		 * @return The equity of a single playout of the candidate
+		 */
+		private double playout(MoveGenerator generator, char[] board, BagState pool, Move candidate, Result result)
+		{
+			candidate.placeOn(board);
+
+			/* Opponent's reply with a rack drawn from the unseen tiles */
+			int[] replyRack = new int[BagState.LETTERS];
+
+			if(opponentRack != null)
+			{
+				opponentRack.sampleRack(taskRandom, pool, replyRack, TileRack.MAX_NO_TILES);
+			}
+			else
+			{
+				draw(pool, replyRack, TileRack.MAX_NO_TILES);
+			}
+
+			int reply = playBest(generator, board, replyRack, result);
+
+			/* Our follow-up with the candidate's leave refilled from what is left */
+			int[] ownRack = rackCounts.clone();
+			String placed = candidate.getPlacedLetters();
+
+			for(int i = 0; i < placed.length(); i++)
+			{
+				ownRack[placed.charAt(i) - 'A']--;
+			}
+
+			draw(pool, ownRack, placed.length());
+
+			int followUp = playBest(generator, board, ownRack, result);
+
+			return candidate.getScore() - reply + followUp;
+		}
+
+		/**
+		 *
+		 * @return The score of the best move for the rack (0 if
+		 * there is none), which is also played on the board
+		 */
+		private int playBest(MoveGenerator generator, char[] board, int[] rack, Result result)
+		{
+			ArrayList<Move> moves = generator.generate(board, rack);
+			result.nodes += moves.size();
+
+			if(moves.isEmpty())
+			{
+				return 0;
+			}
+
+			moves.get(0).placeOn(board);
+			return moves.get(0).getScore();
+		}
+
+		/**
+		 * Moves the requested amount of tiles (or all of
+		 * the pool if smaller) from the pool to the rack
+		 */
+		private void draw(BagState pool, int[] rack, int amount)
+		{
+			for(int draw = 0; draw < amount && !pool.isEmpty(); draw++)
+			{
+				rack[pool.draw(taskRandom) - 'A']++;
+			}
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.myscrabble.ai;
+
+import com.myscrabble.entities.BagState;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * The tiles a player has not seen yet (those in the bag and on
+ * the opponent's rack), kept up to date as the game goes on: the
+ * player's own draws and the tiles the opponent places are taken
+ * out as they happen, so the AI never needs to look inside the
+ * letter bag. An estimate of the opponent's rack (see RackEstimator)
+ * is kept on top of the counts.
+ */
+public class UnseenTiles
+{
+	private int[] counts;
+	private int size;
+
+	private RackEstimator opponentRack;
+
+	/**
+	 * Creates the unseen tiles of a player at the
+	 * start of the game: the full tile distribution
+	 */
+	public UnseenTiles()
+	{
+		counts = BagState.getDistribution();
+
+		for(int count : counts)
+		{
+			size += count;
+		}
+
+		opponentRack = new RackEstimator(this);
+	}
+
+	public UnseenTiles(UnseenTiles other)
+	{
+		counts = other.counts.clone();
+		size = other.size;
+		opponentRack = new RackEstimator(this, other.opponentRack);
+	}
+
+	/**
+	 *
+	 * @return A snapshot of the counts and of the
+	 * opponent's rack estimate, safe to hand to
+	 * another thread
+	 */
+	public UnseenTiles copy()
+	{
+		return new UnseenTiles(this);
+	}
+
+	/**
+	 *
+	 * @param letter A letter the player has just seen (drawn
+	 * by the player or placed by the opponent)
+	 */
+	public void tileSeen(char letter)
+	{
+		int symbol = letter - 'A';
+
+		/* Tiles can only be seen once; anything else is ignored */
+		if(counts[symbol] > 0)
+		{
+			counts[symbol]--;
+			size--;
+		}
+	}
+
+	/**
+	 *
+	 * @param placedLetters The letters of the tiles the opponent
+	 * placed (empty for a pass)
+	 * Takes the letters out and updates the opponent's rack estimate
+	 */
+	public void opponentMoved(String placedLetters)
+	{
+		for(int i = 0; i < placedLetters.length(); i++)
+		{
+			tileSeen(placedLetters.charAt(i));
+		}
+
+		if(placedLetters.isEmpty())
+		{
+			opponentRack.observePass();
+		}
+		else
+		{
+			opponentRack.observePlay(placedLetters.length());
+		}
+	}
+
+	public int getCount(char letter)
+	{
+		return counts[letter - 'A'];
+	}
+
+	/**
+	 *
+	 * @param result Receives the number of unseen tiles of each letter
+	 * @return result, for chaining
+	 */
+	public int[] getCounts(int[] result)
+	{
+		System.arraycopy(counts, 0, result, 0, BagState.LETTERS);
+		return result;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public RackEstimator getOpponentRack()
+	{
+		return opponentRack;
+	}
+}
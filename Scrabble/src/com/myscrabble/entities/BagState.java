@@ -0,0 +1,319 @@
+package com.myscrabble.entities;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import com.myscrabble.util.ScrabbleUtils;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * The headless contents of a letter bag: the tiles in an array
+ * (one byte per tile, 0 = 'A') with the number of tiles of each
+ * letter alongside. A draw picks a random slot and moves the last
+ * tile into it, so it takes constant time whatever the bag holds,
+ * and copying a bag is two array copies, cheap enough to give every
+ * simulated game its own. The random generator is supplied by the
+ * caller, so draws are reproducible from a seed. Draws for the
+ * players' racks keep the opening racks balanced (see drawForRack),
+ * so a game's draws can be replayed without the game itself.
+ */
+public class BagState
+{
+	public static final int LETTERS = 26;
+
+	/* Letter masks (bit i = letter 'A' + i) for draws restricted to some letters */
+	public static final int ALL_LETTERS = (1 << LETTERS) - 1;
+
+	/* Letter classes kept balanced in the opening racks */
+	public static final int VOWELS = getLetterMask("AEIOUWY");
+	public static final int CONSONANTS = ALL_LETTERS & ~VOWELS;
+
+	/* Number of opening racks drawn with balanced letter classes */
+	private static final int BALANCED_RACKS = 2;
+
+	private byte[] tiles;
+	private int size;
+	private int[] counts;
+
+	/* Tiles drawn for racks so far and vowels among the current opening rack's draws */
+	private int rackDraws;
+	private int rackVowels;
+
+	/**
+	 * Creates a bag holding the full tile distribution
+	 */
+	public BagState()
+	{
+		this(getDistribution());
+	}
+
+	/**
+	 *
+	 * @param letterCounts Number of tiles of each letter (index 0 = 'A')
+	 */
+	public BagState(int[] letterCounts)
+	{
+		counts = new int[LETTERS];
+		tiles = new byte[Math.max(total(letterCounts), total(getDistribution()))];
+
+		for(int symbol = 0; symbol < LETTERS; symbol++)
+		{
+			for(int i = 0; i < letterCounts[symbol]; i++)
+			{
+				tiles[size++] = (byte)symbol;
+			}
+
+			counts[symbol] = letterCounts[symbol];
+		}
+	}
+
+	public BagState(BagState other)
+	{
+		counts = new int[LETTERS];
+		tiles = new byte[other.tiles.length];
+		copyFrom(other);
+	}
+
+	public BagState copy()
+	{
+		return new BagState(this);
+	}
+
+	/**
+	 *
+	 * @param other The bag whose tiles replace this bag's
+	 */
+	public void copyFrom(BagState other)
+	{
+		if(tiles.length < other.size)
+		{
+			tiles = new byte[other.tiles.length];
+		}
+
+		System.arraycopy(other.tiles, 0, tiles, 0, other.size);
+		System.arraycopy(other.counts, 0, counts, 0, LETTERS);
+		size = other.size;
+		rackDraws = other.rackDraws;
+		rackVowels = other.rackVowels;
+	}
+
+	/**
+	 *
+	 * @param random The generator choosing the tile
+	 * @return The letter of a tile drawn uniformly at random,
+	 * or 0 if the bag is empty
+	 */
+	public char draw(SplittableRandom random)
+	{
+		if(size == 0)
+		{
+			return 0;
+		}
+
+		return removeAt(random.nextInt(size));
+	}
+
+	/**
+	 *
+	 * @param random The generator choosing the tile
+	 * @param letterMask The letters allowed (bit i = letter 'A' + i)
+	 * @return The letter of a tile drawn uniformly at random among the
+	 * tiles of the allowed letters, or among all the tiles if there are
+	 * none of those (0 if the bag is empty)
+	 */
+	public char draw(SplittableRandom random, int letterMask)
+	{
+		int allowed = 0;
+
+		for(int symbol = 0; symbol < LETTERS; symbol++)
+		{
+			if((letterMask & (1 << symbol)) != 0)
+			{
+				allowed += counts[symbol];
+			}
+		}
+
+		if(allowed == 0 || allowed == size)
+		{
+			return draw(random);
+		}
+
+		/* Count down to the chosen allowed tile, then take it out of its slot */
+		int target = random.nextInt(allowed);
+
+		for(int slot = 0; ; slot++)
+		{
+			if((letterMask & (1 << tiles[slot])) != 0 && target-- == 0)
+			{
+				return removeAt(slot);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param random The generator choosing the tile
+	 * @return The letter of a tile drawn for a player's rack (0 if
+	 * the bag is empty). The opening racks never hold only vowels or
+	 * only consonants, so their last tile comes from the other class
+	 * when all the others are alike.
+	 */
+	public char drawForRack(SplittableRandom random)
+	{
+		char letter = draw(random, getBalanceMask());
+
+		if(letter != 0 && (VOWELS & (1 << (letter - 'A'))) != 0)
+		{
+			rackVowels++;
+		}
+
+		if(++rackDraws % TileRack.MAX_NO_TILES == 0)
+		{
+			rackVowels = 0;
+		}
+
+		return letter;
+	}
+
+	/**
+	 *
+	 * @return The letters the next rack draw may come from
+	 */
+	private int getBalanceMask()
+	{
+		if(rackDraws >= BALANCED_RACKS * TileRack.MAX_NO_TILES ||
+		   rackDraws % TileRack.MAX_NO_TILES != TileRack.MAX_NO_TILES - 1)
+		{
+			return ALL_LETTERS;
+		}
+
+		if(rackVowels == TileRack.MAX_NO_TILES - 1)
+		{
+			return CONSONANTS;
+		}
+
+		return rackVowels == 0 ? VOWELS : ALL_LETTERS;
+	}
+
+	/**
+	 *
+	 * @param letter A letter tile put (back) into the bag
+	 */
+	public void add(char letter)
+	{
+		if(size == tiles.length)
+		{
+			tiles = Arrays.copyOf(tiles, size * 2 + 1);
+		}
+
+		tiles[size++] = (byte)(letter - 'A');
+		counts[letter - 'A']++;
+	}
+
+	/**
+	 *
+	 * @param letter The letter of a tile to take out of the bag
+	 * @return Whether the bag held a tile of the letter
+	 */
+	public boolean remove(char letter)
+	{
+		int symbol = letter - 'A';
+
+		if(counts[symbol] == 0)
+		{
+			return false;
+		}
+
+		for(int slot = 0; ; slot++)
+		{
+			if(tiles[slot] == symbol)
+			{
+				removeAt(slot);
+				return true;
+			}
+		}
+	}
+
+	private char removeAt(int slot)
+	{
+		int symbol = tiles[slot];
+
+		tiles[slot] = tiles[--size];
+		counts[symbol]--;
+
+		return (char)('A' + symbol);
+	}
+
+	public int getCount(char letter)
+	{
+		return counts[letter - 'A'];
+	}
+
+	/**
+	 *
+	 * @param result Receives the number of tiles of each letter
+	 * @return result, for chaining
+	 */
+	public int[] getCounts(int[] result)
+	{
+		System.arraycopy(counts, 0, result, 0, LETTERS);
+		return result;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 *
+	 * @return The number of tiles of each letter in a full bag
+	 */
+	public static int[] getDistribution()
+	{
+		int[] result = new int[LETTERS];
+
+		for(int symbol = 0; symbol < LETTERS; symbol++)
+		{
+			result[symbol] = ScrabbleUtils.getNumberOf((char)('A' + symbol));
+		}
+
+		return result;
+	}
+
+	/**
+	 *
+	 * @param letters Letters ('A'-'Z')
+	 * @return The mask of the letters, for restricted draws
+	 */
+	public static int getLetterMask(String letters)
+	{
+		int mask = 0;
+
+		for(int i = 0; i < letters.length(); i++)
+		{
+			mask |= 1 << (letters.charAt(i) - 'A');
+		}
+
+		return mask;
+	}
+
+	private static int total(int[] letterCounts)
+	{
+		int result = 0;
+
+		for(int count : letterCounts)
+		{
+			result += count;
+		}
+
+		return result;
+	}
+}
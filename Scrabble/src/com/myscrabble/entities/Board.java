@@ -8,7 +8,7 @@ import java.util.HashMap;
 
 import org.newdawn.slick.opengl.Texture;
 
-import com.myscrabble.entities.LetterTile.Movement;
+import com.myscrabble.ai.UnseenTiles;
 import com.myscrabble.main.Main;
 import com.myscrabble.managers.GameStateManager;
 import com.myscrabble.managers.MouseManager;
@@ -17,6 +17,7 @@ import com.myscrabble.rendering.Shader.ShaderType;
 import com.myscrabble.states.Play;
 import com.myscrabble.util.RenderUtils;
 import com.myscrabble.util.ScrabbleUtils;
+import com.myscrabble.util.Zobrist;
 /**
  * 
  * @author Alex Koukoulas
@@ -108,9 +109,15 @@ public class Board extends GameObject
 	 * the board by a player) */
 	private HashMap<Player, TileFormation> playerFormations;
 	
+	/* The tiles each player has not seen yet */
+	private HashMap<Player, UnseenTiles> unseenTiles;
+	
 	private boolean isFirstRound;
 	private int currentBackground;
 	
+	/* Zobrist index of the player to move next */
+	private int sideToMove;
+	
 	public Board(GameStateManager gsm, int backgroundIndex)
 	{
 		super(gsm);
@@ -127,6 +134,7 @@ public class Board extends GameObject
 		tileIndicator = new TileIndicator(gsm);
 		
 		playerFormations = new HashMap<Player, TileFormation>();
+		unseenTiles      = new HashMap<Player, UnseenTiles>();
 		registeredWords  = new ArrayList<LetterTile[]>();
 		
 		coloringShader = new Shader(ShaderType.COLORING);	
@@ -213,17 +221,94 @@ public class Board extends GameObject
 	    {
 	        ArrayList<LetterTile> selection = playerFormations.get(player).getTiles();
 	        addWord(selection);
+	        opponentMoved(player, getPlacedLetters(selection, player));
 	        
 	        playerFormations.get(player).releaseTiles();
 	        playerFormations.remove(player);
+	        
+	        /* Played tiles hash as neutral */
+	        for(LetterTile lt : selection)
+	        {
+	            tilemap.refreshLetterTile(lt);
+	        }
 	    }
 	    else if(!player.isHuman())
 	    {
 	        ArrayList<LetterTile> selection = player.getLastSelectionAI();
 	        addWord(selection);
+	        opponentMoved(player, player.getLastPlacedLettersAI());
+	    }
+	    else
+	    {
+	        opponentMoved(player, "");
+	    }
+	    
+	    /* The move is final, its changes need no undoing */
+	    tilemap.getState().clearUndo();
+	    sideToMove = 1 - player.getZobristIndex();
+	}
+	
+	/**
+	 * 
+	 * @param player A player joining the game, before they draw any tiles
+	 * Starts tracking the tiles the player has not seen
+	 */
+	public void addPlayer(Player player)
+	{
+	    unseenTiles.put(player, new UnseenTiles());
+	}
+	
+	/**
+	 * 
+	 * @param player A player of the game
+	 * @return The tiles the player has not seen yet
+	 * (in the bag or on the opponent's rack)
+	 */
+	public UnseenTiles getUnseenTiles(Player player)
+	{
+	    return unseenTiles.get(player);
+	}
+	
+	/**
+	 * 
+	 * @param mover The player making the move
+	 * @param placed The letters of the tiles the mover placed
+	 * (empty for a pass)
+	 * Shows the tiles the mover placed to every other player
+	 */
+	private void opponentMoved(Player mover, String placed)
+	{
+	    for(Player player : unseenTiles.keySet())
+	    {
+	        if(player != mover)
+	        {
+	            unseenTiles.get(player).opponentMoved(placed);
+	        }
 	    }
 	}
 	
+	/**
+	 * 
+	 * @param selection The tiles of a formation's word
+	 * @param player The player owning the formation
+	 * @return The letters of the player's tiles in the
+	 * word (those still holding the player's reference)
+	 */
+	private String getPlacedLetters(ArrayList<LetterTile> selection, Player player)
+	{
+	    StringBuilder result = new StringBuilder();
+	    
+	    for(LetterTile lt : selection)
+	    {
+	        if(lt.getPlayerRef() == player)
+	        {
+	            result.append(lt.getLetter());
+	        }
+	    }
+	    
+	    return result.toString();
+	}
+	
 	/**
 	 * 
 	 * @param player To be cross checked with the letterTiles
@@ -283,8 +368,9 @@ public class Board extends GameObject
 		if(result != null && targetTile != null)
 		{
 		
+		    /* Off the board first, so the formation is rebuilt without it */
+		    tilemap.clearTile(targetTile);
 		    popFromFormation(result, playerRef);
-		    targetTile.clearTile();
 		}
 		
 		return result;
@@ -309,7 +395,7 @@ public class Board extends GameObject
 		
 		for(LetterTile lt : result)
 		{
-			tilemap.getLetterTileHolder(lt).clearTile();
+			tilemap.clearTile(tilemap.getLetterTileHolder(lt));
 		}
 		
 		playerFormations.remove(playerRef);
@@ -337,8 +423,20 @@ public class Board extends GameObject
 	 */
 	public void addLetterTileAI(LetterTile letterTile)
 	{
-		tilemap.addLetterTile(letterTile);
 		letterTile.clearPlayerRef();
+		tilemap.addLetterTile(letterTile);
+	}
+	
+	/**
+	 * 
+	 * @param col Column of the square
+	 * @param row Row of the square
+	 * @return The premium type of that square
+	 * as laid out on the board (see Tile's type constants)
+	 */
+	public static int getSquareType(int col, int row)
+	{
+		return boardLayout[row][col];
 	}
 	
 	public void disableIndicator()
@@ -346,12 +444,42 @@ public class Board extends GameObject
 		tileIndicator.setStatus(TileIndicator.NONE);
 	}
 	
+	/**
+	 * 
+	 * @param players The players whose racks are part of the position
+	 * @return A 64-bit Zobrist hash of the position: the letter tiles
+	 * on the board and their owners, the players' racks and the side
+	 * to move. Maintained incrementally, so it can be used as a cache
+	 * key at any time.
+	 */
+	public long getPositionHash(Player... players)
+	{
+	    long hash = tilemap.getHash();
+	    
+	    if(sideToMove != 0)
+	    {
+	        hash ^= Zobrist.side();
+	    }
+	    
+	    for(Player player : players)
+	    {
+	        hash ^= player.getTileRack().getHash();
+	    }
+	    
+	    return hash;
+	}
+	
 	/* Getters / Setters */
 	public Tilemap getTilemap()
 	{
 		return tilemap;
 	}
 	
+	public BoardState getState()
+	{
+		return tilemap.getState();
+	}
+	
 	public Rectangle getRect()
 	{
 		return new Rectangle((int)x + SIDE_WIDTH, (int)y + SIDE_HEIGHT, 
@@ -411,7 +539,7 @@ public class Board extends GameObject
 	 */
 	public boolean isCurrentFormationValid(Player playerRef)
 	{
-		return playerFormations.get(playerRef).isValidFormation(this);
+		return playerFormations.get(playerRef).isValidFormation();
 	}
 	
 	/**
@@ -422,16 +550,6 @@ public class Board extends GameObject
 	private void popFromFormation(LetterTile letterTile, Player playerRef)
 	{
 	    playerFormations.get(playerRef).removeTile(letterTile);
-	    if(playerFormations.get(playerRef).nRefTiles() == 0)
-	    {
-	    	playerFormations.get(playerRef).removeAllNeutrals();
-	    }
-	    else
-	    {
-	    	playerFormations.get(playerRef).removeUnaligned();
-	    }
-	    
-	    System.out.println(playerFormations.get(playerRef).toString());
 	}
 	
 	/**
@@ -444,88 +562,24 @@ public class Board extends GameObject
 	{
 		if(!playerFormations.containsKey(playerRef))
 		{	
-			playerFormations.put(playerRef, new TileFormation());
+			playerFormations.put(playerRef, new TileFormation(tilemap));
 		}
 		
 		playerFormations.get(playerRef).addTile(letterTile);
-		playerFormations.get(playerRef).checkForNeutrals(getNeutralLetterTiles());
-		
-		System.out.println(playerFormations.get(playerRef).toString());
 	}
 	
 	private void addWord(ArrayList<LetterTile> wordSelection)
 	{
+	    /* Passed turns register no word */
+	    if(wordSelection == null || wordSelection.isEmpty())
+	    {
+	        return;
+	    }
+	    
 	    /* Fast list -> array operation */
 	    registeredWords.add(wordSelection.toArray(new LetterTile[wordSelection.size()]));
 	}
 	
-	/**
-	 * 
-	 * @return All the neutral tiles on the
-	 * game board
-	 */
-	public ArrayList<LetterTile> getNeutralLetterTiles()
-	{
-	    return tilemap.getNeutralLetterTiles();
-	}
-	
-	/**
-	 * 
-	 * @param reqChar The requested character to look for in the field
-	 * @param word The word that is currently checked. 
-	 * @return A valid LetterTile which has both the requested
-	 * letter and has enough space next to it to fit the word supplied.
-	 */
-	public LetterTile getValidNeutral(char reqChar, String word)
-	{
-		ArrayList<LetterTile> candidates = new ArrayList<>();
-		
-		for(LetterTile neutral : getNeutralLetterTiles())
-		{
-			if(neutral.getLetter() == reqChar)
-			{
-				candidates.add(neutral);
-			}
-		}
-	
-		if(candidates.size() == 0)
-		{
-			return null;
-		}
-		
-		//TODO: maybe change in ai
-		for(LetterTile lt : candidates)
-		{
-			if(tilemap.getFreedomSpace(lt) >= word.length())
-			{
-			    if(validatedEdgeIndices(lt, word, reqChar))
-			    {
-			        return lt;
-			    }
-			}   
-			else
-			{
-			    lt.setAIMovement(Movement.NONE);
-			}
-		}
-		
-		return null;
-	}
-	
-	private boolean validatedEdgeIndices(LetterTile lt, String word, char reqChar)
-	{
-	    int neutralIndexInWord = word.indexOf(reqChar);
-	    
-        if(lt.getAIDirectionFreedom()[0] >= neutralIndexInWord &&
-           lt.getAIDirectionFreedom()[1] >= (word.length() - 1 - neutralIndexInWord))
-        {
-            return true;
-        }
-	        
-	    lt.setAIMovement(Movement.NONE);
-	    return false;
-	}
-	
 	/**
 	 * 
 	 * @return The tile that corresponds to the present
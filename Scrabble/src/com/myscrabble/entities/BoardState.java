@@ -0,0 +1,411 @@
+package com.myscrabble.entities;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * The headless model of the board: one byte per square holding
+ * the letter's character code ('A'-'Z', 0 if empty) in row-major
+ * order (index row * SIZE + col), together with the premium layout
+ * of Board.boardLayout as letter and word multipliers. Game logic
+ * reads the board from here instead of walking Tiles and LetterTiles;
+ * the Tilemap mirrors every placement and withdrawal into its state.
+ * <br>
+ * Every change is logged so that a sequence of changes can be undone
+ * back to a mark, and copying a state is a single array copy, which
+ * makes snapshots for searches cheap.
+ * <br>
+ * Occupancy is also kept as bitboards, one mask per row (ACROSS, bit
+ * i = column i) and per column (DOWN, bit i = row i), so that free and
+ * filled runs, empty spans and anchors are answered with a few bit
+ * operations instead of walks over the squares.
+ */
+public class BoardState
+{
+	public static final int SIZE = Board.BOARD_ROWS;
+	public static final int SQUARES = SIZE * SIZE;
+	public static final int CENTRE = (SIZE / 2) * SIZE + SIZE / 2;
+
+	/* Line directions: rows (ACROSS) and columns (DOWN) */
+	public static final int ACROSS = 0;
+	public static final int DOWN   = 1;
+
+	/* A line mask with every square set */
+	public static final int FULL_LINE = (1 << SIZE) - 1;
+
+	/* Premium multipliers of every square, shared by all states */
+	private static final byte[] letterMultipliers;
+	private static final byte[] wordMultipliers;
+
+	static
+	{
+		letterMultipliers = new byte[SQUARES];
+		wordMultipliers = new byte[SQUARES];
+
+		for(int row = 0; row < SIZE; row++)
+		{
+			for(int col = 0; col < SIZE; col++)
+			{
+				int type = Board.getSquareType(col, row);
+				int square = row * SIZE + col;
+
+				letterMultipliers[square] = (byte)(type == Tile.DOUBLE_LETTER || type == Tile.TRIPLE_LETTER ? type : 1);
+
+				if(type == Tile.DOUBLE_WORD || type == Tile.MIDDLE_TILE)
+				{
+					wordMultipliers[square] = 2;
+				}
+				else if(type == Tile.TRIPLE_WORD)
+				{
+					wordMultipliers[square] = 3;
+				}
+				else
+				{
+					wordMultipliers[square] = 1;
+				}
+			}
+		}
+	}
+
+	private byte[] letters;
+	private int filledSquares;
+
+	/* Occupancy bitboards of every row (ACROSS) and column (DOWN) */
+	private int[][] lineMasks;
+
+	/* Undo log: the square of every change and the letter it replaced */
+	private int[] undoSquares;
+	private byte[] undoLetters;
+	private int undoSize;
+
+	public BoardState()
+	{
+		letters = new byte[SQUARES];
+		lineMasks = new int[2][SIZE];
+		undoSquares = new int[SQUARES];
+		undoLetters = new byte[SQUARES];
+	}
+
+	/**
+	 *
+	 * @param other The state to copy
+	 * Copies the letters only; the copy starts with an empty undo log
+	 */
+	public BoardState(BoardState other)
+	{
+		this();
+		copyFrom(other);
+	}
+
+	/**
+	 *
+	 * @return An independent copy of the board's letters
+	 */
+	public BoardState copy()
+	{
+		return new BoardState(this);
+	}
+
+	/**
+	 *
+	 * @param other The state whose letters replace this state's
+	 * Reuses this state's arrays, clearing its undo log
+	 */
+	public void copyFrom(BoardState other)
+	{
+		System.arraycopy(other.letters, 0, letters, 0, SQUARES);
+		filledSquares = other.filledSquares;
+		System.arraycopy(other.lineMasks[ACROSS], 0, lineMasks[ACROSS], 0, SIZE);
+		System.arraycopy(other.lineMasks[DOWN], 0, lineMasks[DOWN], 0, SIZE);
+		undoSize = 0;
+	}
+
+	/**
+	 *
+	 * @param square Row-major index of the square
+	 * @param letter The letter to place ('A'-'Z', 0 to clear the square)
+	 */
+	public void set(int square, char letter)
+	{
+		byte previous = letters[square];
+
+		if(previous == letter)
+		{
+			return;
+		}
+
+		if(undoSize == undoSquares.length)
+		{
+			undoSquares = Arrays.copyOf(undoSquares, undoSize * 2);
+			undoLetters = Arrays.copyOf(undoLetters, undoSize * 2);
+		}
+
+		undoSquares[undoSize] = square;
+		undoLetters[undoSize] = previous;
+		undoSize++;
+
+		write(square, (byte)letter);
+	}
+
+	public void set(int col, int row, char letter)
+	{
+		set(row * SIZE + col, letter);
+	}
+
+	/**
+	 *
+	 * @return A mark to pass to undo() in order to revert
+	 * every change made from now on
+	 */
+	public int mark()
+	{
+		return undoSize;
+	}
+
+	/**
+	 *
+	 * @param mark A mark previously returned by mark()
+	 * Reverts the changes made since the mark, latest first
+	 */
+	public void undo(int mark)
+	{
+		while(undoSize > mark)
+		{
+			undoSize--;
+
+			int square = undoSquares[undoSize];
+			byte previous = undoLetters[undoSize];
+
+			write(square, previous);
+		}
+	}
+
+	private void write(int square, byte letter)
+	{
+		int row = square / SIZE;
+		int col = square % SIZE;
+
+		if(letter != 0)
+		{
+			filledSquares += letters[square] == 0 ? 1 : 0;
+			lineMasks[ACROSS][row] |= 1 << col;
+			lineMasks[DOWN][col] |= 1 << row;
+		}
+		else
+		{
+			filledSquares -= letters[square] != 0 ? 1 : 0;
+			lineMasks[ACROSS][row] &= ~(1 << col);
+			lineMasks[DOWN][col] &= ~(1 << row);
+		}
+
+		letters[square] = letter;
+	}
+
+	/**
+	 * Forgets the undo log (e.g. once a move has been made for good)
+	 */
+	public void clearUndo()
+	{
+		undoSize = 0;
+	}
+
+	/**
+	 *
+	 * @param result Receives the row-major letters of the board (0 if empty)
+	 * @return result, for chaining
+	 */
+	public char[] getLetters(char[] result)
+	{
+		for(int square = 0; square < SQUARES; square++)
+		{
+			result[square] = (char)letters[square];
+		}
+
+		return result;
+	}
+
+	/**
+	 *
+	 * @return A row-major snapshot of the board's letters (0 if empty)
+	 */
+	public char[] getLetters()
+	{
+		return getLetters(new char[SQUARES]);
+	}
+
+	public char getLetter(int square)
+	{
+		return (char)letters[square];
+	}
+
+	public char getLetter(int col, int row)
+	{
+		return (char)letters[row * SIZE + col];
+	}
+
+	public boolean isEmpty(int square)
+	{
+		return letters[square] == 0;
+	}
+
+	/**
+	 *
+	 * @return Whether the square is empty. Squares off the
+	 * board count as empty.
+	 */
+	public boolean isEmpty(int col, int row)
+	{
+		return !isOnBoard(col, row) || letters[row * SIZE + col] == 0;
+	}
+
+	/**
+	 *
+	 * @return Whether no tile has been placed on the board
+	 */
+	public boolean isEmpty()
+	{
+		return filledSquares == 0;
+	}
+
+	public int getFilledSquares()
+	{
+		return filledSquares;
+	}
+
+	/**
+	 *
+	 * @param dir ACROSS for a row, DOWN for a column
+	 * @param line Index of the row or column
+	 * @return The line's occupancy mask (bit i set if its
+	 * i-th square holds a letter), 0 for lines off the board
+	 */
+	public int getLineMask(int dir, int line)
+	{
+		return line >= 0 && line < SIZE ? lineMasks[dir][line] : 0;
+	}
+
+	/**
+	 *
+	 * @return Whether squares from..to (inclusive) of the line
+	 * all hold letters
+	 */
+	public boolean isSpanFilled(int dir, int line, int from, int to)
+	{
+		int span = spanMask(from, to);
+		return (getLineMask(dir, line) & span) == span;
+	}
+
+	/**
+	 *
+	 * @return Whether the square is an anchor: an empty square next
+	 * to a letter, or the centre square while the board is empty
+	 */
+	public boolean isAnchor(int square)
+	{
+		int row = square / SIZE;
+		return (getAnchorMask(row) & (1 << (square % SIZE))) != 0;
+	}
+
+	/**
+	 *
+	 * @param row Index of the row
+	 * @return The row's anchors as a mask (bit i = column i)
+	 */
+	public int getAnchorMask(int row)
+	{
+		if(filledSquares == 0)
+		{
+			return row == CENTRE / SIZE ? 1 << (CENTRE % SIZE) : 0;
+		}
+
+		int mask = lineMasks[ACROSS][row];
+		int neighbours = (mask << 1) | (mask >>> 1) | getLineMask(ACROSS, row - 1) | getLineMask(ACROSS, row + 1);
+
+		return neighbours & ~mask & FULL_LINE;
+	}
+
+	/**
+	 *
+	 * @param mask A line mask of blocked squares
+	 * @param pos A square of the line
+	 * @return The number of unblocked squares right after pos
+	 * (up to the end of the line)
+	 */
+	public static int freeAfter(int mask, int pos)
+	{
+		return Integer.numberOfTrailingZeros((mask | (1 << SIZE)) >>> (pos + 1));
+	}
+
+	/**
+	 *
+	 * @param mask A line mask of blocked squares
+	 * @param pos A square of the line
+	 * @return The number of unblocked squares right before pos
+	 * (down to the start of the line)
+	 */
+	public static int freeBefore(int mask, int pos)
+	{
+		int below = mask & ((1 << pos) - 1);
+		return below == 0 ? pos : pos - 1 - (31 - Integer.numberOfLeadingZeros(below));
+	}
+
+	/**
+	 *
+	 * @return The number of filled squares of the line right after pos
+	 */
+	public int filledAfter(int dir, int line, int pos)
+	{
+		return freeAfter(~getLineMask(dir, line) & FULL_LINE, pos);
+	}
+
+	/**
+	 *
+	 * @return The number of filled squares of the line right before pos
+	 */
+	public int filledBefore(int dir, int line, int pos)
+	{
+		return freeBefore(~getLineMask(dir, line) & FULL_LINE, pos);
+	}
+
+	private static int spanMask(int from, int to)
+	{
+		from = Math.max(from, 0);
+		to = Math.min(to, SIZE - 1);
+
+		if(from > to)
+		{
+			return 0;
+		}
+
+		return (FULL_LINE >>> (SIZE - 1 - to)) & ~((1 << from) - 1);
+	}
+
+	public static boolean isOnBoard(int col, int row)
+	{
+		return col >= 0 && row >= 0 && col < SIZE && row < SIZE;
+	}
+
+	/**
+	 *
+	 * @param square Row-major index of the square
+	 * @return The factor a tile's points are multiplied by
+	 * when newly placed on the square
+	 */
+	public static int getLetterMultiplier(int square)
+	{
+		return letterMultipliers[square];
+	}
+
+	/**
+	 *
+	 * @param square Row-major index of the square
+	 * @return The factor the words through a tile newly
+	 * placed on the square are multiplied by
+	 */
+	public static int getWordMultiplier(int square)
+	{
+		return wordMultipliers[square];
+	}
+}
@@ -3,13 +3,12 @@ package com.myscrabble.entities;
 import static com.myscrabble.managers.ResourceManager.STD_TEX_EXT;
 
 import java.awt.Rectangle;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import com.myscrabble.managers.GameStateManager;
 import com.myscrabble.rendering.Shader;
 import com.myscrabble.states.Play;
+import com.myscrabble.util.GameRecord;
 import com.myscrabble.util.RenderUtils;
 import com.myscrabble.util.ScrabbleUtils;
 
@@ -19,16 +18,14 @@ import com.myscrabble.util.ScrabbleUtils;
  * Class Description:
  * This entity represents the cloth bag used to
  * draw letter tiles from. When a draw request
- * is done a LetterTile is returned.
+ * is done a LetterTile is returned. The tiles
+ * themselves are kept in a BagState and drawn
+ * with a generator split from the game's, every
+ * draw being logged to the game's record.
  */
 
 public class LetterBag extends GameObject
 {
-	/* Standard english alphabet letters */
-	private static final String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
-	private static final String vowels = "AEIOUWY";
-	private static final String conson = "BCDFGHJKLMNPQRSTVXZ";
-	
 	/* Texture Paths */
 	private static final String NORM_TEX_PATH = "/misc/scrabbleBag" + STD_TEX_EXT;
 	private static final String EMPTY_TEX_PATH = "/misc/scrabbleBagEmpty" + STD_TEX_EXT;
@@ -52,8 +49,12 @@ public class LetterBag extends GameObject
 	private static final float INCREMENTAL_INDEX_MODIFIER = 0.02f; 
 	
 	
-	/* A collection of letters that the players can draw from */
-	private ArrayList<Character> letters;
+	/* The letters that the players can draw from */
+	private BagState letters;
+	private SplittableRandom random;
+	
+	/* Record of the game the draws are logged to (null if none) */
+	private GameRecord record;
 	
 	private boolean highlighted;
 	private boolean runOut;
@@ -79,11 +80,23 @@ public class LetterBag extends GameObject
 	}
 	
 	public LetterBag(GameStateManager gsm)
+	{
+		this(gsm, new SplittableRandom(), null);
+	}
+	
+	/**
+	 * 
+	 * @param random Generator of the draws, the same generator
+	 * drawing the same tiles in the same order
+	 * @param record Record of the game to log the draws to (null if none)
+	 */
+	public LetterBag(GameStateManager gsm, SplittableRandom random, GameRecord record)
 	{
 		super(gsm);
 		
-		fillBag();
-		shuffleBag();
+		letters = new BagState();
+		this.random = random;
+		this.record = record;
 		loadTextures();
 		
 		runOut = false;
@@ -131,16 +144,15 @@ public class LetterBag extends GameObject
 	
 	public LetterTile drawLetter(Player playerRef, int index)
 	{
-		/* selection of random index */
-		int randIndex = new Random().nextInt(letters.size());
-		
-		/* accumulation of the random letter */
-		char chosenLetter = letters.get(randIndex);
+		/* selection and removal of a random letter */
+		char chosenLetter = letters.drawForRack(random);
 		
-		/* pop the random letter from bag */
-		letters.remove(randIndex);
+		if(record != null)
+		{
+			record.recordDraw(playerRef.getZobristIndex(), chosenLetter);
+		}
 		
-		runOut = letters.size() == 0;
+		runOut = letters.isEmpty();
 		
 		int letterPoints = ScrabbleUtils.getValueOf(chosenLetter);
 		
@@ -149,79 +161,6 @@ public class LetterBag extends GameObject
 		return new LetterTile(gsm, playerRef, chosenLetter, letterPoints, drawAnimating, index);
 	}
 	
-	private void fillBag()
-	{
-		letters = new ArrayList<Character>();
-		
-		for(int i = 0; i < alphabet.length(); i++)
-		{
-			for(int n = 0; n < ScrabbleUtils.getNumberOf(alphabet.charAt(i)); n++)
-			{
-				letters.add(alphabet.charAt(i));
-			}
-		}
-	}
-	
-	private void shuffleBag()
-	{
-		Collections.shuffle(letters);
-		
-		while(!goodShuffle())
-		{
-		    Collections.shuffle(letters);
-		}  
-	}
-	
-	/**
-	 * 
-	 * @return whether only vowels or consonants
-	 * in either the first 1-7 or 8-14 letter tiles.
-	 */
-	private boolean goodShuffle()
-	{
-	    ArrayList<Character> firstLetters = new ArrayList<>();
-	    ArrayList<Character> secondLetters = new ArrayList<>();
-	    
-	    for(int i = 0; i < (TileRack.MAX_NO_TILES * 2); i++)
-	    {
-	        if(i < TileRack.MAX_NO_TILES)
-	        {
-	            firstLetters.add(letters.get(i));
-	        }
-	        else
-	        {
-	            secondLetters.add(letters.get(i));
-	        }
-	    }
-	    
-	    int[] charCounts1 = new int[2];
-	    int[] charCounts2 = new int[2];
-	    
-	    for(int i = 0; i < TileRack.MAX_NO_TILES; i++)
-	    {
-	        if(vowels.contains(String.valueOf(firstLetters.get(i))))
-	        {
-	            charCounts1[0]++;
-	        }
-	        else if(conson.contains(String.valueOf(firstLetters.get(i))))
-	        {
-	            charCounts1[1]++;
-	        }
-	        
-	        if(vowels.contains(String.valueOf(secondLetters.get(i))))
-	        {
-	            charCounts2[0]++;
-	        }
-	        else if(conson.contains(String.valueOf(secondLetters.get(i))))
-	        {
-	            charCounts2[1]++;
-	        }
-	    }
-	    
-	    return charCounts1[0] < TileRack.MAX_NO_TILES && charCounts1[1] < TileRack.MAX_NO_TILES &&
-	           charCounts2[0] < TileRack.MAX_NO_TILES && charCounts2[1] < TileRack.MAX_NO_TILES;
-	}
-	
 	private void loadTextures()
 	{
 		addTexture(NORMAL_TEX, NORM_TEX_PATH);
@@ -234,6 +173,17 @@ public class LetterBag extends GameObject
 	}
 	
 	/* Getters / Setters */
+	
+	/**
+	 * 
+	 * @return The tiles left in the bag (copy it to
+	 * simulate draws without touching the bag)
+	 */
+	public BagState getState()
+	{
+		return letters;
+	}
+	
 	public boolean hasRunOut()
 	{
 	    return runOut;
@@ -0,0 +1,144 @@
+package com.myscrabble.entities;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Checks the geometry of a placement on the board model: the newly
+ * placed tiles must share a row or a column, the squares between the
+ * first and the last of them must all hold letters (new or already
+ * played), the first move of the game must cover the centre square
+ * and every later move must touch a tile already on the board. Only
+ * integer squares and the occupancy queries of BoardState are used,
+ * and nothing is allocated. Letters play no part in the geometry
+ * (words are checked against the dictionary separately).
+ */
+public class PlacementValidator
+{
+	/* Validation results */
+	public static final int VALID         = 0;
+	public static final int NO_TILES      = 1;
+	public static final int NOT_ALIGNED   = 2;
+	public static final int HAS_GAPS      = 3;
+	public static final int MISSES_CENTRE = 4;
+	public static final int NOT_CONNECTED = 5;
+
+	private static final int SIZE = BoardState.SIZE;
+
+	/**
+	 *
+	 * @param board The board with the placement's tiles already set on it
+	 * @param placedSquares Row-major squares of the newly placed tiles
+	 * @param count The number of newly placed tiles (entries of placedSquares used)
+	 * @return VALID, or the first rule the placement breaks
+	 */
+	public static int validate(BoardState board, int[] placedSquares, int count)
+	{
+		if(count == 0)
+		{
+			return NO_TILES;
+		}
+
+		int dir = getDirection(board, placedSquares, count);
+
+		if(dir < 0)
+		{
+			return NOT_ALIGNED;
+		}
+
+		int line = dir == BoardState.ACROSS ? placedSquares[0] / SIZE : placedSquares[0] % SIZE;
+		int min = SIZE;
+		int max = -1;
+
+		for(int i = 0; i < count; i++)
+		{
+			int pos = dir == BoardState.ACROSS ? placedSquares[i] % SIZE : placedSquares[i] / SIZE;
+			min = Math.min(min, pos);
+			max = Math.max(max, pos);
+		}
+
+		if(!board.isSpanFilled(dir, line, min, max))
+		{
+			return HAS_GAPS;
+		}
+
+		/* Only the new tiles are on the board: this is the first move */
+		if(board.getFilledSquares() == count)
+		{
+			return contains(placedSquares, count, BoardState.CENTRE) ? VALID : MISSES_CENTRE;
+		}
+
+		/* Played tiles inside or at either end of the line's run */
+		int runLength = board.filledBefore(dir, line, min) + (max - min + 1) + board.filledAfter(dir, line, max);
+
+		if(runLength > count)
+		{
+			return VALID;
+		}
+
+		/* Otherwise a new tile must touch a played tile across the line */
+		int other = 1 - dir;
+
+		for(int pos = min; pos <= max; pos++)
+		{
+			if(board.filledBefore(other, pos, line) > 0 || board.filledAfter(other, pos, line) > 0)
+			{
+				return VALID;
+			}
+		}
+
+		return NOT_CONNECTED;
+	}
+
+	/**
+	 *
+	 * @param board The board with the placement's tiles already set on it
+	 * @param placedSquares Row-major squares of the newly placed tiles
+	 * @param count The number of newly placed tiles
+	 * @return BoardState.ACROSS or BoardState.DOWN for tiles sharing a
+	 * row or a column, or -1 if they are not aligned. A single tile
+	 * runs across if it has a horizontal neighbour or no vertical one.
+	 */
+	public static int getDirection(BoardState board, int[] placedSquares, int count)
+	{
+		int row = placedSquares[0] / SIZE;
+		int col = placedSquares[0] % SIZE;
+
+		if(count == 1)
+		{
+			boolean across = board.filledBefore(BoardState.ACROSS, row, col) + board.filledAfter(BoardState.ACROSS, row, col) > 0;
+			boolean down   = board.filledBefore(BoardState.DOWN, col, row) + board.filledAfter(BoardState.DOWN, col, row) > 0;
+
+			return across || !down ? BoardState.ACROSS : BoardState.DOWN;
+		}
+
+		boolean sameRow = true;
+		boolean sameCol = true;
+
+		for(int i = 1; i < count; i++)
+		{
+			sameRow &= placedSquares[i] / SIZE == row;
+			sameCol &= placedSquares[i] % SIZE == col;
+		}
+
+		if(sameRow)
+		{
+			return BoardState.ACROSS;
+		}
+
+		return sameCol ? BoardState.DOWN : -1;
+	}
+
+	private static boolean contains(int[] placedSquares, int count, int square)
+	{
+		for(int i = 0; i < count; i++)
+		{
+			if(placedSquares[i] == square)
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
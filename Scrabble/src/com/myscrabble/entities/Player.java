@@ -4,6 +4,8 @@ package com.myscrabble.entities;
 import java.util.ArrayList;
 import com.myscrabble.ai.AIController;
 import com.myscrabble.ai.AIController.AIState;
+import com.myscrabble.ai.MoveSelector;
+import com.myscrabble.ai.UnseenTiles;
 import com.myscrabble.entities.LetterTile.Direction;
 import com.myscrabble.managers.GameStateManager;
 import com.myscrabble.managers.MouseManager;
@@ -85,7 +87,11 @@ public class Player
 		this.isHuman = isHuman;
 		this.name = name;
 		
-		aiController = new AIController(Play.AI_LEVEL, this, board, scrabbleDict);
+		board.addPlayer(this);
+		
+		aiController = new AIController(Play.AI_LEVEL, Play.AI_MOVE_GENERATION, this, board, scrabbleDict,
+										playStateRef.splitRandom());
+		aiController.setLogging(Play.AI_DEBUG);
 		tileRack = new TileRack(gsm, this, letterBag);
 		
 		isActive = false;
@@ -132,6 +138,15 @@ public class Player
 		}
 	}
 	
+	/**
+	 * Cancels any move this (AI) player
+	 * is planning in the background
+	 */
+	public void cancelAIPlanning()
+	{
+		aiController.cancelPlanning();
+	}
+	
 	public void updateAI()
 	{
 		aiController.update();
@@ -464,6 +479,21 @@ public class Player
 	    return isHuman;
 	}
 	
+	/**
+	 * 
+	 * @return The index of this player in position
+	 * hashes (0 for the human, 1 for the AI player)
+	 */
+	public int getZobristIndex()
+	{
+		return isHuman ? 0 : 1;
+	}
+	
+	public LetterBag getLetterBag()
+	{
+		return letterBag;
+	}
+	
 	public TileRack getTileRack()
 	{
 		return tileRack;
@@ -484,11 +514,35 @@ public class Player
 	    return board.getCurrentWord(this);
 	}
 	
+	public MoveSelector getMoveSelectorAI()
+	{
+	    return aiController.getMoveSelector();
+	}
+	
 	public ArrayList<LetterTile> getLastSelectionAI()
 	{
 	    return aiController.getLastSelection();
 	}
 	
+	/**
+	 * 
+	 * @return The letters of the tiles placed by
+	 * the ai's last move (empty if it passed)
+	 */
+	public String getLastPlacedLettersAI()
+	{
+	    return aiController.getLastPlacedLetters();
+	}
+	
+	/**
+	 * 
+	 * @return The tiles this player has not seen yet
+	 */
+	public UnseenTiles getUnseenTiles()
+	{
+	    return board.getUnseenTiles(this);
+	}
+	
 	public int getCurrentPoints()
 	{
 		if(isHuman)
@@ -10,6 +10,7 @@ import java.util.Map.Entry;
 import com.myscrabble.entities.LetterTile.Direction;
 import com.myscrabble.managers.GameStateManager;
 import com.myscrabble.util.RenderUtils;
+import com.myscrabble.util.Zobrist;
 /**
  * 
  * @author Alex Koukoulas
@@ -70,6 +71,10 @@ public class TileRack extends GameObject
     
     private boolean tilesAnimating;
     
+    /* Number of each letter (index 0 = 'A') in the rack and their Zobrist hash */
+    private int[] letterCounts;
+    private long hash;
+    
 	public TileRack(GameStateManager gsm, Player playerRef, LetterBag letterBag)
 	{
 		super(gsm);
@@ -78,6 +83,7 @@ public class TileRack extends GameObject
 		this.letterBag = letterBag;
 		
 		letterTiles = new ArrayList<LetterTile>();
+		letterCounts = new int[Zobrist.LETTERS];
 		tilesToRemove = new ArrayList<LetterTile>();
 		tilesToAdd = new HashMap<LetterTile, Integer>();
 		
@@ -135,7 +141,10 @@ public class TileRack extends GameObject
 		/** Remove tiles */
 		for(LetterTile lt : tilesToRemove)
 		{
-			letterTiles.remove(lt);
+			if(letterTiles.remove(lt))
+			{
+				updateCount(lt.getLetter(), -1);
+			}
 		}
 
 		tilesToRemove.clear();
@@ -146,6 +155,7 @@ public class TileRack extends GameObject
 		for(Entry<LetterTile, Integer> entry : tilesToAdd.entrySet())
 		{
 			letterTiles.add(entry.getValue(), entry.getKey());
+			updateCount(entry.getKey().getLetter(), 1);
 			
 		}
 		
@@ -365,10 +375,30 @@ public class TileRack extends GameObject
 	{
 	    if(!letterBag.hasRunOut())
 	    {
-	        letterTiles.add(letterBag.drawLetter(playerRef, index));
+	        LetterTile drawn = letterBag.drawLetter(playerRef, index);
+	        
+	        letterTiles.add(drawn);
+	        updateCount(drawn.getLetter(), 1);
+	        playerRef.getUnseenTiles().tileSeen(drawn.getLetter());
 	    }
 	}
 	
+	/**
+	 * 
+	 * @param letter The letter added to or removed from the rack
+	 * @param change +1 for an addition, -1 for a removal
+	 * Updates the letter counts and their hash
+	 */
+	private void updateCount(char letter, int change)
+	{
+		int symbol = letter - 'A';
+		int player = playerRef.getZobristIndex();
+		
+		hash ^= Zobrist.rack(player, symbol, letterCounts[symbol]);
+		letterCounts[symbol] += change;
+		hash ^= Zobrist.rack(player, symbol, letterCounts[symbol]);
+	}
+	
 	/* Add / Remove tiles from rack */
 	public void addTile(final LetterTile lt, final int index)
 	{
@@ -475,6 +505,16 @@ public class TileRack extends GameObject
 		return letterTiles;
 	}
 	
+	/**
+	 * 
+	 * @return The Zobrist hash of the letters in the rack
+	 * (the same as Zobrist.hashRack() of its letter counts)
+	 */
+	public long getHash()
+	{
+		return hash;
+	}
+	
 	/**
 	 * Attempts to find and return a hole in the formation
 	 * of the tiles in the rack (i.e. a spot -in between, at
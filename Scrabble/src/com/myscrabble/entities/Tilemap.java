@@ -1,8 +1,8 @@
 package com.myscrabble.entities;
 
-import java.util.ArrayList;
+import java.util.IdentityHashMap;
 
-import com.myscrabble.entities.LetterTile.Movement;
+import com.myscrabble.util.Zobrist;
 
 
 
@@ -12,16 +12,38 @@ import com.myscrabble.entities.LetterTile.Movement;
  * Class Description:
  * A class containing information about the tile map 
  * constructed from the board layout given (default array from Board class)
- * Letter-Tile accessibility is done from this class
+ * Letter-Tile accessibility is done from this class.
+ * The tile map mirrors every tile placement and withdrawal
+ * into the board's headless BoardState, which game logic
+ * reads instead of the tiles, indexes the tile holding every
+ * letter tile by identity, and keeps a Zobrist hash of
+ * the letter tiles it holds (letter x square x owner),
+ * updated on every placement, withdrawal and change of owner.
  */
 
 public class Tilemap 
 {
 	private Tile[][] tiles;
 	
+	/* The letters on the map, kept in step with the tiles */
+	private BoardState state;
+	
+	/* The tile holding each letter tile on the map */
+	private IdentityHashMap<LetterTile, Tile> holders;
+	
+	/* Zobrist hash of the letter tiles on the map */
+	private long hash;
+	
+	/* The key each square currently contributes to the hash (0 if empty) */
+	private long[] squareKeys;
+	
 	public Tilemap()
 	{			
 		createTilemap();
+		
+		state = new BoardState();
+		holders = new IdentityHashMap<LetterTile, Tile>();
+		squareKeys = new long[Board.BOARD_ROWS * Board.BOARD_COLS];
 	}
 	
 	public void render()
@@ -56,22 +78,12 @@ public class Tilemap
 	
     public boolean isTileEmptyAI(int x, int y)
     {
-        if(x < 0 || y < 0 || x >= Board.BOARD_COLS || y >= Board.BOARD_ROWS)
-        {
-            return true;
-        }
-        
-        return getTile(x, y).isEmpty();
+        return state.isEmpty(x, y);
     }
     
     public boolean isTileEmpty(int x, int y)
     {
-        if(x < 0 || y < 0 || x >= Board.BOARD_COLS || y >= Board.BOARD_ROWS)
-        {
-            return false;
-        }
-        
-        return getTile(x, y).isEmpty();
+        return BoardState.isOnBoard(x, y) && state.isEmpty(x, y);
     }
 	
 	/**
@@ -81,134 +93,35 @@ public class Tilemap
 	 */
 	public Tile getLetterTileHolder(LetterTile letterTile)
 	{
-	    for(Tile[] allTiles : tiles)
+	    Tile holder = holders.get(letterTile);
+	    
+	    if(holder == null)
 	    {
-	        for(Tile tile : allTiles)
-	        {
-	            if(tile.getLetterTile() == letterTile)
-	            {
-	                return tile;
-	            }
-	        }
+	        System.out.println("Tile not found!");
 	    }
 	    
-	    System.out.println("Tile not found!");
-	    return null;
+	    return holder;
 	}
 	
 	/**
 	 * 
-	 * @param lt The LetterTile to check
-	 * @return the maximum between the number of horizontal
-	 * and vertical free tiles with lt being the origin
+	 * @return A row-major snapshot of the letters on
+	 * the board (index row * BOARD_COLS + col), with
+	 * 0 for empty tiles
 	 */
-	public int getFreedomSpace(LetterTile lt)
+	public char[] getLetters()
 	{
-		//direction freedom accumulators
-		int verUpFreedom = 0;
-		int verDownFreedom = 0;
-		int horLeftFreedom = 0;
-		int horRightFreedom = 0;
-		
-		Tile tileHolder = getLetterTileHolder(lt);
-		
-		int holderCol = tileHolder.getCol();
-		int holderRow = tileHolder.getRow();
-		
-		for(int i = holderCol + 1; i < Board.BOARD_COLS; i++)
-		{
-			if(isTileEmptyAI(i, holderRow) && isTileEmptyAI(i + 1, holderRow) &&
-			   isTileEmptyAI(i, holderRow + 1) && isTileEmptyAI(i, holderRow - 1))
-			{
-				horRightFreedom++;
-			}
-			else
-			{
-				break;
-			}
-		}
-		
-		for(int i = holderCol - 1; i >= 0; i--)
-		{
-			if(isTileEmptyAI(i, holderRow) && isTileEmptyAI(i - 1, holderRow) &&
-			   isTileEmptyAI(i, holderRow + 1) && isTileEmptyAI(i, holderRow - 1))
-			{
-				horLeftFreedom++;
-			}
-			else
-			{
-				break;
-			}
-		}
-		
-		for(int i = holderRow + 1; i < Board.BOARD_ROWS; i++)
-		{
-			if(isTileEmptyAI(holderCol, i) && isTileEmptyAI(holderCol, i + 1) &&
-			   isTileEmptyAI(holderCol + 1, i) && isTileEmptyAI(holderCol - 1, i))
-			{
-				verDownFreedom++;
-			}
-			else
-			{
-				break;
-			}
-		}
-		
-		for(int i = holderRow - 1; i >= 0; i--)
-		{
-			if(isTileEmptyAI(holderCol, i) && isTileEmptyAI(holderCol, i - 1) &&
-			   isTileEmptyAI(holderCol + 1, i) && isTileEmptyAI(holderCol - 1, i))
-			{
-				verUpFreedom++;
-			}
-			else
-			{
-				break;
-			}
-		}
-		
-		
-		int totalHorFreedom = horLeftFreedom + horRightFreedom;
-		int totalVerFreedom = verUpFreedom + verDownFreedom;
-		
-		if(totalHorFreedom >= totalVerFreedom && 
-		   isTileEmpty(holderCol + 1, holderRow) && 
-		   isTileEmpty(holderCol - 1, holderRow))
-		{
-		    lt.setAIMovement(Movement.HORIZONTAL); 
-		    lt.setAIDirectionFreedom(new int[]{horLeftFreedom, horRightFreedom});
-		    return totalHorFreedom;
-		}
-		else if(totalHorFreedom <= totalVerFreedom &&
-		        isTileEmpty(holderCol, holderRow + 1) &&
-		        isTileEmpty(holderCol, holderRow - 1))
-		{
-		    lt.setAIMovement(Movement.VERTICAL);
-		    lt.setAIDirectionFreedom(new int[]{verUpFreedom, verDownFreedom});
-		    return totalVerFreedom;
-		}
-		else
-		{
-		    return 0;
-		}
+	    return state.getLetters();
 	}
 	
-	public ArrayList<LetterTile> getNeutralLetterTiles()
+	/**
+	 * 
+	 * @return The headless state of the board the
+	 * tile map mirrors its letter tiles into
+	 */
+	public BoardState getState()
 	{
-	    ArrayList<LetterTile> result = new ArrayList<>();
-	    
-	    for(Tile[] allTiles : tiles)
-	    {
-	        for(Tile tile : allTiles)
-	        {
-	            if(tile.getLetterTile() != null && tile.getLetterTile().isNeutral())
-	            {
-	                result.add(tile.getLetterTile());
-	            }
-	        }
-	    }
-	    
-	    return result;
+	    return state;
 	}
 	
 	/**
@@ -228,7 +141,7 @@ public class Tilemap
 		letterTile.setHighlightStatus(LetterTile.HIGHLIGHT_IDLE);
 		
 		/* place the letter tile on top of the tile */
-		targetTile.setTile(letterTile);
+		placeLetterTile(letterTile, targetTile);
 		
 		/* reset tile indicator status to none */
 		tileIndicator.setStatus(TileIndicator.NONE);
@@ -249,7 +162,82 @@ public class Tilemap
 		
 		Tile targetTile = getTile(targetCol, targetRow);
 		
+		placeLetterTile(letterTile, targetTile);
+	}
+	
+	private void placeLetterTile(LetterTile letterTile, Tile targetTile)
+	{
+		if(targetTile.getLetterTile() != null)
+		{
+			holders.remove(targetTile.getLetterTile());
+		}
+		
 		targetTile.setTile(letterTile);
+		holders.put(letterTile, targetTile);
+		updateSquare(targetTile);
+	}
+	
+	/**
+	 * 
+	 * @param tile The tile to remove the letter tile from
+	 */
+	public void clearTile(Tile tile)
+	{
+		if(tile.getLetterTile() != null)
+		{
+			holders.remove(tile.getLetterTile());
+		}
+		
+		tile.clearTile();
+		updateSquare(tile);
+	}
+	
+	/**
+	 * 
+	 * @param letterTile A letter tile on the map whose
+	 * owner has changed (e.g. released once played)
+	 */
+	public void refreshLetterTile(LetterTile letterTile)
+	{
+		Tile holder = getLetterTileHolder(letterTile);
+		
+		if(holder != null)
+		{
+			updateSquare(holder);
+		}
+	}
+	
+	/**
+	 * 
+	 * @return The Zobrist hash of the letter tiles on the map
+	 */
+	public long getHash()
+	{
+		return hash;
+	}
+	
+	/**
+	 * 
+	 * @param tile A tile whose letter tile (or its owner) has changed
+	 * Mirrors the tile's letter into the board state and replaces
+	 * the key the tile contributes to the hash
+	 */
+	private void updateSquare(Tile tile)
+	{
+		int square = tile.getRow() * Board.BOARD_COLS + tile.getCol();
+		LetterTile letterTile = tile.getLetterTile();
+		long key = 0;
+		
+		state.set(square, letterTile == null ? 0 : letterTile.getLetter());
+		
+		if(letterTile != null)
+		{
+			int owner = letterTile.isNeutral() ? Zobrist.NEUTRAL : letterTile.getPlayerRef().getZobristIndex() + 1;
+			key = Zobrist.square(square, letterTile.getLetter(), owner);
+		}
+		
+		hash ^= squareKeys[square] ^ key;
+		squareKeys[square] = key;
 	}
 	
 	private void createTilemap()
@@ -197,6 +197,57 @@ public class ResourceManager
 		return new String();
 	}
 	
+	/**
+	 * 
+	 * @param filePath of the file (relative to the resource directory)
+	 * @return the file handle of that resource
+	 */
+	public static File getResourceFile(final String filePath)
+	{
+		return new File(RES_DIR + filePath);
+	}
+	
+	/**
+	 * 
+	 * @param filePath of the file to open (relative to the resource directory)
+	 * @return every non empty line of the file
+	 * (NOTE) static to be accessible to non game objects
+	 * such as ScrabbleDictionary objects.
+	 */
+	public static ArrayList<String> loadFileAsLines(final String filePath)
+	{
+		String fileDir = RES_DIR + filePath;
+		
+		ArrayList<String> result = new ArrayList<>();
+		
+		try(BufferedReader br = new BufferedReader(new FileReader(new File(fileDir))))
+		{
+			String line;
+			
+			while((line = br.readLine()) != null)
+			{
+				if(line.length() > 0)
+				{
+					result.add(line);
+				}
+			}
+		}
+		catch (FileNotFoundException e)
+		{
+			System.err.println("File not found: " + fileDir);
+			e.printStackTrace();
+			System.exit(1);
+		}
+		catch (IOException e)
+		{
+			System.err.println("Error while reading from: " + fileDir);
+			e.printStackTrace();
+			System.exit(1);
+		}
+		
+		return result;
+	}
+	
 	/**
 	 * 
 	 * @param dirPath The path to the directory containing the keyframes
@@ -1,22 +1,28 @@
 package com.myscrabble.states;
 
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map.Entry;
+import java.util.SplittableRandom;
 
 import org.newdawn.slick.TrueTypeFont;
 
 import com.myscrabble.ai.AIController.AILevel;
+import com.myscrabble.ai.AIController.MoveGeneration;
 import com.myscrabble.entities.Board;
 import com.myscrabble.entities.GameObject;
 import com.myscrabble.entities.LetterBag;
+import com.myscrabble.entities.LetterTile;
 import com.myscrabble.entities.Player;
 import com.myscrabble.entities.TileRack;
 import com.myscrabble.main.Main;
 import com.myscrabble.managers.GameStateManager;
 import com.myscrabble.managers.KeyboardManager;
 import com.myscrabble.managers.MouseManager;
+import com.myscrabble.managers.ResourceManager;
 import com.myscrabble.rendering.Shader;
 import com.myscrabble.rendering.Shader.ShaderType;
 import com.myscrabble.uicomponents.BWordSelection;
@@ -24,6 +30,7 @@ import com.myscrabble.uicomponents.Button;
 import com.myscrabble.uicomponents.PauseMenu;
 import com.myscrabble.uicomponents.ScoreDisplay;
 import com.myscrabble.user.UserProfile;
+import com.myscrabble.util.GameRecord;
 import com.myscrabble.util.ScrabbleDictionary;
 
 /**
@@ -68,6 +75,10 @@ public class Play extends GameState
 	public static final int NO_PLAYERS = 1;
 	public static final int TILE_STYLE = 1;
 	public static final AILevel AI_LEVEL = AILevel.HARD;
+	public static final MoveGeneration AI_MOVE_GENERATION = MoveGeneration.DAWG;
+	
+	/* Prints the game's seed at the start and the AI's search statistics on every AI turn */
+	public static final boolean AI_DEBUG = false;
 
 	private static final String FONT_NAME   = "font_bold";
 	private static final int FONT_SIZE      = 32;
@@ -76,6 +87,9 @@ public class Play extends GameState
 	private static final float[] AI_PASS_POS  = new float[]{470, 15};
 	private static final float[] HUM_PASS_POS = new float[]{470, Main.getNormalDimensions()[1] - 50};
 	
+	/* Directory the records of finished games are saved to */
+	public static final String GAMES_DIR = ResourceManager.SAV_DIR + "/games";
+	
 	/* Reference to the profile of the user currently playing */
 	private UserProfile currentUserProfile;
 	
@@ -99,6 +113,9 @@ public class Play extends GameState
 	/* Player Points */
 	private HashMap<Player, Integer> playerPoints;
 	
+	/* Number of turns passed in a row */
+	private int consecutivePasses;
+	
 	/* Instance of game Board */
 	private Board board;
 	
@@ -121,12 +138,37 @@ public class Play extends GameState
 	/* Font to alert about passes */
 	private TrueTypeFont passFont;
 	
+	/* The game's random generator, all the game's randomness is split from it */
+	private SplittableRandom random;
+	
+	/* Record of the game and the board's letters when it was last recorded */
+	private GameRecord record;
+	private char[] recordedLetters;
+	
 	public Play(GameStateManager gsm, UserProfile userProfile)
+	{
+		this(gsm, userProfile, new SplittableRandom().nextLong());
+	}
+	
+	/**
+	 * 
+	 * @param seed Seed of the game's random generator, the same
+	 * seed drawing the same tiles and making the AI choose alike
+	 */
+	public Play(GameStateManager gsm, UserProfile userProfile, long seed)
 	{
 		super(gsm);
 		
 		this.currentUserProfile = userProfile;
 		
+		random = new SplittableRandom(seed);
+		record = new GameRecord(seed);
+		
+		if(AI_DEBUG)
+		{
+			System.out.println("Game seed: " + seed);
+		}
+		
 		activePlayer = 0;
         
 		initCoreEntities();
@@ -140,12 +182,18 @@ public class Play extends GameState
 	{
 	    scrabbleDict = new ScrabbleDictionary();
         board = new Board(gsm, currentUserProfile.getLastBackgroundUsed());
-        letterBag = new LetterBag(gsm);
+        letterBag = new LetterBag(gsm, GameRecord.getBagRandom(random), record);
+        recordedLetters = board.getState().getLetters();
         
         players = new ArrayList<Player>();
         players.add(new Player(gsm, this, board, scrabbleDict, letterBag, true, currentUserProfile.getName()));
         players.get(activePlayer).setActive(true);
         players.add(new Player(gsm, this, board, scrabbleDict, letterBag, false));
+        
+        for(Player player : players)
+        {
+            record.recordPlayer(player.getZobristIndex(), player.isHuman() ? null : player.getMoveSelectorAI());
+        }
 
         gameObjects = new ArrayList<GameObject>();
         gameObjects.add(board);
@@ -195,6 +243,7 @@ public class Play extends GameState
 		if(KeyboardManager.isKeyPressed(KeyboardManager.K_ESCAPE))
 		{
 		    pauseMenu.setActive(true);
+		    cancelAIPlanning();
 		}
 		
 		if(MouseManager.isButtonPressed(MouseManager.MIDDLE_BUTTON))
@@ -224,6 +273,7 @@ public class Play extends GameState
 	        
 	        if(pauseMenu.getMainMenuRequest())
 	        {
+	        	cancelAIPlanning();
 	        	finished = true;
 	        	currentUserProfile.addTimePlayed(timeAccum);
 	        	timeAccum = 0;
@@ -317,6 +367,22 @@ public class Play extends GameState
 	    return currentUserProfile;
 	}
 	
+	/**
+	 * Cancels the background move planning
+	 * of every AI player (planning restarts when
+	 * the game is updated again)
+	 */
+	private void cancelAIPlanning()
+	{
+	    for(Player player : players)
+	    {
+	        if(!player.isHuman())
+	        {
+	            player.cancelAIPlanning();
+	        }
+	    }
+	}
+	
 	@Override
 	public boolean isPaused()
 	{
@@ -340,12 +406,21 @@ public class Play extends GameState
 		    }
 		    
 			playerPassTime.replace(getActivePlayer(), 1.0f);
+			consecutivePasses++;
 		}
+		else
+		{
+			consecutivePasses = 0;
+		}
+		
+		Player mover = getActivePlayer();
+		int points = mover.getCurrentPoints();
 		
-	    scoreDisplay.addPoints(getActivePlayer().getCurrentPoints(), getActivePlayer());
-	    getActivePlayer().makeMove();
+	    addPoints(mover, points);
+	    recordMove(mover, passed, points);
+	    mover.makeMove();
 	    endOfPlayersTurn();
-	    checkForGameOver();
+	    checkForGameOver(mover);
 	}
 	
 	public boolean isFirstRound()
@@ -353,6 +428,86 @@ public class Play extends GameState
 	    return board.isFirstRound();
 	}
 	
+	/**
+	 * 
+	 * @return A generator split from the game's, for
+	 * the random choices of a part of the game
+	 */
+	public SplittableRandom splitRandom()
+	{
+	    return random.split();
+	}
+	
+	/**
+	 * 
+	 * @param mover The player finishing their turn
+	 * @param passed Whether the mover passed
+	 * @param points The points the move scored
+	 * Records the move, its tiles being the letters
+	 * on the board since the last move recorded
+	 */
+	private void recordMove(Player mover, boolean passed, int points)
+	{
+	    char[] letters = board.getState().getLetters();
+	    int placed = 0;
+	    
+	    for(int square = 0; square < letters.length; square++)
+	    {
+	        if(letters[square] != recordedLetters[square])
+	        {
+	            placed++;
+	        }
+	    }
+	    
+	    if(passed || placed == 0)
+	    {
+	        record.recordPass(mover.getZobristIndex());
+	        return;
+	    }
+	    
+	    int[] squares = new int[placed];
+	    char[] placedLetters = new char[placed];
+	    placed = 0;
+	    
+	    for(int square = 0; square < letters.length; square++)
+	    {
+	        if(letters[square] != recordedLetters[square])
+	        {
+	            squares[placed] = square;
+	            placedLetters[placed++] = letters[square];
+	        }
+	    }
+	    
+	    record.recordMove(mover.getZobristIndex(), points, squares, placedLetters);
+	    recordedLetters = letters;
+	}
+	
+	/**
+	 * Saves the record of the finished game
+	 * to the games directory, named by its seed
+	 */
+	private void saveRecord()
+	{
+	    File gamesDirectory = new File(GAMES_DIR);
+	    
+	    if(!gamesDirectory.isDirectory())
+	    {
+	        gamesDirectory.mkdirs();
+	    }
+	    
+	    File recordFile = new File(gamesDirectory, record.getSeed() + GameRecord.EXTENSION);
+	    
+	    try
+	    {
+	        record.write(recordFile);
+	    }
+	    catch (IOException e)
+	    {
+	        System.err.println("Failed to save the game record: " + recordFile.getAbsolutePath());
+	        e.printStackTrace();
+	    }
+	}
+	
 	/**
 	 * Ends the active player's turn
 	 * and moves on to the next one.
@@ -385,15 +540,30 @@ public class Play extends GameState
 	    }
 	}
 	
-	private void checkForGameOver()
+	/**
+	 * 
+	 * @param mover The player who just finished their turn
+	 * <br>
+	 * Once the letter bag has run out the game ends when the
+	 * mover has used up their rack or every player has passed
+	 * in a row. Each player then loses the value of the tiles
+	 * left on their rack, and a player going out gains the
+	 * value of everyone else's.
+	 */
+	private void checkForGameOver(Player mover)
 	{
-	    if(letterBag.hasRunOut())
+	    boolean wentOut = mover.getNoTiles() == 0;
+	    
+	    if(letterBag.hasRunOut() && (wentOut || consecutivePasses >= players.size()))
 	    {
+	        applyRackPenalties(wentOut ? mover : null);
+	        saveRecord();
+	        
 	    	for(Entry<Player, Integer> entry : playerPoints.entrySet())
 	    	{
 	    		if(entry.getKey().isHuman())
 	    		{
-	    			currentUserProfile.addTokens(entry.getValue());
+	    			currentUserProfile.addTokens(Math.max(0, entry.getValue()));
 	    		}
 	    	}
 	        finished = true;
@@ -402,6 +572,47 @@ public class Play extends GameState
 	    }
 	}
 	
+	/**
+	 * 
+	 * @param wentOut The player who used up their rack (null if none)
+	 */
+	private void applyRackPenalties(Player wentOut)
+	{
+	    int penaltiesTotal = 0;
+	    
+	    for(Player player : players)
+	    {
+	        int penalty = 0;
+	        
+	        for(LetterTile letterTile : player.getTileRack().getLetterTiles())
+	        {
+	            penalty += letterTile.getPoints();
+	        }
+	        
+	        addPoints(player, -penalty);
+	        record.recordAdjustment(player.getZobristIndex(), -penalty);
+	        penaltiesTotal += penalty;
+	    }
+	    
+	    if(wentOut != null)
+	    {
+	        addPoints(wentOut, penaltiesTotal);
+	        record.recordAdjustment(wentOut.getZobristIndex(), penaltiesTotal);
+	    }
+	}
+	
+	/**
+	 * 
+	 * @param player The player scoring
+	 * @param points Points won (negative for a penalty)
+	 * Adds the points to the player's score and to the score display
+	 */
+	private void addPoints(Player player, int points)
+	{
+	    playerPoints.put(player, playerPoints.get(player) + points);
+	    scoreDisplay.addPoints(points, player);
+	}
+	
 	/**
 	 * 
 	 * @return the currently
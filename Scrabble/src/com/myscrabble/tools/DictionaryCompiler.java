@@ -0,0 +1,63 @@
+package com.myscrabble.tools;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.myscrabble.managers.ResourceManager;
+import com.myscrabble.util.DictionaryImage;
+import com.myscrabble.util.Gaddag;
+import com.myscrabble.util.ScrabbleDictionary;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Offline tool compiling the text dictionaries
+ * (dictionary.dict, common.dict) into the binary
+ * dictionary and GADDAG images that the game maps
+ * at runtime. Needs to be re-run (from the project
+ * directory) whenever the text dictionaries change.
+ * <br>
+ * Usage: DictionaryCompiler [dictionary output file] [GADDAG output file]
+ */
+public class DictionaryCompiler
+{
+	public static void main(String[] args)
+	{
+		File output = args.length > 0 ? new File(args[0]) :
+							ResourceManager.getResourceFile(ScrabbleDictionary.IMAGE_DIR);
+		File gaddagOutput = args.length > 1 ? new File(args[1]) :
+							ResourceManager.getResourceFile(ScrabbleDictionary.GADDAG_DIR);
+
+		long start = System.nanoTime();
+		DictionaryImage image = ScrabbleDictionary.compile();
+
+		try
+		{
+			image.write(output);
+
+			/* Make sure what was written can be mapped back */
+			DictionaryImage written = DictionaryImage.open(output);
+
+			System.out.println("Compiled " + written.getDawg().size() + " words (" +
+							   written.getDawg().getEdgeCount() + " edges, " + output.length() +
+							   " bytes) to " + output.getPath() + " in " +
+							   (System.nanoTime() - start) / 1000000 + " ms");
+			
+			start = System.nanoTime();
+			Gaddag.fromDawg(written.getDawg()).write(gaddagOutput);
+			Gaddag gaddag = Gaddag.open(gaddagOutput);
+			
+			System.out.println("Compiled GADDAG of " + gaddag.getGraph().size() + " sequences (" +
+							   gaddag.getGraph().getEdgeCount() + " edges, " + gaddagOutput.length() +
+							   " bytes) to " + gaddagOutput.getPath() + " in " +
+							   (System.nanoTime() - start) / 1000000 + " ms");
+		}
+		catch (IOException e)
+		{
+			System.err.println("Failed to compile dictionary images: " + output.getAbsolutePath());
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+}
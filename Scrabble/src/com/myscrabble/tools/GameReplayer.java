@@ -0,0 +1,114 @@
+package com.myscrabble.tools;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.myscrabble.managers.ResourceManager;
+import com.myscrabble.util.GameRecord;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Offline tool replaying saved game records headlessly. Every
+ * record in the directory is replayed and checked against its
+ * events (the tiles drawn from the seeded bag, the placements'
+ * validity and scores, the end of game penalties and the moves of
+ * the AI players whose selections are reproducible, selected again);
+ * a record that diverges is reported and makes the tool exit with
+ * status 1. The rules-only replays are then timed over the whole
+ * corpus, so the records double as a regression corpus for the AI
+ * and a performance corpus for the bag, the placement validation
+ * and the scoring.
+ * <br>
+ * Usage: GameReplayer [records directory] [rounds]
+ */
+public class GameReplayer
+{
+	private static final String DEFAULT_DIR = ResourceManager.SAV_DIR + "/games";
+
+	public static void main(String[] args)
+	{
+		File directory = new File(args.length > 0 ? args[0] : DEFAULT_DIR);
+		int rounds     = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		File[] files = directory.listFiles(new FilenameFilter()
+		{
+			@Override
+			public boolean accept(File dir, String name)
+			{
+				return name.endsWith(GameRecord.EXTENSION);
+			}
+		});
+
+		if(files == null || files.length == 0)
+		{
+			System.err.println("No game records found in " + directory.getAbsolutePath());
+			System.exit(1);
+		}
+
+		Arrays.sort(files);
+
+		ArrayList<GameRecord> records = new ArrayList<>();
+		long events = 0;
+		int failures = 0;
+
+		for(File file : files)
+		{
+			GameRecord record;
+
+			try
+			{
+				record = GameRecord.read(file);
+			}
+			catch (IOException e)
+			{
+				System.err.println("Failed to read game record: " + file.getPath());
+				e.printStackTrace();
+				failures++;
+				continue;
+			}
+
+			if(record.replay() == null)
+			{
+				System.err.println("Game record diverges: " + file.getPath());
+				failures++;
+				continue;
+			}
+
+			records.add(record);
+			events += record.getEventCount();
+		}
+
+		System.out.println("Replayed " + files.length + " game records (" + events + " events): " +
+						   (failures == 0 ? "all agree" : failures + " failed"));
+
+		if(failures > 0)
+		{
+			System.exit(1);
+		}
+
+		for(int round = 0; round < rounds; round++)
+		{
+			long start = System.nanoTime();
+			long checksum = 0;
+
+			for(GameRecord record : records)
+			{
+				for(int score : record.replay(null, false))
+				{
+					checksum = checksum * 31 + score;
+				}
+			}
+
+			double seconds = (System.nanoTime() - start) / 1e9;
+
+			System.out.println("Round " + (round + 1) + ": " + String.format("%.0f", records.size() / seconds) +
+							   " games/s, " + String.format("%.0f", events / seconds / 1000) +
+							   "k events/s (checksum " + checksum + ")");
+		}
+	}
+}
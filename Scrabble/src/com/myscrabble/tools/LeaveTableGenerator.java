@@ -0,0 +1,320 @@
+package com.myscrabble.tools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import com.myscrabble.ai.Move;
+import com.myscrabble.ai.MoveGenerator;
+import com.myscrabble.entities.TileRack;
+import com.myscrabble.managers.ResourceManager;
+import com.myscrabble.util.LeaveTable;
+import com.myscrabble.util.ScrabbleDictionary;
+import com.myscrabble.util.ScrabbleUtils;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Offline tool regenerating the rack-leave table (see LeaveTable)
+ * from self-play. The record step plays seeded two-player games in
+ * which both sides play their top ranked move (valued with the current
+ * table) and logs, for every move made while tiles were left to draw,
+ * the leave kept and the points its owner scored on their next turn.
+ * The build step turns a log into a table: a leave's value is the mean
+ * of its next-turn points minus the mean over all leaves, shrunk towards
+ * the heuristic estimate (LeaveTable.estimate()) by a prior weight given
+ * in samples, so that rarely seen leaves stay close to the estimate.
+ * <br>
+ * Usage: LeaveTableGenerator record [games] [seed] [log file]
+ * <br>
+ * Usage: LeaveTableGenerator build [log file] [table output file] [prior weight]
+ */
+public class LeaveTableGenerator
+{
+	private static final int MAX_TURNS = 60;
+
+	/* Passes in a row ending a self-play game */
+	private static final int MAX_PASSES = 2;
+
+	/* Written in the log for an empty leave */
+	private static final String EMPTY_LEAVE = "-";
+
+	public static void main(String[] args)
+	{
+		String mode = args.length > 0 ? args[0] : "record";
+
+		try
+		{
+			if(mode.equals("record"))
+			{
+				int games = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+				long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+				File log  = new File(args.length > 3 ? args[3] : "leaves.log");
+
+				record(games, seed, log);
+			}
+			else if(mode.equals("build"))
+			{
+				File log    = new File(args.length > 1 ? args[1] : "leaves.log");
+				File output = args.length > 2 ? new File(args[2]) :
+										ResourceManager.getResourceFile(LeaveTable.TABLE_DIR);
+				float priorWeight = args.length > 3 ? Float.parseFloat(args[3]) : 20f;
+
+				build(log, output, priorWeight);
+			}
+			else
+			{
+				System.err.println("Unknown mode " + mode + " (expected record or build)");
+				System.exit(1);
+			}
+		}
+		catch (IOException e)
+		{
+			System.err.println("Failed to regenerate the leave table");
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Plays the self-play games and writes
+	 * one "leave points" line per logged move
+	 */
+	private static void record(int games, long seed, File log) throws IOException
+	{
+		long start = System.nanoTime();
+
+		MoveGenerator generator = new MoveGenerator(new ScrabbleDictionary().getDawg());
+		generator.setLeaveTable(LeaveTable.getShared());
+
+		Random random = new Random(seed);
+		int lines = 0;
+
+		try(BufferedWriter writer = Files.newBufferedWriter(log.toPath(), StandardCharsets.UTF_8))
+		{
+			for(int game = 0; game < games; game++)
+			{
+				lines += playGame(generator, random, writer);
+			}
+		}
+
+		System.out.println("Recorded " + lines + " leaves from " + games + " games to " + log.getPath() +
+						   " in " + (System.nanoTime() - start) / 1000000 + " ms");
+	}
+
+	/**
+	 *
+	 * @return The number of lines logged for the game
+	 */
+	private static int playGame(MoveGenerator generator, Random random, BufferedWriter writer) throws IOException
+	{
+		ArrayList<Character> bag = new ArrayList<>();
+
+		for(char letter = 'A'; letter <= 'Z'; letter++)
+		{
+			for(int i = 0; i < ScrabbleUtils.getNumberOf(letter); i++)
+			{
+				bag.add(letter);
+			}
+		}
+
+		Collections.shuffle(bag, random);
+
+		char[] board = new char[MoveGenerator.SQUARES];
+		int[][] racks = new int[2][LeaveTable.LETTERS];
+
+		/* Leave of each player awaiting its next-turn points (null if none) */
+		String[] pendingLeaves = new String[2];
+
+		int lines = 0;
+		int passes = 0;
+
+		for(int player = 0; player < 2; player++)
+		{
+			draw(bag, racks[player], TileRack.MAX_NO_TILES);
+		}
+
+		for(int turn = 0; turn < MAX_TURNS && passes < MAX_PASSES; turn++)
+		{
+			int player = turn % 2;
+			int[] rack = racks[player];
+
+			ArrayList<Move> moves = generator.generate(board, rack);
+			int points = moves.isEmpty() ? 0 : moves.get(0).getScore();
+
+			if(pendingLeaves[player] != null)
+			{
+				writer.write(pendingLeaves[player] + " " + points);
+				writer.newLine();
+				pendingLeaves[player] = null;
+				lines++;
+			}
+
+			if(moves.isEmpty())
+			{
+				passes++;
+				continue;
+			}
+
+			passes = 0;
+
+			Move move = moves.get(0);
+			move.placeOn(board);
+
+			String placed = move.getPlacedLetters();
+
+			for(int i = 0; i < placed.length(); i++)
+			{
+				rack[placed.charAt(i) - 'A']--;
+			}
+
+			/* Leaves only matter while there are tiles to draw */
+			if(!bag.isEmpty())
+			{
+				pendingLeaves[player] = toLeave(rack);
+			}
+
+			draw(bag, rack, placed.length());
+
+			if(bag.isEmpty() && isEmpty(rack))
+			{
+				break;
+			}
+		}
+
+		return lines;
+	}
+
+	/**
+	 * Reads a log and writes the table estimated from it
+	 */
+	private static void build(File log, File output, float priorWeight) throws IOException
+	{
+		long start = System.nanoTime();
+
+		final double[] sums = new double[LeaveTable.ENTRIES];
+		final int[] samples = new int[LeaveTable.ENTRIES];
+
+		double total = 0;
+		long count = 0;
+
+		try(BufferedReader reader = Files.newBufferedReader(log.toPath(), StandardCharsets.UTF_8))
+		{
+			String line;
+
+			while((line = reader.readLine()) != null)
+			{
+				line = line.trim();
+
+				if(line.isEmpty())
+				{
+					continue;
+				}
+
+				String[] fields = line.split(" ");
+				int rank = LeaveTable.rank(fromLeave(fields[0]));
+				int points = Integer.parseInt(fields[1]);
+
+				if(rank < 0)
+				{
+					continue;
+				}
+
+				sums[rank] += points;
+				samples[rank]++;
+				total += points;
+				count++;
+			}
+		}
+
+		if(count == 0)
+		{
+			throw new IOException("No leaves logged in " + log.getPath());
+		}
+
+		final double mean = total / count;
+		final float weight = priorWeight;
+		final float[] values = new float[LeaveTable.ENTRIES];
+
+		LeaveTable.forEachLeave(new LeaveTable.LeaveVisitor()
+		{
+			@Override
+			public void visit(int[] counts, int rank)
+			{
+				double observed = sums[rank] - samples[rank] * mean;
+				values[rank] = (float)((observed + weight * LeaveTable.estimate(counts)) / (samples[rank] + weight));
+			}
+		});
+
+		new LeaveTable(values).write(output);
+
+		/* Make sure what was written can be mapped back */
+		LeaveTable.open(output);
+
+		System.out.println("Built " + LeaveTable.ENTRIES + " leave values from " + count + " samples (mean " +
+						   String.format("%.2f", mean) + " points) to " + output.getPath() + " in " +
+						   (System.nanoTime() - start) / 1000000 + " ms");
+	}
+
+	private static void draw(ArrayList<Character> bag, int[] rack, int amount)
+	{
+		for(int i = 0; i < amount && !bag.isEmpty(); i++)
+		{
+			rack[bag.remove(bag.size() - 1) - 'A']++;
+		}
+	}
+
+	private static boolean isEmpty(int[] rack)
+	{
+		for(int count : rack)
+		{
+			if(count > 0)
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 *
+	 * @return The rack's letters in alphabetical order
+	 */
+	private static String toLeave(int[] rack)
+	{
+		StringBuilder result = new StringBuilder();
+
+		for(int symbol = 0; symbol < rack.length; symbol++)
+		{
+			for(int i = 0; i < rack[symbol]; i++)
+			{
+				result.append((char)('A' + symbol));
+			}
+		}
+
+		return result.length() == 0 ? EMPTY_LEAVE : result.toString();
+	}
+
+	private static int[] fromLeave(String leave)
+	{
+		int[] counts = new int[LeaveTable.LETTERS];
+
+		if(!leave.equals(EMPTY_LEAVE))
+		{
+			for(int i = 0; i < leave.length(); i++)
+			{
+				counts[leave.charAt(i) - 'A']++;
+			}
+		}
+
+		return counts;
+	}
+}
@@ -0,0 +1,147 @@
+package com.myscrabble.tools;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import com.myscrabble.ai.GaddagMoveGenerator;
+import com.myscrabble.ai.Move;
+import com.myscrabble.ai.MoveGenerator;
+import com.myscrabble.ai.ParallelMoveSearch;
+import com.myscrabble.entities.TileRack;
+import com.myscrabble.util.AnagramIndex;
+import com.myscrabble.util.ScrabbleDictionary;
+import com.myscrabble.util.ScrabbleUtils;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Offline tool comparing DAWG-based and GADDAG-based move
+ * generation, sequentially and fanned out over the common
+ * ForkJoinPool. Board positions are recorded from greedy self-play
+ * games (seeded, so the positions are the same on every run); all
+ * searches are checked to produce identical rankings on every
+ * position and are then timed over the whole set.
+ * <br>
+ * Usage: MoveGeneratorBenchmark [games] [rounds] [seed]
+ */
+public class MoveGeneratorBenchmark
+{
+	private static final int MAX_TURNS = 30;
+
+	public static void main(String[] args)
+	{
+		int games  = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		long seed  = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+
+		ScrabbleDictionary dictionary = new ScrabbleDictionary();
+		MoveGenerator dawgGenerator = new MoveGenerator(dictionary.getDawg());
+		MoveGenerator gaddagGenerator = new GaddagMoveGenerator(dictionary.getDawg(), ScrabbleDictionary.getGaddag());
+
+		ParallelMoveSearch parallelSearch = new ParallelMoveSearch(new MoveGenerator(dictionary.getDawg()));
+
+		ArrayList<char[]> boards = new ArrayList<>();
+		ArrayList<int[]> racks = new ArrayList<>();
+		recordPositions(dawgGenerator, games, new Random(seed), boards, racks);
+
+		for(int i = 0; i < boards.size(); i++)
+		{
+			ArrayList<Move> expected = dawgGenerator.generate(boards.get(i), racks.get(i));
+
+			if(!expected.equals(gaddagGenerator.generate(boards.get(i), racks.get(i))) ||
+			   !expected.equals(parallelSearch.search(boards.get(i), racks.get(i), ParallelMoveSearch.ALL_MOVES)))
+			{
+				System.err.println("Generators disagree on position " + i);
+				System.exit(1);
+			}
+		}
+
+		System.out.println("Recorded " + boards.size() + " positions from " + games + " games, " +
+						   ForkJoinPool.commonPool().getParallelism() + " worker threads");
+
+		for(int round = 0; round < rounds; round++)
+		{
+			long dawgTime = time(dawgGenerator, boards, racks);
+			long gaddagTime = time(gaddagGenerator, boards, racks);
+			long parallelTime = time(parallelSearch, boards, racks);
+
+			System.out.println("Round " + (round + 1) + ": DAWG " + dawgTime / 1000 / boards.size() +
+							   " us/position, GADDAG " + gaddagTime / 1000 / boards.size() +
+							   " us/position (" + String.format("%.2f", (double)dawgTime / gaddagTime) + "x), " +
+							   "parallel DAWG " + parallelTime / 1000 / boards.size() + " us/position (" +
+							   String.format("%.2f", (double)dawgTime / parallelTime) + "x)");
+		}
+	}
+
+	private static long time(MoveGenerator generator, ArrayList<char[]> boards, ArrayList<int[]> racks)
+	{
+		long start = System.nanoTime();
+
+		for(int i = 0; i < boards.size(); i++)
+		{
+			generator.generate(boards.get(i), racks.get(i));
+		}
+
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Plays greedy games (always the top ranked move) with racks
+	 * drawn from a full bag distribution, recording the board and
+	 * rack before every turn.
+	 */
+	private static long time(ParallelMoveSearch search, ArrayList<char[]> boards, ArrayList<int[]> racks)
+	{
+		long start = System.nanoTime();
+
+		for(int i = 0; i < boards.size(); i++)
+		{
+			search.search(boards.get(i), racks.get(i), 1);
+		}
+
+		return System.nanoTime() - start;
+	}
+
+	private static void recordPositions(MoveGenerator generator, int games, Random random,
+										ArrayList<char[]> boards, ArrayList<int[]> racks)
+	{
+		StringBuilder bag = new StringBuilder();
+
+		for(char letter = 'A'; letter <= 'Z'; letter++)
+		{
+			for(int i = 0; i < ScrabbleUtils.getNumberOf(letter); i++)
+			{
+				bag.append(letter);
+			}
+		}
+
+		for(int game = 0; game < games; game++)
+		{
+			char[] board = new char[MoveGenerator.SQUARES];
+
+			for(int turn = 0; turn < MAX_TURNS; turn++)
+			{
+				int[] rack = new int[AnagramIndex.ALPHABET_SIZE];
+
+				for(int i = 0; i < TileRack.MAX_NO_TILES; i++)
+				{
+					rack[bag.charAt(random.nextInt(bag.length())) - 'A']++;
+				}
+
+				boards.add(board.clone());
+				racks.add(rack);
+
+				ArrayList<Move> moves = generator.generate(board, rack);
+
+				if(moves.isEmpty())
+				{
+					break;
+				}
+
+				moves.get(0).placeOn(board);
+			}
+		}
+	}
+}
@@ -0,0 +1,452 @@
+package com.myscrabble.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.myscrabble.ai.AIController.AILevel;
+import com.myscrabble.ai.AIController.MoveGeneration;
+import com.myscrabble.ai.AnytimeSearch;
+import com.myscrabble.ai.EndgameSolver;
+import com.myscrabble.ai.Move;
+import com.myscrabble.ai.MoveGenerator;
+import com.myscrabble.ai.MoveSelector;
+import com.myscrabble.ai.UnseenTiles;
+import com.myscrabble.entities.BagState;
+import com.myscrabble.entities.BoardState;
+import com.myscrabble.entities.TileRack;
+import com.myscrabble.util.GameRecord;
+import com.myscrabble.util.ScrabbleDictionary;
+import com.myscrabble.util.ScrabbleUtils;
+import com.myscrabble.util.Zobrist;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Offline tool playing AI levels against each other headlessly: no
+ * display, textures or sound, the moves being chosen by the same
+ * MoveSelector an AIController uses in the game. Every pair of the
+ * levels given plays the requested number of games, taking turns to
+ * move first, and the games run concurrently on a thread pool. The
+ * games follow the rules of Play (racks refilled at the start of a
+ * turn, the game ending once the bag is empty and a player goes out
+ * or everyone passes in a row, rack penalties at the end) and are
+ * seeded, so a game is replayed from its seed. The win rates, average
+ * scores and turn time percentiles of each level are reported along
+ * with the games played per second. Records of the games can be saved
+ * for GameReplayer. A HARD budget counted in nodes rather than time
+ * makes HARD's moves reproducible too, so GameReplayer checks them.
+ * <br>
+ * Usage: Tournament [levels, e.g. ROOKIE,HARD] [games per pairing] [threads] [seed]
+ * [HARD budget per move (simulation or endgame): a time in ms, or a node count
+ * with an n suffix (e.g. 20000n), -1 for the level's] [records directory]
+ */
+public class Tournament
+{
+	/* Turns after which a game that has not ended is abandoned as drawn */
+	private static final int MAX_TURNS = 200;
+
+	/* Passes in a row ending a game once the bag is empty */
+	private static final int MAX_PASSES = Zobrist.PLAYERS;
+
+	public static void main(String[] args) throws InterruptedException
+	{
+		AILevel[] levels = args.length > 0 ? parseLevels(args[0]) : AILevel.values();
+		int gamesPerPairing = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		int threads         = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		long seed           = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+		String moveBudget   = args.length > 4 ? args[4] : "-1";
+		File recordsDir     = args.length > 5 ? new File(args[5]) : null;
+
+		if(recordsDir != null && !recordsDir.isDirectory())
+		{
+			recordsDir.mkdirs();
+		}
+
+		ScrabbleDictionary dictionary = new ScrabbleDictionary();
+		SplittableRandom seeds = new SplittableRandom(seed);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		ArrayList<Future<Game>> games = new ArrayList<>();
+
+		for(int a = 0; a < levels.length; a++)
+		{
+			for(int b = a + 1; b < levels.length; b++)
+			{
+				for(int i = 0; i < gamesPerPairing; i++)
+				{
+					AILevel first  = i % 2 == 0 ? levels[a] : levels[b];
+					AILevel second = i % 2 == 0 ? levels[b] : levels[a];
+
+					games.add(pool.submit(new Game(dictionary, first, second, seeds.nextLong(), moveBudget, recordsDir)));
+				}
+			}
+		}
+
+		System.out.println("Playing " + games.size() + " games on " + threads + " threads");
+
+		long start = System.nanoTime();
+		Standings standings = new Standings(levels);
+
+		for(Future<Game> game : games)
+		{
+			try
+			{
+				standings.add(game.get());
+			}
+			catch (ExecutionException e)
+			{
+				System.err.println("A game failed");
+				e.getCause().printStackTrace();
+			}
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		pool.shutdown();
+
+		standings.print();
+		System.out.println(String.format("%d games in %.1f s: %.2f games/s", standings.games, seconds,
+										 standings.games / seconds));
+	}
+
+	private static AILevel[] parseLevels(String names)
+	{
+		String[] split = names.split(",");
+		AILevel[] levels = new AILevel[split.length];
+
+		for(int i = 0; i < split.length; i++)
+		{
+			levels[i] = AILevel.valueOf(split[i].trim().toUpperCase());
+		}
+
+		return levels;
+	}
+
+	/**
+	 * A headless game between two levels, played when called
+	 */
+	private static class Game implements Callable<Game>
+	{
+		private ScrabbleDictionary dictionary;
+		private long seed;
+		private String moveBudget;
+		private File recordsDir;
+
+		/* Per player (the first to move is player 0) */
+		AILevel[] levels;
+		int[] scores;
+		ArrayList<ArrayList<Long>> turnTimes;
+
+		Game(ScrabbleDictionary dictionary, AILevel first, AILevel second, long seed, String moveBudget, File recordsDir)
+		{
+			this.dictionary = dictionary;
+			this.seed = seed;
+			this.moveBudget = moveBudget;
+			this.recordsDir = recordsDir;
+
+			levels = new AILevel[] { first, second };
+			scores = new int[Zobrist.PLAYERS];
+			turnTimes = new ArrayList<>();
+		}
+
+		@Override
+		public Game call() throws IOException
+		{
+			/* Split like Play does: the bag first, then the players in order */
+			SplittableRandom random = new SplittableRandom(seed);
+			GameRecord record = new GameRecord(seed);
+			SplittableRandom bagRandom = GameRecord.getBagRandom(random);
+
+			MoveSelector[] selectors = new MoveSelector[Zobrist.PLAYERS];
+			UnseenTiles[] unseen = new UnseenTiles[Zobrist.PLAYERS];
+			int[][] racks = new int[Zobrist.PLAYERS][BagState.LETTERS];
+			int[] rackSizes = new int[Zobrist.PLAYERS];
+
+			for(int player = 0; player < Zobrist.PLAYERS; player++)
+			{
+				selectors[player] = new MoveSelector(levels[player], MoveGeneration.DAWG, dictionary, random.split());
+
+				if(levels[player] == AILevel.HARD)
+				{
+					setBudget(selectors[player]);
+				}
+
+				record.recordPlayer(player, selectors[player]);
+
+				unseen[player] = new UnseenTiles();
+				turnTimes.add(new ArrayList<Long>());
+			}
+
+			BagState bag = new BagState();
+			char[] board = new char[MoveGenerator.SQUARES];
+
+			for(int player = 0; player < Zobrist.PLAYERS; player++)
+			{
+				refill(bag, bagRandom, record, unseen[player], racks[player], rackSizes, player);
+			}
+
+			int mover = 0;
+			int passes = 0;
+
+			for(int turn = 0; turn < MAX_TURNS; turn++)
+			{
+				refill(bag, bagRandom, record, unseen[mover], racks[mover], rackSizes, mover);
+
+				long start = System.nanoTime();
+				Move move = selectors[mover].selectMove(board.clone(), racks[mover].clone(), bag.isEmpty(),
+														unseen[mover].copy());
+				turnTimes.get(mover).add(System.nanoTime() - start);
+
+				String placed = move == null ? "" : move.getPlacedLetters();
+
+				if(move == null)
+				{
+					record.recordPass(mover);
+					passes++;
+				}
+				else
+				{
+					play(move, board, racks[mover], record, mover);
+					rackSizes[mover] -= placed.length();
+					scores[mover] += move.getScore();
+					passes = 0;
+				}
+
+				unseen[1 - mover].opponentMoved(placed);
+
+				if(bag.isEmpty() && (rackSizes[mover] == 0 || passes >= MAX_PASSES))
+				{
+					applyRackPenalties(racks, record, rackSizes[mover] == 0 ? mover : -1);
+					break;
+				}
+
+				mover = 1 - mover;
+			}
+
+			if(recordsDir != null)
+			{
+				record.write(new File(recordsDir, seed + GameRecord.EXTENSION));
+			}
+
+			return this;
+		}
+
+		/**
+		 *
+		 * @param selector A HARD selector given the budget per move
+		 * of the tournament (if any)
+		 */
+		private void setBudget(MoveSelector selector)
+		{
+			if(moveBudget.endsWith("n"))
+			{
+				long nodes = Long.parseLong(moveBudget.substring(0, moveBudget.length() - 1));
+				selector.setBudgets(AnytimeSearch.NO_TIME_LIMIT, nodes, AnytimeSearch.NO_TIME_LIMIT, nodes);
+				return;
+			}
+
+			long moveTime = Long.parseLong(moveBudget);
+
+			if(moveTime >= 0)
+			{
+				selector.setBudgets(moveTime, AILevel.HARD.nodeBudget, moveTime, EndgameSolver.NO_NODE_LIMIT);
+			}
+		}
+
+		/**
+		 * Draws the player's rack back up to a full rack
+		 */
+		private void refill(BagState bag, SplittableRandom bagRandom, GameRecord record, UnseenTiles unseen,
+							int[] rack, int[] rackSizes, int player)
+		{
+			while(rackSizes[player] < TileRack.MAX_NO_TILES && !bag.isEmpty())
+			{
+				char letter = bag.drawForRack(bagRandom);
+
+				record.recordDraw(player, letter);
+				unseen.tileSeen(letter);
+				rack[letter - 'A']++;
+				rackSizes[player]++;
+			}
+		}
+
+		private void play(Move move, char[] board, int[] rack, GameRecord record, int player)
+		{
+			int[] squares = new int[move.getTilesPlaced()];
+			char[] letters = new char[squares.length];
+			int count = 0;
+
+			for(int i = 0; i < move.getWord().length(); i++)
+			{
+				if(move.isPlaced(i))
+				{
+					squares[count] = move.getRow(i) * BoardState.SIZE + move.getCol(i);
+					letters[count] = move.getWord().charAt(i);
+					rack[letters[count++] - 'A']--;
+				}
+			}
+
+			move.placeOn(board);
+			record.recordMove(player, move.getScore(), squares, letters);
+		}
+
+		/**
+		 *
+		 * @param wentOut The player who used up their rack (-1 if none)
+		 */
+		private void applyRackPenalties(int[][] racks, GameRecord record, int wentOut)
+		{
+			int penaltiesTotal = 0;
+
+			for(int player = 0; player < Zobrist.PLAYERS; player++)
+			{
+				int penalty = 0;
+
+				for(int symbol = 0; symbol < BagState.LETTERS; symbol++)
+				{
+					penalty += racks[player][symbol] * ScrabbleUtils.getValueOf((char)('A' + symbol));
+				}
+
+				scores[player] -= penalty;
+				record.recordAdjustment(player, -penalty);
+				penaltiesTotal += penalty;
+			}
+
+			if(wentOut >= 0)
+			{
+				scores[wentOut] += penaltiesTotal;
+				record.recordAdjustment(wentOut, penaltiesTotal);
+			}
+		}
+	}
+
+	/**
+	 * Results of the games finished so far, per level
+	 */
+	private static class Standings
+	{
+		AILevel[] levels;
+		int games;
+
+		/* Per level; a drawn game is half a win for each side */
+		int[] played;
+		double[] wins;
+		long[] points;
+		ArrayList<ArrayList<Long>> turnTimes;
+
+		/* Wins of the row level against the column level */
+		double[][] headToHead;
+		int[][] meetings;
+
+		Standings(AILevel[] levels)
+		{
+			this.levels = levels;
+
+			played = new int[levels.length];
+			wins = new double[levels.length];
+			points = new long[levels.length];
+			turnTimes = new ArrayList<>();
+			headToHead = new double[levels.length][levels.length];
+			meetings = new int[levels.length][levels.length];
+
+			for(int i = 0; i < levels.length; i++)
+			{
+				turnTimes.add(new ArrayList<Long>());
+			}
+		}
+
+		void add(Game game)
+		{
+			games++;
+
+			int[] index = new int[Zobrist.PLAYERS];
+
+			for(int player = 0; player < Zobrist.PLAYERS; player++)
+			{
+				index[player] = Arrays.asList(levels).indexOf(game.levels[player]);
+			}
+
+			for(int player = 0; player < Zobrist.PLAYERS; player++)
+			{
+				int own = game.scores[player];
+				int other = game.scores[1 - player];
+				double result = own > other ? 1 : own == other ? 0.5 : 0;
+
+				played[index[player]]++;
+				wins[index[player]] += result;
+				points[index[player]] += own;
+				turnTimes.get(index[player]).addAll(game.turnTimes.get(player));
+				headToHead[index[player]][index[1 - player]] += result;
+				meetings[index[player]][index[1 - player]]++;
+			}
+		}
+
+		void print()
+		{
+			System.out.println(String.format("%-14s %6s %8s %9s %10s %10s %10s %10s", "Level", "Games", "Win %",
+											 "Avg score", "Turn p50", "Turn p90", "Turn p99", "Turn max"));
+
+			for(int i = 0; i < levels.length; i++)
+			{
+				long[] times = sorted(turnTimes.get(i));
+
+				System.out.println(String.format("%-14s %6d %7.1f%% %9.1f %8.1fms %8.1fms %8.1fms %8.1fms",
+												 levels[i], played[i], percent(wins[i], played[i]),
+												 played[i] == 0 ? 0.0 : (double)points[i] / played[i],
+												 percentile(times, 0.5), percentile(times, 0.9),
+												 percentile(times, 0.99), percentile(times, 1.0)));
+			}
+
+			for(int i = 0; i < levels.length; i++)
+			{
+				for(int j = i + 1; j < levels.length; j++)
+				{
+					System.out.println(String.format("%s vs %s: %.1f%% wins for %s over %d games", levels[i], levels[j],
+													 percent(headToHead[i][j], meetings[i][j]), levels[i],
+													 meetings[i][j]));
+				}
+			}
+		}
+
+		private static double percent(double wins, int games)
+		{
+			return games == 0 ? 0 : 100 * wins / games;
+		}
+
+		private static long[] sorted(ArrayList<Long> values)
+		{
+			long[] result = new long[values.size()];
+
+			for(int i = 0; i < result.length; i++)
+			{
+				result[i] = values.get(i);
+			}
+
+			Arrays.sort(result);
+			return result;
+		}
+
+		/**
+		 *
+		 * @return The percentile (nearest rank) of the sorted
+		 * times, in milliseconds
+		 */
+		private static double percentile(long[] times, double fraction)
+		{
+			if(times.length == 0)
+			{
+				return 0;
+			}
+
+			int rank = (int)Math.ceil(fraction * times.length) - 1;
+			return times[Math.max(0, rank)] / 1e6;
+		}
+	}
+}
@@ -92,7 +92,13 @@ public class ScoreDisplay
     			scoreToAdd -= SCORE_SPEED;
     			currentScore += SCORE_SPEED;
     		}
-    		
+    		else if(entry.getValue() <= -SCORE_SPEED)
+    		{
+    			/* End of game rack penalties */
+    			scoreToAdd += SCORE_SPEED;
+    			currentScore -= SCORE_SPEED;
+    		}
+
     		entry.setValue(scoreToAdd);
     		currentPoints.replace(entry.getKey(), currentScore);
     	}
@@ -139,6 +145,9 @@ public class ScoreDisplay
     {
         char[] result = new char[3];
         
+        /* There is no minus sign texture: a score the rack penalty took below zero shows as 0 */
+        score = Math.max(0, score);
+        
         if(score < 10)
         {
             result[0] = '0';
@@ -0,0 +1,244 @@
+package com.myscrabble.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * An index of the lexicon keyed by each word's sorted-letter
+ * signature (e.g. "STOP", "POTS" and "SPOT" all share "OPST").
+ * The signatures are kept in a trie whose edges are in
+ * ascending letter order, so every sub-multiset of a set of
+ * letters is enumerated with a single depth first walk that
+ * only follows letters still available. Words are stored as
+ * their indices in the Dawg, and the trie is held in
+ * primitive arrays.
+ */
+public class AnagramIndex
+{
+	public static final int ALPHABET_SIZE = 26;
+
+	private Dawg dawg;
+
+	/* Trie nodes: letter, first child and next sibling (-1 if none) */
+	private byte[] nodeLetter;
+	private int[] firstChild;
+	private int[] nextSibling;
+
+	/* Words with exactly a node's signature: wordIds[wordStart[n]..wordStart[n + 1]) */
+	private int[] wordStart;
+	private int[] wordIds;
+
+	private int nodeCount;
+
+	public AnagramIndex(Dawg dawg)
+	{
+		this.dawg = dawg;
+		build();
+	}
+
+	private void build()
+	{
+		int size = dawg.size();
+		String[] signatures = new String[size];
+		Integer[] order = new Integer[size];
+
+		int index = 0;
+
+		for(String word : dawg)
+		{
+			char[] letters = word.toCharArray();
+			Arrays.sort(letters);
+			signatures[index] = new String(letters);
+			order[index] = index;
+			index++;
+		}
+
+		final String[] keys = signatures;
+
+		/* Stable sort keeps anagrams in alphabetical order */
+		Arrays.sort(order, new Comparator<Integer>()
+		{
+			@Override
+			public int compare(Integer a, Integer b)
+			{
+				return keys[a].compareTo(keys[b]);
+			}
+		});
+
+		/* A trie over n signatures needs at most 1 + total letters nodes */
+		int capacity = 1;
+
+		for(String signature : signatures)
+		{
+			capacity += signature.length();
+		}
+
+		nodeLetter = new byte[capacity];
+		firstChild = new int[capacity];
+		nextSibling = new int[capacity];
+		int[] wordNode = new int[size];
+
+		Arrays.fill(firstChild, -1);
+		Arrays.fill(nextSibling, -1);
+
+		/* Path of nodes for the previously inserted signature */
+		int[] path = new int[64];
+		String previous = "";
+		nodeCount = 1;
+
+		for(int i = 0; i < size; i++)
+		{
+			String signature = signatures[order[i]];
+			int common = 0;
+
+			while(common < signature.length() && common < previous.length() &&
+				  signature.charAt(common) == previous.charAt(common))
+			{
+				common++;
+			}
+
+			int node = common == 0 ? 0 : path[common - 1];
+			int lastChild = -1;
+
+			if(common < signature.length() && firstChild[node] != -1)
+			{
+				/* Signatures are sorted so new children always go last */
+				lastChild = common < previous.length() ? path[common] : -1;
+			}
+
+			for(int depth = common; depth < signature.length(); depth++)
+			{
+				int child = nodeCount++;
+				nodeLetter[child] = (byte)(signature.charAt(depth) - 'A');
+
+				if(depth == common && lastChild != -1)
+				{
+					nextSibling[lastChild] = child;
+				}
+				else
+				{
+					firstChild[node] = child;
+				}
+
+				path[depth] = child;
+				node = child;
+			}
+
+			wordNode[i] = node;
+			previous = signature;
+		}
+
+		/* Group the word ids per node (counting sort on the node) */
+		wordStart = new int[nodeCount + 1];
+		wordIds = new int[size];
+
+		for(int i = 0; i < size; i++)
+		{
+			wordStart[wordNode[i] + 1]++;
+		}
+
+		for(int n = 0; n < nodeCount; n++)
+		{
+			wordStart[n + 1] += wordStart[n];
+		}
+
+		int[] fill = Arrays.copyOf(wordStart, nodeCount);
+
+		for(int i = 0; i < size; i++)
+		{
+			wordIds[fill[wordNode[i]]++] = order[i];
+		}
+	}
+
+	/**
+	 *
+	 * @param rackCounts Number of each letter (index 0 = 'A') available in the rack
+	 * @param extraCounts Number of each letter available outside the rack (e.g. on the board)
+	 * @param minExtra Minimum number of extra letters a word must use
+	 * @param maxExtra Maximum number of extra letters a word may use
+	 * @param result Receives the Dawg indices of every word that can be formed.
+	 * Rack letters are always used before extra letters of the same kind, so the
+	 * number of extra letters a word uses is the letters it needs beyond the rack.
+	 */
+	public void findWords(int[] rackCounts, int[] extraCounts, int minExtra, int maxExtra,
+						  Collection<Integer> result)
+	{
+		int[] rack = Arrays.copyOf(rackCounts, ALPHABET_SIZE);
+		int[] extra = Arrays.copyOf(extraCounts, ALPHABET_SIZE);
+
+		collect(0, rack, extra, 0, minExtra, maxExtra, result);
+	}
+
+	/**
+	 *
+	 * @param word The word whose anagram signature is requested
+	 * @return The letters of the word in ascending order
+	 */
+	public static String getSignature(String word)
+	{
+		char[] letters = word.toCharArray();
+		Arrays.sort(letters);
+		return new String(letters);
+	}
+
+	/**
+	 *
+	 * @param letters Letters to count (upper case)
+	 * @return The number of occurences of each letter (index 0 = 'A')
+	 */
+	public static int[] countLetters(CharSequence letters)
+	{
+		int[] counts = new int[ALPHABET_SIZE];
+
+		for(int i = 0; i < letters.length(); i++)
+		{
+			int symbol = letters.charAt(i) - 'A';
+
+			if(symbol >= 0 && symbol < ALPHABET_SIZE)
+			{
+				counts[symbol]++;
+			}
+		}
+
+		return counts;
+	}
+
+	public Dawg getDawg()
+	{
+		return dawg;
+	}
+
+	private void collect(int node, int[] rack, int[] extra, int extraUsed,
+						 int minExtra, int maxExtra, Collection<Integer> result)
+	{
+		if(extraUsed >= minExtra)
+		{
+			for(int i = wordStart[node]; i < wordStart[node + 1]; i++)
+			{
+				result.add(wordIds[i]);
+			}
+		}
+
+		for(int child = firstChild[node]; child != -1; child = nextSibling[child])
+		{
+			int letter = nodeLetter[child];
+
+			if(rack[letter] > 0)
+			{
+				rack[letter]--;
+				collect(child, rack, extra, extraUsed, minExtra, maxExtra, result);
+				rack[letter]++;
+			}
+			else if(extra[letter] > 0 && extraUsed < maxExtra)
+			{
+				extra[letter]--;
+				collect(child, rack, extra, extraUsed + 1, minExtra, maxExtra, result);
+				extra[letter]++;
+			}
+		}
+	}
+}
@@ -0,0 +1,465 @@
+package com.myscrabble.util;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * A minimized directed acyclic word graph (DAWG)
+ * holding the lexicon in a single primitive array of
+ * packed edges. A node is identified by the index of its
+ * first outgoing edge and all of a node's edges are stored
+ * contiguously, sorted by letter. Each packed edge holds:
+ * <br> bits 0-4  : the letter (0 = 'A')
+ * <br> bit  5    : whether this is the node's last edge
+ * <br> bit  6    : whether a word ends after taking this edge
+ * <br> bits 7-31 : the node the edge leads to (NONE if a leaf)
+ * <br>
+ * A parallel array stores the number of words reachable through
+ * each edge, which gives every word a unique index in [0, size())
+ * (its alphabetical rank) so per-word data can be kept in plain arrays.
+ * Both arrays are accessed through IntBuffers so that a graph can be
+ * backed either by the heap or by a memory-mapped dictionary image.
+ */
+public class Dawg implements Iterable<String>
+{
+	/* Node value for edges leading nowhere */
+	public static final int NONE = 0;
+
+	/* Edge value returned when a letter is not present in a node */
+	public static final int NO_EDGE = -1;
+
+	/* Packed edge layout */
+	static final int LETTER_MASK   = 0x1F;
+	static final int LAST_EDGE_BIT = 1 << 5;
+	static final int TERMINAL_BIT  = 1 << 6;
+	static final int TARGET_SHIFT  = 7;
+
+	/**
+	 *
+	 * @param words The words of the lexicon (any order, upper or lower case)
+	 * @return A minimized word graph of all the words consisting only
+	 * of the letters A-Z. Any other words are skipped.
+	 */
+	public static Dawg fromWords(List<String> words)
+	{
+		ArrayList<String> sorted = new ArrayList<>(words.size());
+
+		for(String word : words)
+		{
+			String upper = word.trim().toUpperCase();
+
+			if(upper.length() > 0 && isAlphabetic(upper))
+			{
+				sorted.add(upper);
+			}
+		}
+
+		Collections.sort(sorted);
+
+		DawgBuilder builder = new DawgBuilder();
+		String previous = null;
+
+		for(String word : sorted)
+		{
+			if(word.equals(previous))
+			{
+				continue;
+			}
+
+			int[] sequence = new int[word.length()];
+
+			for(int i = 0; i < sequence.length; i++)
+			{
+				sequence[i] = word.charAt(i) - 'A';
+			}
+
+			builder.add(sequence);
+			previous = word;
+		}
+
+		return builder.build();
+	}
+
+	private static boolean isAlphabetic(String word)
+	{
+		for(int i = 0; i < word.length(); i++)
+		{
+			if(word.charAt(i) < 'A' || word.charAt(i) > 'Z')
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private IntBuffer edges;
+	private IntBuffer counts;
+	private int root;
+	private int size;
+
+	Dawg(int[] edges, int[] counts, int root, int size)
+	{
+		this(IntBuffer.wrap(edges), IntBuffer.wrap(counts), root, size);
+	}
+
+	Dawg(IntBuffer edges, IntBuffer counts, int root, int size)
+	{
+		this.edges = edges;
+		this.counts = counts;
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 *
+	 * @return The node that all words start from
+	 */
+	public int getRoot()
+	{
+		return root;
+	}
+
+	/**
+	 *
+	 * @return The number of words in the graph
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 *
+	 * @return The number of packed edges (including the reserved slot)
+	 */
+	public int getEdgeCount()
+	{
+		return edges.limit();
+	}
+
+	/**
+	 *
+	 * @param node The node to search
+	 * @param letter The letter of the edge requested ('A' - 'Z')
+	 * @return The edge leaving node with the given letter or NO_EDGE
+	 */
+	public int getEdge(int node, char letter)
+	{
+		return getEdge(node, letter - 'A');
+	}
+
+	/**
+	 *
+	 * @param node The node to search
+	 * @param symbol The letter index of the edge requested (0 = 'A')
+	 * @return The edge leaving node with the given letter or NO_EDGE
+	 */
+	public int getEdge(int node, int symbol)
+	{
+		if(node == NONE || size == 0)
+		{
+			return NO_EDGE;
+		}
+
+		for(int edge = node; ; edge++)
+		{
+			int packed = edges.get(edge);
+			int edgeSymbol = packed & LETTER_MASK;
+
+			if(edgeSymbol == symbol)
+			{
+				return edge;
+			}
+
+			/* Edges are sorted, no need to look further */
+			if(edgeSymbol > symbol || (packed & LAST_EDGE_BIT) != 0)
+			{
+				return NO_EDGE;
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param node The node to inspect
+	 * @return A 26-bit mask of the letters (bit 0 = 'A') that
+	 * have an outgoing edge from the supplied node
+	 */
+	public int children(int node)
+	{
+		int result = 0;
+
+		if(node == NONE || size == 0)
+		{
+			return result;
+		}
+
+		for(int edge = node; ; edge++)
+		{
+			int packed = edges.get(edge);
+			result |= 1 << (packed & LETTER_MASK);
+
+			if((packed & LAST_EDGE_BIT) != 0)
+			{
+				return result;
+			}
+		}
+	}
+
+	/* Packed edge accessors */
+	public int getSymbol(int edge)
+	{
+		return edges.get(edge) & LETTER_MASK;
+	}
+
+	public char getLetter(int edge)
+	{
+		return (char)('A' + getSymbol(edge));
+	}
+
+	public int getTarget(int edge)
+	{
+		return edges.get(edge) >>> TARGET_SHIFT;
+	}
+
+	public boolean isTerminal(int edge)
+	{
+		return (edges.get(edge) & TERMINAL_BIT) != 0;
+	}
+
+	public boolean isLastEdge(int edge)
+	{
+		return (edges.get(edge) & LAST_EDGE_BIT) != 0;
+	}
+
+	/* Raw packed arrays, used when writing a dictionary image */
+	IntBuffer getEdges()
+	{
+		return edges.duplicate();
+	}
+
+	IntBuffer getCounts()
+	{
+		return counts.duplicate();
+	}
+
+	/**
+	 *
+	 * @param edge The edge to inspect
+	 * @return The number of words that start with the prefix
+	 * spelled out up to and including this edge
+	 */
+	public int getWordCount(int edge)
+	{
+		return counts.get(edge);
+	}
+
+	/**
+	 *
+	 * @param word The word to look for (upper case)
+	 * @return Whether the word is part of the graph
+	 */
+	public boolean contains(String word)
+	{
+		int edge = walk(word);
+		return edge != NO_EDGE && isTerminal(edge);
+	}
+
+	/**
+	 *
+	 * @param prefix The prefix to look for (upper case)
+	 * @return Whether at least one word starts with the prefix
+	 */
+	public boolean hasPrefix(String prefix)
+	{
+		return prefix.length() == 0 ? size > 0 : walk(prefix) != NO_EDGE;
+	}
+
+	/**
+	 *
+	 * @param prefix The letters to follow from the root
+	 * @return The node reached after following the prefix, NONE if
+	 * the prefix only matches whole words, or NO_EDGE if no word
+	 * starts with the prefix
+	 */
+	public int getNode(String prefix)
+	{
+		if(prefix.length() == 0)
+		{
+			return root;
+		}
+
+		int edge = walk(prefix);
+
+		return edge == NO_EDGE ? NO_EDGE : getTarget(edge);
+	}
+
+	/**
+	 *
+	 * @param word The word to look for (upper case)
+	 * @return The alphabetical index of the word in the graph
+	 * or -1 if the word is not present
+	 */
+	public int indexOf(String word)
+	{
+		int node = root;
+		int index = 0;
+
+		for(int i = 0; i < word.length(); i++)
+		{
+			if(node == NONE)
+			{
+				return -1;
+			}
+
+			int symbol = word.charAt(i) - 'A';
+			int edge = node;
+
+			/* Skip all words under the preceding siblings */
+			while((edges.get(edge) & LETTER_MASK) != symbol)
+			{
+				if((edges.get(edge) & LAST_EDGE_BIT) != 0)
+				{
+					return -1;
+				}
+
+				index += counts.get(edge);
+				edge++;
+			}
+
+			if(i == word.length() - 1)
+			{
+				return isTerminal(edge) ? index : -1;
+			}
+
+			/* The shorter word ending here comes first */
+			if(isTerminal(edge))
+			{
+				index++;
+			}
+
+			node = getTarget(edge);
+		}
+
+		return -1;
+	}
+
+	/**
+	 *
+	 * @param index The alphabetical index of a word in [0, size())
+	 * @return The word at that index
+	 */
+	public String getWord(int index)
+	{
+		if(index < 0 || index >= size)
+		{
+			throw new IndexOutOfBoundsException("Word index: " + index + ", size: " + size);
+		}
+
+		StringBuilder result = new StringBuilder();
+		int node = root;
+
+		while(true)
+		{
+			int edge = node;
+
+			while(index >= counts.get(edge))
+			{
+				index -= counts.get(edge);
+				edge++;
+			}
+
+			result.append(getLetter(edge));
+
+			if(isTerminal(edge))
+			{
+				if(index == 0)
+				{
+					return result.toString();
+				}
+
+				index--;
+			}
+
+			node = getTarget(edge);
+		}
+	}
+
+	/**
+	 *
+	 * @return An iterator over all words in
+	 * alphabetical order
+	 */
+	@Override
+	public Iterator<String> iterator()
+	{
+		return new Iterator<String>()
+		{
+			private int next = 0;
+
+			@Override
+			public boolean hasNext()
+			{
+				return next < size;
+			}
+
+			@Override
+			public String next()
+			{
+				if(!hasNext())
+				{
+					throw new NoSuchElementException();
+				}
+
+				return getWord(next++);
+			}
+
+			@Override
+			public void remove()
+			{
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 *
+	 * @param letters The letters to follow from the root
+	 * @return The last edge taken or NO_EDGE
+	 * if the walk leaves the graph
+	 */
+	private int walk(String letters)
+	{
+		int node = root;
+		int edge = NO_EDGE;
+
+		for(int i = 0; i < letters.length(); i++)
+		{
+			char letter = letters.charAt(i);
+
+			if(letter < 'A' || letter > 'Z')
+			{
+				return NO_EDGE;
+			}
+
+			edge = getEdge(node, letter);
+
+			if(edge == NO_EDGE)
+			{
+				return NO_EDGE;
+			}
+
+			node = getTarget(edge);
+		}
+
+		return edge;
+	}
+}
@@ -0,0 +1,277 @@
+package com.myscrabble.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Builds a minimized directed acyclic word graph out of
+ * a list of symbol sequences (incremental construction over
+ * sorted input) and packs it into the primitive edge array
+ * layout used by Dawg.
+ */
+class DawgBuilder
+{
+	/* Largest symbol value that fits the packed edge layout */
+	static final int MAX_SYMBOL = Dawg.LETTER_MASK;
+
+	/* Shared empty edge arrays for leaf nodes */
+	private static final int[] NO_SYMBOLS = new int[0];
+	private static final BuildNode[] NO_CHILDREN = new BuildNode[0];
+
+	/**
+	 * A mutable graph node only used during
+	 * construction. Once a node is registered
+	 * (i.e. minimized) it is never modified again.
+	 */
+	private static class BuildNode
+	{
+		int[] symbols = NO_SYMBOLS;
+		BuildNode[] children = NO_CHILDREN;
+		boolean isFinal;
+
+		/* Number of sequences accepted from this node onwards */
+		int count;
+
+		BuildNode lastChild()
+		{
+			return children[children.length - 1];
+		}
+
+		void addChild(int symbol, BuildNode child)
+		{
+			symbols = Arrays.copyOf(symbols, symbols.length + 1);
+			children = Arrays.copyOf(children, children.length + 1);
+			symbols[symbols.length - 1] = symbol;
+			children[children.length - 1] = child;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			int hash = isFinal ? 1 : 0;
+
+			for(int i = 0; i < symbols.length; i++)
+			{
+				hash = 31 * hash + symbols[i];
+				hash = 31 * hash + System.identityHashCode(children[i]);
+			}
+
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object object)
+		{
+			if(!(object instanceof BuildNode))
+			{
+				return false;
+			}
+
+			BuildNode other = (BuildNode)object;
+
+			if(other.isFinal != isFinal || !Arrays.equals(other.symbols, symbols))
+			{
+				return false;
+			}
+
+			/* Children are already minimized so identity comparison suffices */
+			for(int i = 0; i < children.length; i++)
+			{
+				if(other.children[i] != children[i])
+				{
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+
+	private BuildNode root;
+	private HashMap<BuildNode, BuildNode> register;
+	private int[] previous;
+
+	DawgBuilder()
+	{
+		root = new BuildNode();
+		register = new HashMap<>();
+		previous = NO_SYMBOLS;
+	}
+
+	/**
+	 *
+	 * @param sequence The next sequence of symbols to be added.
+	 * Sequences must be supplied in ascending lexicographical order
+	 * and without duplicates.
+	 */
+	void add(int[] sequence)
+	{
+		int common = 0;
+
+		while(common < sequence.length && common < previous.length &&
+			  sequence[common] == previous[common])
+		{
+			common++;
+		}
+
+		if(common == sequence.length && common == previous.length && previous != NO_SYMBOLS)
+		{
+			throw new IllegalArgumentException("Duplicate sequence supplied: " + Arrays.toString(sequence));
+		}
+
+		BuildNode lastState = root;
+
+		for(int i = 0; i < common; i++)
+		{
+			lastState = lastState.lastChild();
+		}
+
+		if(lastState.children.length > 0)
+		{
+			replaceOrRegister(lastState);
+		}
+
+		for(int i = common; i < sequence.length; i++)
+		{
+			if(sequence[i] < 0 || sequence[i] > MAX_SYMBOL)
+			{
+				throw new IllegalArgumentException("Symbol out of range: " + sequence[i]);
+			}
+
+			BuildNode next = new BuildNode();
+			lastState.addChild(sequence[i], next);
+			lastState = next;
+		}
+
+		lastState.isFinal = true;
+		previous = sequence;
+	}
+
+	/**
+	 *
+	 * @return the packed edge and count arrays
+	 * for all the sequences added so far. Index 0 of the
+	 * packed arrays is reserved so that Dawg.NONE can denote
+	 * a node without outgoing edges.
+	 */
+	Dawg build()
+	{
+		replaceOrRegister(root);
+
+		/* Pack the nodes in breadth first order with the root's edges first */
+		IdentityHashMap<BuildNode, Integer> offsets = new IdentityHashMap<>();
+		ArrayList<BuildNode> order = new ArrayList<>();
+
+		int nextOffset = 1;
+		order.add(root);
+		offsets.put(root, nextOffset);
+		nextOffset += Math.max(1, root.children.length);
+
+		for(int i = 0; i < order.size(); i++)
+		{
+			for(BuildNode child : order.get(i).children)
+			{
+				if(child.children.length > 0 && !offsets.containsKey(child))
+				{
+					offsets.put(child, nextOffset);
+					nextOffset += child.children.length;
+					order.add(child);
+				}
+			}
+		}
+
+		if(nextOffset > (1 << (32 - Dawg.TARGET_SHIFT)))
+		{
+			throw new IllegalStateException("Word graph too large for the packed layout: " + nextOffset + " edges");
+		}
+
+		int[] edges = new int[nextOffset];
+		int[] counts = new int[nextOffset];
+
+		for(BuildNode node : order)
+		{
+			int offset = offsets.get(node);
+
+			for(int i = 0; i < node.children.length; i++)
+			{
+				BuildNode child = node.children[i];
+				int target = child.children.length > 0 ? offsets.get(child) : Dawg.NONE;
+
+				int edge = node.symbols[i] | (target << Dawg.TARGET_SHIFT);
+
+				if(child.isFinal)
+				{
+					edge |= Dawg.TERMINAL_BIT;
+				}
+
+				if(i == node.children.length - 1)
+				{
+					edge |= Dawg.LAST_EDGE_BIT;
+				}
+
+				edges[offset + i] = edge;
+				counts[offset + i] = child.count;
+			}
+		}
+
+		/* An empty graph still needs a valid (childless) root edge block */
+		if(root.children.length == 0)
+		{
+			edges[1] = Dawg.LAST_EDGE_BIT;
+		}
+
+		return new Dawg(edges, counts, 1, root.count);
+	}
+
+	/**
+	 *
+	 * @param state Node whose last child subtree is complete
+	 * Minimizes the last child of the supplied node by
+	 * either replacing it with an equivalent registered
+	 * node or registering it.
+	 */
+	private void replaceOrRegister(BuildNode state)
+	{
+		if(state.children.length == 0)
+		{
+			state.count = state.isFinal ? 1 : 0;
+			return;
+		}
+
+		BuildNode child = state.lastChild();
+
+		if(child.children.length > 0)
+		{
+			replaceOrRegister(child);
+		}
+		else
+		{
+			child.count = child.isFinal ? 1 : 0;
+		}
+
+		BuildNode registered = register.get(child);
+
+		if(registered != null)
+		{
+			state.children[state.children.length - 1] = registered;
+		}
+		else
+		{
+			register.put(child, child);
+		}
+
+		int count = state.isFinal ? 1 : 0;
+
+		for(BuildNode c : state.children)
+		{
+			count += c.count;
+		}
+
+		state.count = count;
+	}
+}
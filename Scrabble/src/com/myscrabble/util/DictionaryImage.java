@@ -0,0 +1,221 @@
+package com.myscrabble.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * The compiled form of the game's lexicon: the packed word
+ * graph arrays plus a bit set flagging common words (indexed by
+ * each word's index in the graph). An image can either be built
+ * in memory or written to / opened from a versioned, checksummed
+ * binary file which is memory-mapped read-only, so opening it
+ * involves no parsing at all.
+ * <br>
+ * File layout (little endian):
+ * <br> int magic, int version, int root, int number of words,
+ * int number of edges, int number of common-word longs,
+ * int CRC32 of the payload, int reserved
+ * <br> payload: int[edges] packed edges, int[edges] word counts,
+ * long[commonLongs] common-word bits
+ */
+public class DictionaryImage
+{
+	/* "MSDG" */
+	public static final int MAGIC   = 0x4D534447;
+	public static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 8 * 4;
+
+	/**
+	 *
+	 * @param file The compiled image to open
+	 * @return The memory-mapped dictionary image
+	 * @throws IOException if the file cannot be read, was compiled
+	 * by a different version or fails its checksum
+	 */
+	public static DictionaryImage open(File file) throws IOException
+	{
+		MappedByteBuffer mapped;
+
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			if(channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE)
+			{
+				throw new IOException("Invalid dictionary image size: " + channel.size());
+			}
+
+			mapped = channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+		if(buffer.getInt(0) != MAGIC)
+		{
+			throw new IOException("Not a dictionary image: " + file.getPath());
+		}
+
+		if(buffer.getInt(4) != VERSION)
+		{
+			throw new IOException("Unsupported dictionary image version " + buffer.getInt(4) +
+								  " (expected " + VERSION + ")");
+		}
+
+		int root        = buffer.getInt(8);
+		int size        = buffer.getInt(12);
+		int edgeCount   = buffer.getInt(16);
+		int commonLongs = buffer.getInt(20);
+		int checksum    = buffer.getInt(24);
+
+		long payloadSize = 8L * edgeCount + 8L * commonLongs;
+
+		if(edgeCount < 0 || commonLongs < 0 || HEADER_SIZE + payloadSize != buffer.capacity())
+		{
+			throw new IOException("Corrupt dictionary image header: " + file.getPath());
+		}
+
+		if(checksum != computeChecksum(slice(buffer, HEADER_SIZE, (int)payloadSize)))
+		{
+			throw new IOException("Dictionary image checksum mismatch: " + file.getPath());
+		}
+
+		int edgesOffset  = HEADER_SIZE;
+		int countsOffset = edgesOffset + 4 * edgeCount;
+		int commonOffset = countsOffset + 4 * edgeCount;
+
+		IntBuffer edges  = slice(buffer, edgesOffset, 4 * edgeCount).asIntBuffer();
+		IntBuffer counts = slice(buffer, countsOffset, 4 * edgeCount).asIntBuffer();
+		LongBuffer common = slice(buffer, commonOffset, 8 * commonLongs).asLongBuffer();
+
+		return new DictionaryImage(new Dawg(edges, counts, root, size), common);
+	}
+
+	/**
+	 *
+	 * @param file The file to write the image to
+	 * @param dawg The word graph to store
+	 * @param common The indices of the common words in the graph
+	 * @throws IOException if writing fails
+	 */
+	public static void write(File file, Dawg dawg, BitSet common) throws IOException
+	{
+		IntBuffer edges = dawg.getEdges();
+		IntBuffer counts = dawg.getCounts();
+		long[] commonBits = common.toLongArray();
+
+		int edgeCount = edges.remaining();
+		ByteBuffer payload = ByteBuffer.allocate(8 * edgeCount + 8 * commonBits.length)
+									   .order(ByteOrder.LITTLE_ENDIAN);
+
+		for(int i = 0; i < edgeCount; i++)
+		{
+			payload.putInt(edges.get(i));
+		}
+
+		for(int i = 0; i < edgeCount; i++)
+		{
+			payload.putInt(counts.get(i));
+		}
+
+		for(long bits : commonBits)
+		{
+			payload.putLong(bits);
+		}
+
+		payload.flip();
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putInt(dawg.getRoot());
+		header.putInt(dawg.size());
+		header.putInt(edgeCount);
+		header.putInt(commonBits.length);
+		header.putInt(computeChecksum(payload.duplicate()));
+		header.putInt(0);
+		header.flip();
+
+		try(FileOutputStream out = new FileOutputStream(file);
+			FileChannel channel = out.getChannel())
+		{
+			while(header.hasRemaining())
+			{
+				channel.write(header);
+			}
+
+			while(payload.hasRemaining())
+			{
+				channel.write(payload);
+			}
+		}
+	}
+
+	private static int computeChecksum(ByteBuffer payload)
+	{
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		return (int)crc.getValue();
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int offset, int length)
+	{
+		ByteBuffer view = buffer.duplicate();
+		view.position(offset);
+		view.limit(offset + length);
+		return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private Dawg dawg;
+	private LongBuffer common;
+
+	public DictionaryImage(Dawg dawg, BitSet common)
+	{
+		this(dawg, LongBuffer.wrap(common.toLongArray()));
+	}
+
+	private DictionaryImage(Dawg dawg, LongBuffer common)
+	{
+		this.dawg = dawg;
+		this.common = common;
+	}
+
+	public Dawg getDawg()
+	{
+		return dawg;
+	}
+
+	/**
+	 *
+	 * @param index The index of a word in the graph
+	 * @return Whether that word is flagged as common
+	 */
+	public boolean isCommon(int index)
+	{
+		int slot = index >>> 6;
+		return index >= 0 && slot < common.limit() && (common.get(slot) & (1L << index)) != 0;
+	}
+
+	/**
+	 *
+	 * @param file The file to write this image to
+	 * @throws IOException if writing fails
+	 */
+	public void write(File file) throws IOException
+	{
+		BitSet bits = BitSet.valueOf(common.duplicate());
+		write(file, dawg, bits);
+	}
+}
@@ -0,0 +1,158 @@
+package com.myscrabble.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * A GADDAG of the lexicon: every word w of length n is stored
+ * n times, as rev(w[0..i)) SEPARATOR w[i..n) for 0 < i < n and as
+ * rev(w) alone. Starting from any letter of a word, the graph can
+ * therefore be walked leftwards through the letters before it and,
+ * after taking the separator, rightwards through the letters after
+ * it. The sequences are minimized and packed exactly like a Dawg
+ * (the separator being one more symbol after 'Z'), and an image is
+ * stored in the DictionaryImage file format without common words.
+ */
+public class Gaddag
+{
+	/* Symbol switching from the reversed prefix to the suffix */
+	public static final int SEPARATOR = AnagramIndex.ALPHABET_SIZE;
+
+	/**
+	 *
+	 * @param words The lexicon to convert
+	 * @return A GADDAG accepting the same words
+	 */
+	public static Gaddag fromDawg(Dawg words)
+	{
+		ArrayList<int[]> sequences = new ArrayList<>();
+
+		for(String word : words)
+		{
+			int length = word.length();
+
+			for(int split = 1; split <= length; split++)
+			{
+				int[] sequence = new int[split == length ? length : length + 1];
+				int next = 0;
+
+				for(int i = split - 1; i >= 0; i--)
+				{
+					sequence[next++] = word.charAt(i) - 'A';
+				}
+
+				if(split < length)
+				{
+					sequence[next++] = SEPARATOR;
+
+					for(int i = split; i < length; i++)
+					{
+						sequence[next++] = word.charAt(i) - 'A';
+					}
+				}
+
+				sequences.add(sequence);
+			}
+		}
+
+		Collections.sort(sequences, new Comparator<int[]>()
+		{
+			@Override
+			public int compare(int[] a, int[] b)
+			{
+				int common = Math.min(a.length, b.length);
+
+				for(int i = 0; i < common; i++)
+				{
+					if(a[i] != b[i])
+					{
+						return a[i] - b[i];
+					}
+				}
+
+				return a.length - b.length;
+			}
+		});
+
+		/* The separator's position tells splits apart so all sequences are distinct */
+		DawgBuilder builder = new DawgBuilder();
+
+		for(int[] sequence : sequences)
+		{
+			builder.add(sequence);
+		}
+
+		return new Gaddag(builder.build());
+	}
+
+	/**
+	 *
+	 * @param file The compiled GADDAG image to open
+	 * @return The memory-mapped GADDAG
+	 * @throws IOException if the image cannot be read or is invalid
+	 */
+	public static Gaddag open(File file) throws IOException
+	{
+		return new Gaddag(DictionaryImage.open(file).getDawg());
+	}
+
+	private Dawg graph;
+
+	private Gaddag(Dawg graph)
+	{
+		this.graph = graph;
+	}
+
+	/**
+	 *
+	 * @param file The file to write this GADDAG's image to
+	 * @throws IOException if writing fails
+	 */
+	public void write(File file) throws IOException
+	{
+		DictionaryImage.write(file, graph, new BitSet());
+	}
+
+	/**
+	 *
+	 * @return The packed graph of the GADDAG sequences, navigated
+	 * with the Dawg accessors (SEPARATOR being a regular symbol)
+	 */
+	public Dawg getGraph()
+	{
+		return graph;
+	}
+
+	/**
+	 *
+	 * @param word The word to check
+	 * @return Whether the word is in the lexicon,
+	 * checked through its reversed-word sequence
+	 */
+	public boolean contains(String word)
+	{
+		int node = graph.getRoot();
+		int edge = Dawg.NO_EDGE;
+
+		for(int i = word.length() - 1; i >= 0; i--)
+		{
+			edge = graph.getEdge(node, word.charAt(i));
+
+			if(edge == Dawg.NO_EDGE)
+			{
+				return false;
+			}
+
+			node = graph.getTarget(edge);
+		}
+
+		return edge != Dawg.NO_EDGE && graph.isTerminal(edge);
+	}
+}
@@ -0,0 +1,661 @@
+package com.myscrabble.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import com.myscrabble.ai.AIController.AILevel;
+import com.myscrabble.ai.AIController.MoveGeneration;
+import com.myscrabble.ai.Move;
+import com.myscrabble.ai.MoveSelector;
+import com.myscrabble.ai.UnseenTiles;
+import com.myscrabble.entities.BagState;
+import com.myscrabble.entities.BoardState;
+import com.myscrabble.entities.PlacementValidator;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * The record of a game: the seed of the game's random generator, the
+ * players (human, or an AI level with its search budgets) and every
+ * draw, move, pass and end of game score adjustment in the order they
+ * happened. A game's draws all come from the first generator split from
+ * the seeded one (see getBagRandom) and every player's AI from the next
+ * splits, in player order, so replaying a record draws the same tiles
+ * in the same order and the AI players make the same choices. The
+ * replay runs headlessly on a BoardState and a BagState and checks
+ * every event against the record: the tiles drawn, the placements'
+ * validity and scores and the rack penalties at the end. The moves of
+ * AI players whose selections depend on the position alone (see
+ * MoveSelector.isDeterministic()) are selected again and must match
+ * the recorded ones, so a change of the AI's play shows up as a
+ * diverging record. Records are saved as text, one event per line.
+ * A replay can also hand every position of the game to a visitor, so
+ * saved records double as a corpus of real positions.
+ */
+public class GameRecord
+{
+	public static final String EXTENSION = ".game";
+
+	/* Event types, named by the first word of their line */
+	private static final int DRAW   = 0;
+	private static final int MOVE   = 1;
+	private static final int PASS   = 2;
+	private static final int ADJUST = 3;
+
+	private static final String[] EVENT_NAMES = { "draw", "move", "pass", "adjust" };
+	private static final String SEED_NAME = "seed";
+
+	/* Player lines: "player P human" or "player P ai LEVEL GENERATION" and the AI's budgets */
+	private static final String PLAYER_NAME = "player";
+	private static final String HUMAN_NAME = "human";
+	private static final String AI_NAME = "ai";
+
+	/**
+	 * A single event of the game. Draws carry a letter, moves their
+	 * score and placed tiles, adjustments their points.
+	 */
+	private static class Event
+	{
+		int type;
+		int player;
+		int points;
+		char letter;
+		int[] squares;
+		char[] letters;
+
+		Event(int type, int player)
+		{
+			this.type = type;
+			this.player = player;
+		}
+	}
+
+	/**
+	 * The settings an AI player's MoveSelector is created with
+	 */
+	private static class AISettings
+	{
+		AILevel level;
+		MoveGeneration generation;
+		long timeBudget;
+		long nodeBudget;
+		long endgameTimeLimit;
+		long endgameNodeLimit;
+
+		MoveSelector createSelector(ScrabbleDictionary dictionary, SplittableRandom random)
+		{
+			MoveSelector selector = new MoveSelector(level, generation, dictionary, random);
+			selector.setBudgets(timeBudget, nodeBudget, endgameTimeLimit, endgameNodeLimit);
+			return selector;
+		}
+	}
+
+	/**
+	 * Visited by a replay once for every move of the game
+	 */
+	public interface PositionVisitor
+	{
+		/**
+		 *
+		 * @param board The board with the move's tiles set on it
+		 * (only valid during the call, copy it to keep it)
+		 * @param rack The mover's rack before the move (index 0 = 'A')
+		 * @param placedSquares Row-major squares of the placed tiles
+		 * @param placedLetters Letters of the placed tiles
+		 * @param score The points the move scored
+		 */
+		void visit(BoardState board, int[] rack, int[] placedSquares, char[] placedLetters, int score);
+	}
+
+	private long seed;
+	private ArrayList<Event> events;
+
+	/* Which players are recorded and the settings of the AI players (null for humans) */
+	private boolean[] playersRecorded;
+	private AISettings[] aiSettings;
+
+	/* Score of each player from the events recorded so far */
+	private int[] scores;
+
+	/**
+	 *
+	 * @param seed Seed of the game's random generator
+	 */
+	public GameRecord(long seed)
+	{
+		this.seed = seed;
+
+		events = new ArrayList<>();
+		scores = new int[Zobrist.PLAYERS];
+		playersRecorded = new boolean[Zobrist.PLAYERS];
+		aiSettings = new AISettings[Zobrist.PLAYERS];
+	}
+
+	/**
+	 *
+	 * @param gameRandom The game's random generator, fresh from its seed
+	 * @return The generator of the letter bag's draws: the first split
+	 * of the game's generator, taken by the game and by the replay alike
+	 */
+	public static SplittableRandom getBagRandom(SplittableRandom gameRandom)
+	{
+		return gameRandom.split();
+	}
+
+	/**
+	 *
+	 * @param player Zobrist index of the player
+	 * @param selector The player's move selector (null for a human player)
+	 */
+	public void recordPlayer(int player, MoveSelector selector)
+	{
+		playersRecorded[player] = true;
+
+		if(selector == null)
+		{
+			aiSettings[player] = null;
+			return;
+		}
+
+		AISettings settings = new AISettings();
+		settings.level = selector.getLevel();
+		settings.generation = selector.getMoveGeneration();
+		settings.timeBudget = selector.getTimeBudget();
+		settings.nodeBudget = selector.getNodeBudget();
+		settings.endgameTimeLimit = selector.getEndgameTimeLimit();
+		settings.endgameNodeLimit = selector.getEndgameNodeLimit();
+		aiSettings[player] = settings;
+	}
+
+	/**
+	 *
+	 * @param player Zobrist index of the player drawing
+	 * @param letter The letter drawn
+	 */
+	public void recordDraw(int player, char letter)
+	{
+		Event event = new Event(DRAW, player);
+		event.letter = letter;
+		events.add(event);
+	}
+
+	/**
+	 *
+	 * @param player Zobrist index of the player moving
+	 * @param score The points the move scored
+	 * @param squares Row-major squares of the placed tiles
+	 * @param letters Letters of the placed tiles, in the order of the squares
+	 */
+	public void recordMove(int player, int score, int[] squares, char[] letters)
+	{
+		Event event = new Event(MOVE, player);
+		event.points = score;
+		event.squares = squares.clone();
+		event.letters = letters.clone();
+		events.add(event);
+
+		scores[player] += score;
+	}
+
+	public void recordPass(int player)
+	{
+		events.add(new Event(PASS, player));
+	}
+
+	/**
+	 *
+	 * @param player Zobrist index of the player
+	 * @param points Points added to (or, if negative, taken from) the
+	 * player's score at the end of the game for the tiles left on the racks
+	 */
+	public void recordAdjustment(int player, int points)
+	{
+		Event event = new Event(ADJUST, player);
+		event.points = points;
+		events.add(event);
+
+		scores[player] += points;
+	}
+
+	/**
+	 *
+	 * @return The final score of each player (indexed by Zobrist
+	 * index) if replaying the record, the AI players' moves included,
+	 * agrees with every recorded event, otherwise null (the first
+	 * disagreement is printed)
+	 */
+	public int[] replay()
+	{
+		return replay(null, true);
+	}
+
+	/**
+	 *
+	 * @param visitor Visited with every move once it is checked (null if none)
+	 * @param reselect Whether the AI players' moves are selected again and
+	 * checked (otherwise only the rules are, which is much faster)
+	 * @return The final score of each player, or null if the
+	 * replay disagrees with the record (see replay())
+	 */
+	public int[] replay(PositionVisitor visitor, boolean reselect)
+	{
+		SplittableRandom gameRandom = new SplittableRandom(seed);
+		SplittableRandom random = getBagRandom(gameRandom);
+		BagState bag = new BagState();
+		BoardState board = new BoardState();
+
+		MoveSelector[] selectors = new MoveSelector[Zobrist.PLAYERS];
+		UnseenTiles[] unseen = new UnseenTiles[Zobrist.PLAYERS];
+		ScrabbleDictionary dictionary = null;
+
+		for(int player = 0; player < Zobrist.PLAYERS; player++)
+		{
+			/* Every player takes a split, as every Player of a game does */
+			SplittableRandom playerRandom = gameRandom.split();
+			unseen[player] = new UnseenTiles();
+
+			if(!reselect || aiSettings[player] == null)
+			{
+				continue;
+			}
+
+			if(dictionary == null)
+			{
+				dictionary = new ScrabbleDictionary();
+			}
+
+			selectors[player] = aiSettings[player].createSelector(dictionary, playerRandom);
+
+			/* Selections under a time limit depend on the machine's speed */
+			if(!selectors[player].isDeterministic())
+			{
+				selectors[player] = null;
+			}
+		}
+
+		int[][] racks = new int[Zobrist.PLAYERS][BagState.LETTERS];
+		int[] replayScores = new int[Zobrist.PLAYERS];
+		int[] adjustments = new int[Zobrist.PLAYERS];
+
+		boolean ended = false;
+		int lastMover = -1;
+
+		for(int i = 0; i < events.size(); i++)
+		{
+			Event event = events.get(i);
+			int[] rack = racks[event.player];
+
+			if(event.type == DRAW)
+			{
+				char letter = bag.drawForRack(random);
+
+				if(letter != event.letter)
+				{
+					return diverged(i, "drew " + letter + " instead of " + event.letter);
+				}
+
+				rack[letter - 'A']++;
+				unseen[event.player].tileSeen(letter);
+			}
+			else if(event.type == MOVE || event.type == PASS)
+			{
+				if(selectors[event.player] != null)
+				{
+					Move selected = selectors[event.player].selectMove(board.getLetters(), rack.clone(), bag.isEmpty(),
+																	   unseen[event.player].copy());
+
+					if(!isRecordedMove(selected, event))
+					{
+						return diverged(i, "player " + event.player + " (" + aiSettings[event.player].level + ") selects " +
+										(selected == null ? "a pass" : selected.toString()) + " instead");
+					}
+				}
+
+				for(int player = 0; player < Zobrist.PLAYERS; player++)
+				{
+					if(player != event.player)
+					{
+						unseen[player].opponentMoved(event.type == PASS ? "" : new String(event.letters));
+					}
+				}
+
+				if(event.type == PASS)
+				{
+					lastMover = event.player;
+					continue;
+				}
+
+				int count = event.squares.length;
+				int[] rackBefore = visitor == null ? null : rack.clone();
+
+				for(int t = 0; t < count; t++)
+				{
+					int square = event.squares[t];
+					char letter = event.letters[t];
+
+					if(rack[letter - 'A'] == 0 || !board.isEmpty(square))
+					{
+						return diverged(i, "cannot place " + letter + " on square " + square);
+					}
+
+					rack[letter - 'A']--;
+					board.set(square, letter);
+				}
+
+				board.clearUndo();
+
+				int validity = PlacementValidator.validate(board, event.squares, count);
+
+				if(validity != PlacementValidator.VALID)
+				{
+					return diverged(i, "invalid placement (" + validity + ")");
+				}
+
+				int score = ScoringEngine.score(board, event.squares, count);
+
+				if(score != event.points)
+				{
+					return diverged(i, "scored " + score + " instead of " + event.points);
+				}
+
+				if(visitor != null)
+				{
+					visitor.visit(board, rackBefore, event.squares, event.letters, score);
+				}
+
+				replayScores[event.player] += score;
+				lastMover = event.player;
+			}
+			else
+			{
+				adjustments[event.player] += event.points;
+				ended = true;
+			}
+		}
+
+		if(!ended)
+		{
+			return replayScores;
+		}
+
+		/* Everyone loses their rack's value, a player going out gains the total */
+		int penaltiesTotal = 0;
+		int[] penalties = new int[Zobrist.PLAYERS];
+
+		for(int player = 0; player < Zobrist.PLAYERS; player++)
+		{
+			for(int symbol = 0; symbol < BagState.LETTERS; symbol++)
+			{
+				penalties[player] += racks[player][symbol] * ScrabbleUtils.getValueOf((char)('A' + symbol));
+			}
+
+			penaltiesTotal += penalties[player];
+		}
+
+		boolean wentOut = bag.isEmpty() && lastMover >= 0 && isRackEmpty(racks[lastMover]);
+
+		for(int player = 0; player < Zobrist.PLAYERS; player++)
+		{
+			int expected = -penalties[player] + (wentOut && player == lastMover ? penaltiesTotal : 0);
+
+			if(adjustments[player] != expected)
+			{
+				return diverged(events.size() - 1, "player " + player + " adjusted by " + adjustments[player] +
+								" instead of " + expected);
+			}
+
+			replayScores[player] += expected;
+		}
+
+		return replayScores;
+	}
+
+	/**
+	 *
+	 * @return Whether the move is the one of the recorded
+	 * event, a null move being a pass
+	 */
+	private static boolean isRecordedMove(Move move, Event event)
+	{
+		if(move == null || event.type == PASS)
+		{
+			return move == null && event.type == PASS;
+		}
+
+		if(move.getTilesPlaced() != event.squares.length)
+		{
+			return false;
+		}
+
+		int tile = 0;
+
+		for(int i = 0; i < move.getWord().length(); i++)
+		{
+			if(!move.isPlaced(i))
+			{
+				continue;
+			}
+
+			int square = move.getRow(i) * BoardState.SIZE + move.getCol(i);
+
+			if(square != event.squares[tile] || move.getWord().charAt(i) != event.letters[tile])
+			{
+				return false;
+			}
+
+			tile++;
+		}
+
+		return true;
+	}
+
+	private int[] diverged(int event, String message)
+	{
+		System.err.println("Replay of game " + seed + " diverges at event " + (event + 1) + ": " + message);
+		return null;
+	}
+
+	private static boolean isRackEmpty(int[] rack)
+	{
+		for(int count : rack)
+		{
+			if(count > 0)
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 *
+	 * @param file The file to save the record to
+	 * @throws IOException if writing fails
+	 */
+	public void write(File file) throws IOException
+	{
+		try(BufferedWriter writer = new BufferedWriter(new FileWriter(file)))
+		{
+			writer.write(SEED_NAME + " " + seed);
+			writer.newLine();
+
+			for(int player = 0; player < Zobrist.PLAYERS; player++)
+			{
+				if(!playersRecorded[player])
+				{
+					continue;
+				}
+
+				AISettings settings = aiSettings[player];
+				StringBuilder line = new StringBuilder(PLAYER_NAME).append(' ').append(player).append(' ');
+
+				if(settings == null)
+				{
+					line.append(HUMAN_NAME);
+				}
+				else
+				{
+					line.append(AI_NAME).append(' ').append(settings.level).append(' ').append(settings.generation)
+						.append(' ').append(settings.timeBudget).append(' ').append(settings.nodeBudget)
+						.append(' ').append(settings.endgameTimeLimit).append(' ').append(settings.endgameNodeLimit);
+				}
+
+				writer.write(line.toString());
+				writer.newLine();
+			}
+
+			for(Event event : events)
+			{
+				StringBuilder line = new StringBuilder(EVENT_NAMES[event.type]).append(' ').append(event.player);
+
+				if(event.type == DRAW)
+				{
+					line.append(' ').append(event.letter);
+				}
+				else if(event.type == MOVE)
+				{
+					line.append(' ').append(event.points);
+
+					for(int t = 0; t < event.squares.length; t++)
+					{
+						line.append(' ').append(event.squares[t]).append(':').append(event.letters[t]);
+					}
+				}
+				else if(event.type == ADJUST)
+				{
+					line.append(' ').append(event.points);
+				}
+
+				writer.write(line.toString());
+				writer.newLine();
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param file A saved record
+	 * @return The record
+	 * @throws IOException if the file cannot be read or is not a game record
+	 */
+	public static GameRecord read(File file) throws IOException
+	{
+		try(BufferedReader reader = new BufferedReader(new FileReader(file)))
+		{
+			String line = reader.readLine();
+
+			if(line == null || !line.startsWith(SEED_NAME + " "))
+			{
+				throw new IOException("Not a game record: " + file.getPath());
+			}
+
+			GameRecord record = new GameRecord(Long.parseLong(line.substring(SEED_NAME.length() + 1)));
+			int lineNumber = 1;
+
+			while((line = reader.readLine()) != null)
+			{
+				lineNumber++;
+
+				if(line.isEmpty())
+				{
+					continue;
+				}
+
+				try
+				{
+					record.parseEvent(line.split(" "));
+				}
+				catch(RuntimeException e)
+				{
+					throw new IOException("Invalid event on line " + lineNumber + " of " + file.getPath() + ": " + line, e);
+				}
+			}
+
+			return record;
+		}
+	}
+
+	private void parseEvent(String[] words)
+	{
+		int player = Integer.parseInt(words[1]);
+
+		if(words[0].equals(PLAYER_NAME))
+		{
+			playersRecorded[player] = true;
+
+			if(words[2].equals(AI_NAME))
+			{
+				AISettings settings = new AISettings();
+				settings.level = AILevel.valueOf(words[3]);
+				settings.generation = MoveGeneration.valueOf(words[4]);
+				settings.timeBudget = Long.parseLong(words[5]);
+				settings.nodeBudget = Long.parseLong(words[6]);
+				settings.endgameTimeLimit = Long.parseLong(words[7]);
+				settings.endgameNodeLimit = Long.parseLong(words[8]);
+				aiSettings[player] = settings;
+			}
+			else if(!words[2].equals(HUMAN_NAME))
+			{
+				throw new IllegalArgumentException("Unknown player type " + words[2]);
+			}
+		}
+		else if(words[0].equals(EVENT_NAMES[DRAW]))
+		{
+			recordDraw(player, words[2].charAt(0));
+		}
+		else if(words[0].equals(EVENT_NAMES[MOVE]))
+		{
+			int[] squares = new int[words.length - 3];
+			char[] letters = new char[squares.length];
+
+			for(int t = 0; t < squares.length; t++)
+			{
+				String[] tile = words[3 + t].split(":");
+				squares[t] = Integer.parseInt(tile[0]);
+				letters[t] = tile[1].charAt(0);
+			}
+
+			recordMove(player, Integer.parseInt(words[2]), squares, letters);
+		}
+		else if(words[0].equals(EVENT_NAMES[PASS]))
+		{
+			recordPass(player);
+		}
+		else if(words[0].equals(EVENT_NAMES[ADJUST]))
+		{
+			recordAdjustment(player, Integer.parseInt(words[2]));
+		}
+		else
+		{
+			throw new IllegalArgumentException("Unknown event " + words[0]);
+		}
+	}
+
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 *
+	 * @param player Zobrist index of the player
+	 * @return The player's score from the events recorded so far
+	 */
+	public int getScore(int player)
+	{
+		return scores[player];
+	}
+
+	public int getEventCount()
+	{
+		return events.size();
+	}
+}
@@ -0,0 +1,391 @@
+package com.myscrabble.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import com.myscrabble.managers.ResourceManager;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Equity (in points) of the tiles kept on the rack after a move,
+ * for every multiset of up to MAX_LEAVE letters. A leave is sorted
+ * into a combination of its letters, which is ranked with the
+ * combinatorial number system, so every leave has its own slot in a
+ * flat float array and looking one up only takes a pass over the 26
+ * letter counts. Leaves the tile distribution cannot produce keep
+ * their slot (and a value of 0) so that ranking needs no tables.
+ * <br>
+ * The table is written to / opened from a checksummed binary file
+ * which is memory-mapped read-only (see DictionaryImage). The shipped
+ * table is regenerated from self-play logs with LeaveTableGenerator.
+ * <br>
+ * File layout (little endian):
+ * <br> int magic, int version, int number of entries, int CRC32 of the payload
+ * <br> payload: float[entries] leave values
+ */
+public class LeaveTable
+{
+	/* "MSLV" */
+	public static final int MAGIC   = 0x4D534C56;
+	public static final int VERSION = 1;
+
+	public static final String TABLE_DIR = "/specs/leaves.table";
+
+	/* A move places at least one tile of a full rack */
+	public static final int MAX_LEAVE = 6;
+	public static final int LETTERS = 26;
+
+	private static final int HEADER_SIZE = 4 * 4;
+
+	/* Binomial coefficients C(n, k) for n < LETTERS + MAX_LEAVE, k <= MAX_LEAVE */
+	private static final int[][] binomials;
+
+	/* Index of the first leave of each size */
+	private static final int[] offsets;
+
+	/* Number of leaves of at most MAX_LEAVE letters */
+	public static final int ENTRIES;
+
+	/* Prior equity of single letters, before duplicates and vowel balance */
+	private static final float[] LETTER_VALUES =
+	{
+		 1.0f, -2.0f, -0.5f,  0.0f,  1.5f, -2.0f, -2.5f,  0.5f, -0.5f, -3.0f, -2.5f, -0.5f, -0.5f,
+		 0.0f, -1.0f, -1.0f, -7.0f,  1.0f,  8.0f,  0.0f, -3.0f, -5.0f, -4.0f,  3.0f, -0.5f,  2.0f
+	};
+
+	private static final float DUPLICATE_PENALTY = 3.0f;
+	private static final float IMBALANCE_PENALTY = 1.5f;
+	private static final float Q_WITHOUT_U_PENALTY = 4.0f;
+
+	private static LeaveTable sharedTable;
+
+	static
+	{
+		binomials = new int[LETTERS + MAX_LEAVE][MAX_LEAVE + 1];
+
+		for(int n = 0; n < binomials.length; n++)
+		{
+			binomials[n][0] = 1;
+
+			for(int k = 1; k <= Math.min(n, MAX_LEAVE); k++)
+			{
+				binomials[n][k] = binomials[n - 1][k - 1] + (k <= n - 1 ? binomials[n - 1][k] : 0);
+			}
+		}
+
+		/* There are C(LETTERS + size - 1, size) multisets of each size */
+		offsets = new int[MAX_LEAVE + 2];
+
+		for(int size = 0; size <= MAX_LEAVE; size++)
+		{
+			offsets[size + 1] = offsets[size] + binomials[LETTERS + size - 1][size];
+		}
+
+		ENTRIES = offsets[MAX_LEAVE + 1];
+	}
+
+	/**
+	 *
+	 * @param counts Number of each letter (index 0 = 'A') in the leave
+	 * @return The leave's slot in the table, or -1 if it
+	 * holds more than MAX_LEAVE letters
+	 */
+	public static int rank(int[] counts)
+	{
+		int size = 0;
+		int rank = 0;
+
+		for(int symbol = 0; symbol < LETTERS; symbol++)
+		{
+			for(int copy = 0; copy < counts[symbol]; copy++)
+			{
+				if(size == MAX_LEAVE)
+				{
+					return -1;
+				}
+
+				/* The sorted leave's i-th letter becomes the combination element symbol + i */
+				rank += binomials[symbol + size][size + 1];
+				size++;
+			}
+		}
+
+		return offsets[size] + rank;
+	}
+
+	/**
+	 *
+	 * @param counts Number of each letter (index 0 = 'A') in the leave
+	 * @return A heuristic equity of the leave: letter values, penalties
+	 * for duplicates, for unbalanced vowels and consonants and for a Q
+	 * without a U. Used as the prior of self-play estimates and when no
+	 * table can be opened.
+	 */
+	public static float estimate(int[] counts)
+	{
+		float value = 0;
+		int vowels = 0;
+		int consonants = 0;
+
+		for(int symbol = 0; symbol < LETTERS; symbol++)
+		{
+			int count = counts[symbol];
+
+			if(count == 0)
+			{
+				continue;
+			}
+
+			value += LETTER_VALUES[symbol] + (count - 1) * (LETTER_VALUES[symbol] - DUPLICATE_PENALTY);
+
+			if("AEIOU".indexOf('A' + symbol) >= 0)
+			{
+				vowels += count;
+			}
+			else
+			{
+				consonants += count;
+			}
+		}
+
+		value -= IMBALANCE_PENALTY * Math.max(0, Math.abs(vowels - consonants) - 1);
+
+		if(counts['Q' - 'A'] > 0 && counts['U' - 'A'] == 0)
+		{
+			value -= Q_WITHOUT_U_PENALTY;
+		}
+
+		return value;
+	}
+
+	/**
+	 *
+	 * @return A table holding the heuristic estimate
+	 * of every leave
+	 */
+	public static LeaveTable fromEstimates()
+	{
+		final float[] values = new float[ENTRIES];
+
+		forEachLeave(new LeaveVisitor()
+		{
+			@Override
+			public void visit(int[] counts, int rank)
+			{
+				values[rank] = estimate(counts);
+			}
+		});
+
+		return new LeaveTable(values);
+	}
+
+	/**
+	 *
+	 * @return The table shipped with the game, mapping it on first
+	 * use. If it is missing or invalid the heuristic estimates are
+	 * used instead.
+	 */
+	public static synchronized LeaveTable getShared()
+	{
+		if(sharedTable == null)
+		{
+			File tableFile = ResourceManager.getResourceFile(TABLE_DIR);
+
+			try
+			{
+				sharedTable = open(tableFile);
+			}
+			catch (IOException e)
+			{
+				System.err.println("Could not open leave table (" + e.getMessage() +
+								   "), using heuristic estimates");
+				sharedTable = fromEstimates();
+			}
+		}
+
+		return sharedTable;
+	}
+
+	/**
+	 * Receives every leave the tile distribution can produce
+	 */
+	public interface LeaveVisitor
+	{
+		/**
+		 *
+		 * @param counts Number of each letter in the leave (only valid during the call)
+		 * @param rank The leave's slot in the table
+		 */
+		void visit(int[] counts, int rank);
+	}
+
+	/**
+	 *
+	 * @param visitor Visited once for every leave of at most MAX_LEAVE
+	 * letters the game's tile distribution can produce
+	 */
+	public static void forEachLeave(LeaveVisitor visitor)
+	{
+		int[] limits = new int[LETTERS];
+
+		for(int symbol = 0; symbol < LETTERS; symbol++)
+		{
+			limits[symbol] = ScrabbleUtils.getNumberOf((char)('A' + symbol));
+		}
+
+		visitLeaves(visitor, limits, new int[LETTERS], 0, 0);
+	}
+
+	private static void visitLeaves(LeaveVisitor visitor, int[] limits, int[] counts, int symbol, int size)
+	{
+		if(symbol == LETTERS)
+		{
+			visitor.visit(counts, rank(counts));
+			return;
+		}
+
+		for(int count = 0; count <= limits[symbol] && size + count <= MAX_LEAVE; count++)
+		{
+			counts[symbol] = count;
+			visitLeaves(visitor, limits, counts, symbol + 1, size + count);
+		}
+
+		counts[symbol] = 0;
+	}
+
+	/**
+	 *
+	 * @param file The table to open
+	 * @return The memory-mapped leave table
+	 * @throws IOException if the file cannot be read, was written
+	 * by a different version or fails its checksum
+	 */
+	public static LeaveTable open(File file) throws IOException
+	{
+		MappedByteBuffer mapped;
+
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			if(channel.size() != HEADER_SIZE + 4L * ENTRIES)
+			{
+				throw new IOException("Invalid leave table size: " + channel.size());
+			}
+
+			mapped = channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+		if(buffer.getInt(0) != MAGIC)
+		{
+			throw new IOException("Not a leave table: " + file.getPath());
+		}
+
+		if(buffer.getInt(4) != VERSION || buffer.getInt(8) != ENTRIES)
+		{
+			throw new IOException("Unsupported leave table version " + buffer.getInt(4) +
+								  " (expected " + VERSION + ")");
+		}
+
+		ByteBuffer payload = buffer.duplicate();
+		payload.position(HEADER_SIZE);
+		payload = payload.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+		if(buffer.getInt(12) != computeChecksum(payload.duplicate()))
+		{
+			throw new IOException("Leave table checksum mismatch: " + file.getPath());
+		}
+
+		return new LeaveTable(payload.asFloatBuffer());
+	}
+
+	private static int computeChecksum(ByteBuffer payload)
+	{
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		return (int)crc.getValue();
+	}
+
+	private FloatBuffer values;
+
+	public LeaveTable(float[] values)
+	{
+		this(FloatBuffer.wrap(values));
+	}
+
+	private LeaveTable(FloatBuffer values)
+	{
+		this.values = values;
+	}
+
+	/**
+	 *
+	 * @param counts Number of each letter (index 0 = 'A') in the leave
+	 * @return The equity of keeping those tiles (0 for leaves
+	 * of more than MAX_LEAVE letters)
+	 */
+	public float valueOf(int[] counts)
+	{
+		int rank = rank(counts);
+		return rank < 0 ? 0 : values.get(rank);
+	}
+
+	/**
+	 *
+	 * @param rank A leave's slot (see rank())
+	 * @return The equity stored in that slot
+	 */
+	public float get(int rank)
+	{
+		return values.get(rank);
+	}
+
+	/**
+	 *
+	 * @param file The file to write the table to
+	 * @throws IOException if writing fails
+	 */
+	public void write(File file) throws IOException
+	{
+		ByteBuffer payload = ByteBuffer.allocate(4 * ENTRIES).order(ByteOrder.LITTLE_ENDIAN);
+
+		for(int i = 0; i < ENTRIES; i++)
+		{
+			payload.putFloat(values.get(i));
+		}
+
+		payload.flip();
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putInt(ENTRIES);
+		header.putInt(computeChecksum(payload.duplicate()));
+		header.flip();
+
+		try(FileOutputStream out = new FileOutputStream(file);
+			FileChannel channel = out.getChannel())
+		{
+			while(header.hasRemaining())
+			{
+				channel.write(header);
+			}
+
+			while(payload.hasRemaining())
+			{
+				channel.write(payload);
+			}
+		}
+	}
+}
@@ -0,0 +1,218 @@
+package com.myscrabble.util;
+
+import java.util.Collection;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Precomputed letter-count vectors for every word of the
+ * lexicon (indexed by the word's index in the Dawg). Each word
+ * carries its letter counts packed as 4-bit nibbles in two longs
+ * (A-P in the low long, Q-Z in the high long) and a 26-bit
+ * presence mask. Each nibble holds a 3-bit count with the top bit
+ * free as a borrow guard, so checking whether a word fits into a
+ * set of letters is a couple of subtractions and masks:
+ * <br> ((available | GUARD) - word) & GUARD == GUARD
+ * <br> holds exactly when no letter count of the word exceeds the
+ * available count. Words with more than 7 of a single letter are
+ * flagged as never formable.
+ */
+public class LetterVectors
+{
+	public static final int LETTERS_LO = 16;
+	public static final int MAX_COUNT  = 7;
+
+	/* The borrow guard bit of every nibble in use */
+	private static final long GUARD_LO = 0x8888888888888888L;
+	private static final long GUARD_HI = 0x0000008888888888L;
+
+	/* Presence mask bit that no set of letters ever has */
+	private static final int UNFORMABLE_BIT = 1 << 31;
+
+	private long[] countsLo;
+	private long[] countsHi;
+	private int[] masks;
+	private Dawg dawg;
+
+	public LetterVectors(Dawg dawg)
+	{
+		this.dawg = dawg;
+
+		int size = dawg.size();
+		countsLo = new long[size];
+		countsHi = new long[size];
+		masks = new int[size];
+
+		int[] counts = new int[AnagramIndex.ALPHABET_SIZE];
+		int index = 0;
+
+		for(String word : dawg)
+		{
+			for(int i = 0; i < word.length(); i++)
+			{
+				counts[word.charAt(i) - 'A']++;
+			}
+
+			int mask = presenceMask(counts);
+
+			for(int count : counts)
+			{
+				if(count > MAX_COUNT)
+				{
+					mask |= UNFORMABLE_BIT;
+				}
+			}
+
+			countsLo[index] = packLo(counts);
+			countsHi[index] = packHi(counts);
+			masks[index] = mask;
+
+			for(int i = 0; i < word.length(); i++)
+			{
+				counts[word.charAt(i) - 'A'] = 0;
+			}
+
+			index++;
+		}
+	}
+
+	/**
+	 *
+	 * @param rackCounts Number of each letter (index 0 = 'A') in the rack
+	 * @param extraCounts Number of each letter available outside the rack
+	 * @param minExtra Minimum number of extra letters a word must use
+	 * @param maxExtra Maximum number of extra letters a word may use
+	 * @param result Receives the Dawg index of every formable word.
+	 * The whole lexicon is scanned over the primitive arrays without
+	 * allocating anything besides the result entries.
+	 */
+	public void findWords(int[] rackCounts, int[] extraCounts, int minExtra, int maxExtra,
+						  Collection<Integer> result)
+	{
+		int[] total = new int[AnagramIndex.ALPHABET_SIZE];
+
+		for(int i = 0; i < total.length; i++)
+		{
+			total[i] = rackCounts[i] + extraCounts[i];
+		}
+
+		long rackLo  = packLo(rackCounts);
+		long rackHi  = packHi(rackCounts);
+		long totalLo = packLo(total) | GUARD_LO;
+		long totalHi = packHi(total) | GUARD_HI;
+		int allowed  = presenceMask(total);
+
+		long guardedRackLo = rackLo | GUARD_LO;
+		long guardedRackHi = rackHi | GUARD_HI;
+
+		for(int i = 0; i < masks.length; i++)
+		{
+			/* Cheapest rejection first: a letter that is not available at all */
+			if((masks[i] & ~allowed) != 0)
+			{
+				continue;
+			}
+
+			long wordLo = countsLo[i];
+			long wordHi = countsHi[i];
+
+			if((((totalLo - wordLo) & GUARD_LO) != GUARD_LO) ||
+			   (((totalHi - wordHi) & GUARD_HI) != GUARD_HI))
+			{
+				continue;
+			}
+
+			/* Nibbles whose guard got borrowed need letters from outside the rack */
+			long shortLo = ~(guardedRackLo - wordLo) & GUARD_LO;
+			long shortHi = ~(guardedRackHi - wordHi) & GUARD_HI;
+
+			int extraUsed = 0;
+
+			if((shortLo | shortHi) != 0)
+			{
+				extraUsed = deficit(shortLo, wordLo, rackLo) + deficit(shortHi, wordHi, rackHi);
+			}
+
+			if(extraUsed >= minExtra && extraUsed <= maxExtra)
+			{
+				result.add(i);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param rackCounts Number of each letter (index 0 = 'A') available
+	 * @param index The Dawg index of the word to check
+	 * @return Whether the word can be formed from the letters alone
+	 */
+	public boolean isFormable(int[] rackCounts, int index)
+	{
+		if((masks[index] & ~presenceMask(rackCounts)) != 0)
+		{
+			return false;
+		}
+
+		return (((packLo(rackCounts) | GUARD_LO) - countsLo[index]) & GUARD_LO) == GUARD_LO &&
+			   (((packHi(rackCounts) | GUARD_HI) - countsHi[index]) & GUARD_HI) == GUARD_HI;
+	}
+
+	public Dawg getDawg()
+	{
+		return dawg;
+	}
+
+	private static int deficit(long shortNibbles, long word, long rack)
+	{
+		int result = 0;
+
+		while(shortNibbles != 0)
+		{
+			int shift = Long.numberOfTrailingZeros(shortNibbles) - 3;
+			result += (int)((word >>> shift) & MAX_COUNT) - (int)((rack >>> shift) & MAX_COUNT);
+			shortNibbles &= shortNibbles - 1;
+		}
+
+		return result;
+	}
+
+	private static long packLo(int[] counts)
+	{
+		long result = 0;
+
+		for(int i = 0; i < LETTERS_LO; i++)
+		{
+			result |= (long)Math.min(counts[i], MAX_COUNT) << (4 * i);
+		}
+
+		return result;
+	}
+
+	private static long packHi(int[] counts)
+	{
+		long result = 0;
+
+		for(int i = LETTERS_LO; i < AnagramIndex.ALPHABET_SIZE; i++)
+		{
+			result |= (long)Math.min(counts[i], MAX_COUNT) << (4 * (i - LETTERS_LO));
+		}
+
+		return result;
+	}
+
+	private static int presenceMask(int[] counts)
+	{
+		int result = 0;
+
+		for(int i = 0; i < AnagramIndex.ALPHABET_SIZE; i++)
+		{
+			if(counts[i] > 0)
+			{
+				result |= 1 << i;
+			}
+		}
+
+		return result;
+	}
+}
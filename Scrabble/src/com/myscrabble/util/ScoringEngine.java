@@ -0,0 +1,153 @@
+package com.myscrabble.util;
+
+import com.myscrabble.entities.BoardState;
+import com.myscrabble.entities.PlacementValidator;
+import com.myscrabble.entities.TileRack;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Exact scoring of a placement over a BoardState: the main word
+ * along the placement's line plus every perpendicular cross-word
+ * formed by a newly placed tile. Premium squares only count under
+ * newly placed tiles, word multipliers multiply (a double and a
+ * triple word make x6) and placing a full rack earns the bingo bonus.
+ * Scoring works on integer squares and the occupancy queries of the
+ * state and allocates nothing, so it can be called in tight loops.
+ */
+public class ScoringEngine
+{
+	/* Points awarded for using all the tiles of a full rack */
+	public static final int BINGO_BONUS = 50;
+
+	private static final int SIZE = BoardState.SIZE;
+
+	private static final int[] letterValues;
+
+	static
+	{
+		letterValues = new int[26];
+
+		for(int i = 0; i < letterValues.length; i++)
+		{
+			letterValues[i] = ScrabbleUtils.getValueOf((char)('A' + i));
+		}
+	}
+
+	/**
+	 *
+	 * @param board The board with the placement's tiles already set on it
+	 * @param placedSquares Row-major squares of the newly placed tiles,
+	 * all in one row or column
+	 * @param count The number of newly placed tiles (entries of placedSquares used)
+	 * @return The score of the placement
+	 */
+	public static int score(BoardState board, int[] placedSquares, int count)
+	{
+		if(count == 0)
+		{
+			return 0;
+		}
+
+		/* Unaligned tiles form no proper word, score them along the first tile's row */
+		int dir = Math.max(PlacementValidator.getDirection(board, placedSquares, count), BoardState.ACROSS);
+
+		int other = 1 - dir;
+		int line = dir == BoardState.ACROSS ? placedSquares[0] / SIZE : placedSquares[0] % SIZE;
+
+		int min = SIZE;
+		int max = -1;
+
+		for(int i = 0; i < count; i++)
+		{
+			int pos = positionOf(dir, placedSquares[i]);
+			min = Math.min(min, pos);
+			max = Math.max(max, pos);
+		}
+
+		int start = min - board.filledBefore(dir, line, min);
+		int end = max + board.filledAfter(dir, line, max);
+
+		int mainSum = 0;
+		int mainMultiplier = 1;
+		int crossTotal = 0;
+
+		for(int pos = start; pos <= end; pos++)
+		{
+			int square = squareOf(dir, line, pos);
+
+			if(board.isEmpty(square))
+			{
+				continue;
+			}
+
+			int value = letterValues[board.getLetter(square) - 'A'];
+
+			if(!isPlaced(square, placedSquares, count))
+			{
+				mainSum += value;
+				continue;
+			}
+
+			int letterScore = value * BoardState.getLetterMultiplier(square);
+			int wordMultiplier = BoardState.getWordMultiplier(square);
+
+			mainSum += letterScore;
+			mainMultiplier *= wordMultiplier;
+
+			/* The perpendicular word through the tile, if any */
+			int crossStart = line - board.filledBefore(other, pos, line);
+			int crossEnd = line + board.filledAfter(other, pos, line);
+
+			if(crossStart == crossEnd)
+			{
+				continue;
+			}
+
+			int crossSum = letterScore;
+
+			for(int crossPos = crossStart; crossPos <= crossEnd; crossPos++)
+			{
+				if(crossPos != line)
+				{
+					crossSum += letterValues[board.getLetter(squareOf(other, pos, crossPos)) - 'A'];
+				}
+			}
+
+			crossTotal += crossSum * wordMultiplier;
+		}
+
+		int score = mainSum * mainMultiplier + crossTotal;
+
+		if(count == TileRack.MAX_NO_TILES)
+		{
+			score += BINGO_BONUS;
+		}
+
+		return score;
+	}
+
+	private static boolean isPlaced(int square, int[] placedSquares, int count)
+	{
+		for(int i = 0; i < count; i++)
+		{
+			if(placedSquares[i] == square)
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static int squareOf(int dir, int line, int pos)
+	{
+		return dir == BoardState.ACROSS ? line * SIZE + pos : pos * SIZE + line;
+	}
+
+	private static int positionOf(int dir, int square)
+	{
+		return dir == BoardState.ACROSS ? square % SIZE : square / SIZE;
+	}
+}
@@ -1,5 +1,9 @@
 package com.myscrabble.util;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -7,64 +11,155 @@ import java.util.Set;
 import com.myscrabble.managers.ResourceManager;
 
 /**
- * 
+ *
  * @author Alex Koukoulas
  * Class Description:
  * Scrabble dictionary saves all the valid words
  * contained in a predefined dictionary file and is
  * used to check the validity of players's input.
+ * The words are held in a minimized word graph (Dawg)
+ * and common words are flagged in a bit set indexed
+ * by each word's index in the graph. The lexicon is
+ * opened once from the precompiled dictionary image
+ * (see DictionaryCompiler) and shared by all instances.
  */
 public class ScrabbleDictionary
 {
     private static Set<String> commonPrefixes;
-    
+
     static
     {
         commonPrefixes = new HashSet<String>();
         commonPrefixes.add("S");  commonPrefixes.add("ED"); commonPrefixes.add("D");
         commonPrefixes.add("ER");
     }
-    
-	private static final String DICT_DIR = "/specs/dictionary.dict";
-	private static final String COMMON_DIR = "/specs/common.dict";
+
+	public static final String DICT_DIR = "/specs/dictionary.dict";
+	public static final String COMMON_DIR = "/specs/common.dict";
+	public static final String IMAGE_DIR = "/specs/dictionary.dawg";
+	public static final String GADDAG_DIR = "/specs/dictionary.gaddag";
+
+	/* The lexicon shared by every dictionary instance */
+	private static DictionaryImage sharedImage;
 	
-	private Set<String> words;
-	private Set<String> common;
+	/* Anagram index over the shared lexicon, built on first use */
+	private static AnagramIndex sharedAnagrams;
 	
-	private String mainContent;
-	private String commonContent;
+	/* Packed letter-count vectors of the shared lexicon, built on first use */
+	private static LetterVectors sharedVectors;
 	
-	public ScrabbleDictionary()
+	/* GADDAG of the shared lexicon, mapped on first use */
+	private static Gaddag sharedGaddag;
+
+	/**
+	 *
+	 * @return The shared lexicon, mapping the compiled image
+	 * on first use. If the image is missing or invalid the
+	 * lexicon is compiled from the text dictionaries instead.
+	 */
+	private static synchronized DictionaryImage getSharedImage()
 	{
-		loadContent();
-		createSets();
+		if(sharedImage == null)
+		{
+			File imageFile = ResourceManager.getResourceFile(IMAGE_DIR);
+
+			try
+			{
+				sharedImage = DictionaryImage.open(imageFile);
+			}
+			catch (IOException e)
+			{
+				System.err.println("Could not open dictionary image (" + e.getMessage() +
+								   "), compiling from text dictionaries");
+				sharedImage = compile();
+			}
+		}
+
+		return sharedImage;
 	}
 
-	private void loadContent()
+	/**
+	 *
+	 * @return A freshly compiled lexicon built from
+	 * the text dictionary files
+	 */
+	public static DictionaryImage compile()
 	{
-		mainContent = ResourceManager.loadFileAsString(DICT_DIR);
-		commonContent = ResourceManager.loadFileAsString(COMMON_DIR);
+		Dawg words = Dawg.fromWords(ResourceManager.loadFileAsLines(DICT_DIR));
+		BitSet common = new BitSet(words.size());
+
+		for(String word : ResourceManager.loadFileAsLines(COMMON_DIR))
+		{
+			int index = words.indexOf(word.trim().toUpperCase());
+
+			/* Common words missing from the main dictionary can never be played */
+			if(index >= 0)
+			{
+				common.set(index);
+			}
+		}
+
+		return new DictionaryImage(words, common);
 	}
-	
-	private void createSets()
+
+	private static synchronized AnagramIndex getSharedAnagrams()
 	{
-		words = new HashSet<String>();
-		
-		for(String word : mainContent.split(System.lineSeparator()))
+		if(sharedAnagrams == null)
 		{
-			words.add(word.toUpperCase());
+			sharedAnagrams = new AnagramIndex(getSharedImage().getDawg());
 		}
 		
-		common = new HashSet<String>();
+		return sharedAnagrams;
+	}
+	
+	private static synchronized LetterVectors getSharedVectors()
+	{
+		if(sharedVectors == null)
+		{
+			sharedVectors = new LetterVectors(getSharedImage().getDawg());
+		}
 		
-		for(String word : commonContent.split(System.lineSeparator()))
+		return sharedVectors;
+	}
+	
+	/**
+	 *
+	 * @return The GADDAG of the shared lexicon, mapping its compiled
+	 * image on first use. If the image is missing or invalid the
+	 * GADDAG is built from the lexicon instead.
+	 */
+	public static synchronized Gaddag getGaddag()
+	{
+		if(sharedGaddag == null)
 		{
-			common.add(word.toUpperCase());
+			File gaddagFile = ResourceManager.getResourceFile(GADDAG_DIR);
+			
+			try
+			{
+				sharedGaddag = Gaddag.open(gaddagFile);
+			}
+			catch (IOException e)
+			{
+				System.err.println("Could not open GADDAG image (" + e.getMessage() +
+								   "), building it from the lexicon");
+				sharedGaddag = Gaddag.fromDawg(getSharedImage().getDawg());
+			}
 		}
+		
+		return sharedGaddag;
 	}
 	
+	private DictionaryImage image;
+	private Dawg words;
+
+	public ScrabbleDictionary()
+	{
+		image = getSharedImage();
+		words = image.getDawg();
+	}
+
 	/**
-	 * 
+	 *
 	 * @return The whole set
 	 * of words
 	 */
@@ -72,15 +167,24 @@ public class ScrabbleDictionary
 	{
 		return words.iterator();
 	}
-	
-    
+
+	/**
+	 *
+	 * @return The word graph backing this dictionary
+	 * for prefix walks (e.g. move generation)
+	 */
+	public Dawg getDawg()
+	{
+		return words;
+	}
+
 	public Iterator<String> getCommonPrefixes()
 	{
 	    return commonPrefixes.iterator();
 	}
-	
+
 	/**
-	 * 
+	 *
 	 * @param word String word to check.
 	 * @return Whether that word is a valid
 	 * choice for the game.
@@ -89,15 +193,103 @@ public class ScrabbleDictionary
 	{
 		return words.contains(word);
 	}
-	
+
 	/**
-	 * 
-	 * @param word to check 
+	 *
+	 * @param word to check
 	 * @return whether the word is present
 	 * in the common words dictionary
 	 */
 	public boolean isCommon(String word)
 	{
-		return common.contains(word);
+		return image.isCommon(words.indexOf(word));
+	}
+
+	/**
+	 *
+	 * @param prefix to check
+	 * @return whether any valid word
+	 * starts with the given prefix
+	 */
+	public boolean hasPrefix(String prefix)
+	{
+		return words.hasPrefix(prefix);
+	}
+
+	/**
+	 *
+	 * @param node A node of the word graph (see getDawg())
+	 * @return A 26-bit mask of the letters that can follow
+	 * the prefix that node represents (bit 0 = 'A')
+	 */
+	public int children(int node)
+	{
+		return words.children(node);
+	}
+
+	/**
+	 * 
+	 * @param rackLetters The letters of the rack
+	 * @param extraLetters Letters available outside the rack (e.g. board letters)
+	 * @param minExtra Minimum number of extra letters each word must use
+	 * @param maxExtra Maximum number of extra letters each word may use
+	 * @return Every word that can be formed from the rack letters plus
+	 * between minExtra and maxExtra of the extra letters, found by enumerating
+	 * the sub-multisets of the letters in the anagram index rather than
+	 * scanning the whole dictionary.
+	 */
+	public ArrayList<String> getAnagrams(String rackLetters, String extraLetters, int minExtra, int maxExtra)
+	{
+		ArrayList<Integer> indices = new ArrayList<>();
+		
+		getSharedAnagrams().findWords(AnagramIndex.countLetters(rackLetters),
+									  AnagramIndex.countLetters(extraLetters),
+									  minExtra, maxExtra, indices);
+		
+		ArrayList<String> result = new ArrayList<>(indices.size());
+		
+		for(int index : indices)
+		{
+			result.add(words.getWord(index));
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * 
+	 * @param rackCounts The number of each letter (index 0 = 'A') in the rack
+	 * @param extraLetters The number of each letter available outside the rack
+	 * @return Every word that can be formed from the rack plus any of the
+	 * extra letters, found with a bulk scan of the packed letter-count vectors
+	 */
+	public ArrayList<String> wordsFormableFrom(int[] rackCounts, int[] extraLetters)
+	{
+		return wordsFormableFrom(rackCounts, extraLetters, 0, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * 
+	 * @param rackCounts The number of each letter (index 0 = 'A') in the rack
+	 * @param extraLetters The number of each letter available outside the rack
+	 * @param minExtra Minimum number of extra letters each word must use
+	 * @param maxExtra Maximum number of extra letters each word may use
+	 * @return Every word that can be formed from the rack plus between
+	 * minExtra and maxExtra of the extra letters
+	 */
+	public ArrayList<String> wordsFormableFrom(int[] rackCounts, int[] extraLetters, int minExtra, int maxExtra)
+	{
+		ArrayList<Integer> indices = new ArrayList<>();
+		
+		getSharedVectors().findWords(rackCounts, extraLetters, minExtra, maxExtra, indices);
+		
+		ArrayList<String> result = new ArrayList<>(indices.size());
+		
+		for(int index : indices)
+		{
+			result.add(words.getWord(index));
+		}
+		
+		return result;
 	}
 }
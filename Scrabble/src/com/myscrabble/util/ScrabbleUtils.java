@@ -1,13 +1,12 @@
 package com.myscrabble.util;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.Random;
+import java.util.SplittableRandom;
 
+import com.myscrabble.entities.Board;
 import com.myscrabble.entities.LetterTile;
 import com.myscrabble.entities.Tile;
-import com.myscrabble.entities.TileFormation;
 import com.myscrabble.entities.Tilemap;
 
 /**
@@ -182,9 +181,11 @@ public class ScrabbleUtils
 	 * 
 	 * @param candidates The list of words to extract a random common word from.
 	 * @param scrabbleDict Scrabble dictionary to extract common words.
+	 * @param random The generator picking the word.
 	 * @return a random common word found in the supplied words list.
 	 */
-	public static String getRandomCommon(ArrayList<String> candidates, ScrabbleDictionary scrabbleDict)
+	public static String getRandomCommon(ArrayList<String> candidates, ScrabbleDictionary scrabbleDict,
+										 SplittableRandom random)
 	{
 		ArrayList<String> validCommonWords = new ArrayList<>();
 		
@@ -198,10 +199,10 @@ public class ScrabbleUtils
 		
 		if(validCommonWords.size() == 0)
 		{
-			return getRandomWord(candidates);
+			return getRandomWord(candidates, random);
 		}
 		
-		int randomIndex = new Random().nextInt(validCommonWords.size());
+		int randomIndex = random.nextInt(validCommonWords.size());
 		
 		return validCommonWords.get(randomIndex);
 	}
@@ -211,43 +212,16 @@ public class ScrabbleUtils
 	/**
 	 * 
 	 * @param candidates The list of words to extract a random word from.
+	 * @param random The generator picking the word.
 	 * @return A random word from the list of words supplied.
 	 */
-	public static String getRandomWord(ArrayList<String> candidates)
+	public static String getRandomWord(ArrayList<String> candidates, SplittableRandom random)
 	{
-		int randomIndex = new Random().nextInt(candidates.size());
+		int randomIndex = random.nextInt(candidates.size());
 		
 		return candidates.get(randomIndex);
 	}
 	
-	/**
-	 * 
-	 * @param letterTiles ArrayList of Letter Tiles to feed the data from
-	 * @param direction the direction of the letter tiles
-	 * @return the ascending coordinates of all the letters tiles
-	 * in the supplied array list
-	 */
-	public static ArrayList<Float> getAscendingPositions(ArrayList<LetterTile> letterTiles, int direction)
-	{
-		ArrayList<Float> result = new ArrayList<>();
-		
-		for(LetterTile letterTile : letterTiles)
-		{
-			if(direction == TileFormation.HORIZONTAL)
-			{
-				result.add(letterTile.getX());
-			}
-			else
-			{
-				result.add(letterTile.getY());
-			}
-		}
-		
-		Collections.sort(result);
-
-		return result;
-	}
-	
 	public static String getTimeRepresentation(int time)
 	{
 	    int secondsInAMinute = 60;
@@ -267,69 +241,29 @@ public class ScrabbleUtils
 	
 	/**
 	 * 
-	 * @param t1 
-	 * @param t2
-	 * @return absolute horizontal distance between the two letter tiles
-	 */
-	public static float xDistanceBetween(LetterTile t1, LetterTile t2)
-	{
-		return (float)Math.abs(t1.getX() - t2.getX());
-	}
-	
-	/**
-	 * 
-	 * @param t1 
-	 * @param t2
-	 * @return absolute vertical distance between the two letter tiles
-	 */
-	public static float yDistanceBetween(LetterTile t1, LetterTile t2)
-	{
-		return (float)Math.abs(t1.getY() - t2.getY());
-	}
-	
-	/**
-	 * 
-	 * @param tileFormation The tiles to be evaluated
-	 * @return the total points of the word that
-	 * the tiles produce along with any modifiers in the board
-	 * (double word, triple letter etc.)
+	 * @param letterTiles The tiles of the formation to be evaluated,
+	 * on the tile map (neutral tiles are the ones already played)
+	 * @return the total points of the placement: its word and every
+	 * cross-word it forms, with the modifiers (double word, triple
+	 * letter etc.) of the squares under the newly placed tiles and
+	 * the bingo bonus (see ScoringEngine)
 	 */
 	public static int calculatePoints(ArrayList<LetterTile> letterTiles, Tilemap tilemap)
 	{
-	    int result = 0;
-	    int modifier = 0;
+	    int[] placedSquares = new int[letterTiles.size()];
+	    int count = 0;
 	    
 	    for(LetterTile letterTile : letterTiles)
 	    {
-	        
-	        int letterPoints = letterTile.getPoints();
-	        int tileType = tilemap.getLetterTileHolder(letterTile).getType();
-	        
-	        if(tileType == Tile.DOUBLE_LETTER || tileType == Tile.TRIPLE_LETTER)
+	        if(letterTile.isNeutral())
 	        {
-	            result += letterPoints * tileType;
-	        }
-	        else
-	        {
-	            result += letterPoints;
+	            continue;
 	        }
 	        
-	        if(tileType == Tile.DOUBLE_WORD || tileType == Tile.MIDDLE_TILE)
-	        {
-	            modifier += 2; 
-	        }
-	        else if(tileType == Tile.TRIPLE_WORD)
-	        {
-	            modifier += 3;
-	        }
-	        
-	    }
-	    
-	    if(modifier > 0)
-	    {
-	        result *= modifier;
+	        Tile holder = tilemap.getLetterTileHolder(letterTile);
+	        placedSquares[count++] = holder.getRow() * Board.BOARD_COLS + holder.getCol();
 	    }
 	    
-	    return result;
+	    return ScoringEngine.score(tilemap.getState(), placedSquares, count);
 	}
 }
@@ -0,0 +1,141 @@
+package com.myscrabble.util;
+
+import java.util.SplittableRandom;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Zobrist keys for hashing game positions: one random key
+ * per (square, letter, owner), per (player, letter, rack count)
+ * and one for the side to move. A tile's owner is the player whose
+ * pending (not yet played) move it belongs to, or NEUTRAL once it
+ * has been played, so a board of played tiles hashes the same
+ * whoever placed them. A position's hash is the XOR of the keys of
+ * its features, so placing or removing a tile (or changing a rack)
+ * updates it with a single XOR per changed feature. The keys come
+ * from a fixed seed so hashes are identical between runs.
+ */
+public class Zobrist
+{
+	public static final int SQUARES = 15 * 15;
+	public static final int LETTERS = 26;
+	public static final int PLAYERS = 2;
+
+	/* Owner of the tiles already played (player i's pending tiles are owner i + 1) */
+	public static final int NEUTRAL = 0;
+	public static final int OWNERS = PLAYERS + 1;
+
+	/* Largest number of copies of a letter a rack can hold */
+	public static final int MAX_RACK_COUNT = 7;
+
+	private static final long SEED = 0x5C4AB8EL;
+
+	private static final long[] squareKeys;
+	private static final long[] rackKeys;
+	private static final long sideKey;
+
+	static
+	{
+		SplittableRandom random = new SplittableRandom(SEED);
+
+		squareKeys = new long[OWNERS * SQUARES * LETTERS];
+		rackKeys = new long[PLAYERS * LETTERS * (MAX_RACK_COUNT + 1)];
+
+		for(int i = 0; i < squareKeys.length; i++)
+		{
+			squareKeys[i] = random.nextLong();
+		}
+
+		for(int i = 0; i < rackKeys.length; i++)
+		{
+			/* A count of zero contributes nothing */
+			rackKeys[i] = i % (MAX_RACK_COUNT + 1) == 0 ? 0 : random.nextLong();
+		}
+
+		sideKey = random.nextLong();
+	}
+
+	/**
+	 *
+	 * @param square Row-major index of the square
+	 * @param letter The letter on the square ('A'-'Z')
+	 * @return The key of that letter lying played on that square
+	 */
+	public static long square(int square, char letter)
+	{
+		return square(square, letter, NEUTRAL);
+	}
+
+	/**
+	 *
+	 * @param square Row-major index of the square
+	 * @param letter The letter on the square ('A'-'Z')
+	 * @param owner NEUTRAL for a played tile, player + 1 for a pending one
+	 * @return The key of that tile lying on that square
+	 */
+	public static long square(int square, char letter, int owner)
+	{
+		return squareKeys[(owner * SQUARES + square) * LETTERS + letter - 'A'];
+	}
+
+	/**
+	 *
+	 * @param player Index of the player (0 or 1)
+	 * @param symbol The letter (0 = 'A')
+	 * @param count Number of copies of the letter in the player's rack
+	 * @return The key of the rack holding exactly that many copies
+	 */
+	public static long rack(int player, int symbol, int count)
+	{
+		return rackKeys[(player * LETTERS + symbol) * (MAX_RACK_COUNT + 1) + Math.min(count, MAX_RACK_COUNT)];
+	}
+
+	/**
+	 *
+	 * @return The key XORed in when the
+	 * second player is to move
+	 */
+	public static long side()
+	{
+		return sideKey;
+	}
+
+	/**
+	 *
+	 * @param squares Row-major letters of a board (0 if empty)
+	 * @return The hash of the board's tiles alone
+	 */
+	public static long hashBoard(char[] squares)
+	{
+		long hash = 0;
+
+		for(int square = 0; square < squares.length; square++)
+		{
+			if(squares[square] != 0)
+			{
+				hash ^= square(square, squares[square]);
+			}
+		}
+
+		return hash;
+	}
+
+	/**
+	 *
+	 * @param player Index of the player (0 or 1)
+	 * @param rackCounts Number of each letter (index 0 = 'A') in the rack
+	 * @return The hash of the player's rack alone
+	 */
+	public static long hashRack(int player, int[] rackCounts)
+	{
+		long hash = 0;
+
+		for(int symbol = 0; symbol < LETTERS; symbol++)
+		{
+			hash ^= rack(player, symbol, rackCounts[symbol]);
+		}
+
+		return hash;
+	}
+}
@@ -0,0 +1,292 @@
+package com.myscrabble.ai;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.myscrabble.entities.BoardState;
+import com.myscrabble.entities.TileRack;
+import com.myscrabble.util.AnagramIndex;
+import com.myscrabble.util.Dawg;
+import com.myscrabble.util.ScrabbleDictionary;
+import com.myscrabble.util.ScrabbleUtils;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Checks the incremental upkeep of the move generator's state. A
+ * single CrossChecks (and a single MoveGenerator) follows seeded
+ * self-play games whose moves are sometimes taken back and whose racks
+ * are sometimes searched twice; after every change its anchors and
+ * cross-checks must equal those recomputed from scratch for the board,
+ * and its moves those of a generator that has never seen another board.
+ */
+public class CrossChecksTest
+{
+	private static final long SEED = 1L;
+	private static final int GAMES = 4;
+	private static final int TURNS = 30;
+
+	/* Chance of taking the last move back instead of playing one */
+	private static final double UNDO_CHANCE = 0.2;
+
+	private static final int ALL_LETTERS = (1 << AnagramIndex.ALPHABET_SIZE) - 1;
+
+	private static Dawg dawg;
+
+	@BeforeClass
+	public static void loadDictionary()
+	{
+		dawg = new ScrabbleDictionary().getDawg();
+	}
+
+	@Test
+	public void incrementalStateMatchesRecomputation()
+	{
+		CrossChecks crossChecks = new CrossChecks(dawg);
+
+		for(char[] board : playGames())
+		{
+			crossChecks.update(board);
+			String position = describe(board);
+
+			for(int square = 0; square < MoveGenerator.SQUARES; square++)
+			{
+				assertEquals("anchor " + square + " of " + position, isAnchor(board, square),
+							 crossChecks.getAnchors()[square]);
+
+				for(int dir = MoveGenerator.ACROSS; dir <= MoveGenerator.DOWN; dir++)
+				{
+					assertEquals("cross-check " + dir + "/" + square + " of " + position,
+								 crossMask(board, dir, square), crossChecks.getCrossMasks()[dir][square]);
+					assertEquals("cross score " + dir + "/" + square + " of " + position,
+								 crossScore(board, dir, square), crossChecks.getCrossScores()[dir][square]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void incrementalGenerationMatchesAFreshGenerator()
+	{
+		MoveGenerator generator = new MoveGenerator(dawg);
+		Random random = new Random(SEED + 1);
+		int[] rack = drawRack(random);
+
+		for(char[] board : playGames())
+		{
+			/* Half the positions are searched with the rack of the one before */
+			if(random.nextBoolean())
+			{
+				rack = drawRack(random);
+			}
+
+			assertEquals("moves of " + describe(board), new MoveGenerator(dawg).generate(board, rack),
+						 generator.generate(board, rack));
+		}
+	}
+
+	/**
+	 *
+	 * @return Every position of a few seeded self-play games, in the
+	 * order they were reached (moves taken back included)
+	 */
+	private static ArrayList<char[]> playGames()
+	{
+		MoveGenerator generator = new MoveGenerator(dawg);
+		Random random = new Random(SEED);
+		ArrayList<char[]> positions = new ArrayList<>();
+
+		for(int game = 0; game < GAMES; game++)
+		{
+			ArrayList<char[]> history = new ArrayList<>();
+			char[] board = new char[MoveGenerator.SQUARES];
+			positions.add(board.clone());
+
+			for(int turn = 0; turn < TURNS; turn++)
+			{
+				if(!history.isEmpty() && random.nextDouble() < UNDO_CHANCE)
+				{
+					board = history.remove(history.size() - 1);
+					positions.add(board.clone());
+					continue;
+				}
+
+				ArrayList<Move> moves = generator.generate(board, drawRack(random));
+
+				if(moves.isEmpty())
+				{
+					break;
+				}
+
+				history.add(board.clone());
+				moves.get(random.nextInt(Math.min(3, moves.size()))).placeOn(board);
+				positions.add(board.clone());
+			}
+		}
+
+		return positions;
+	}
+
+	private static boolean isAnchor(char[] board, int square)
+	{
+		if(board[square] != 0)
+		{
+			return false;
+		}
+
+		boolean emptyBoard = true;
+
+		for(char letter : board)
+		{
+			emptyBoard &= letter == 0;
+		}
+
+		if(emptyBoard)
+		{
+			return square == BoardState.CENTRE;
+		}
+
+		int row = square / MoveGenerator.SIZE;
+		int col = square % MoveGenerator.SIZE;
+
+		return isFilled(board, row - 1, col) || isFilled(board, row + 1, col) ||
+			   isFilled(board, row, col - 1) || isFilled(board, row, col + 1);
+	}
+
+	/**
+	 *
+	 * @return The letters allowed on the square by the word they would
+	 * form across the direction of the main word, found by looking up
+	 * every letter in turn
+	 */
+	private static int crossMask(char[] board, int dir, int square)
+	{
+		if(board[square] != 0)
+		{
+			return 0;
+		}
+
+		String prefix = perpendicularRun(board, dir, square, -1);
+		String suffix = perpendicularRun(board, dir, square, 1);
+
+		if(prefix.isEmpty() && suffix.isEmpty())
+		{
+			return ALL_LETTERS;
+		}
+
+		int mask = 0;
+
+		for(char letter = 'A'; letter <= 'Z'; letter++)
+		{
+			if(dawg.contains(prefix + letter + suffix))
+			{
+				mask |= 1 << (letter - 'A');
+			}
+		}
+
+		return mask;
+	}
+
+	private static int crossScore(char[] board, int dir, int square)
+	{
+		String run = perpendicularRun(board, dir, square, -1) + perpendicularRun(board, dir, square, 1);
+
+		if(board[square] != 0 || run.isEmpty())
+		{
+			return CrossChecks.NO_CROSS;
+		}
+
+		int sum = 0;
+
+		for(int i = 0; i < run.length(); i++)
+		{
+			sum += ScrabbleUtils.getValueOf(run.charAt(i));
+		}
+
+		return sum;
+	}
+
+	/**
+	 *
+	 * @param step -1 for the letters before the square, 1 for those after
+	 * @return The letters next to the square, in reading order, along
+	 * the line perpendicular to the main word's direction
+	 */
+	private static String perpendicularRun(char[] board, int dir, int square, int step)
+	{
+		int row = square / MoveGenerator.SIZE;
+		int col = square % MoveGenerator.SIZE;
+		StringBuilder run = new StringBuilder();
+
+		while(true)
+		{
+			if(dir == MoveGenerator.ACROSS)
+			{
+				row += step;
+			}
+			else
+			{
+				col += step;
+			}
+
+			if(!isFilled(board, row, col))
+			{
+				break;
+			}
+
+			run.append(board[row * MoveGenerator.SIZE + col]);
+		}
+
+		return step < 0 ? run.reverse().toString() : run.toString();
+	}
+
+	private static boolean isFilled(char[] board, int row, int col)
+	{
+		return row >= 0 && col >= 0 && row < MoveGenerator.SIZE && col < MoveGenerator.SIZE &&
+			   board[row * MoveGenerator.SIZE + col] != 0;
+	}
+
+	private static String describe(char[] board)
+	{
+		StringBuilder result = new StringBuilder();
+
+		for(char letter : board)
+		{
+			result.append(letter == 0 ? '.' : letter);
+		}
+
+		return result.toString();
+	}
+
+	private static int[] drawRack(Random random)
+	{
+		int[] rack = new int[AnagramIndex.ALPHABET_SIZE];
+		int bagSize = 0;
+
+		for(char letter = 'A'; letter <= 'Z'; letter++)
+		{
+			bagSize += ScrabbleUtils.getNumberOf(letter);
+		}
+
+		for(int i = 0; i < TileRack.MAX_NO_TILES; i++)
+		{
+			int tile = random.nextInt(bagSize);
+			char letter = 'A';
+
+			while(tile >= ScrabbleUtils.getNumberOf(letter))
+			{
+				tile -= ScrabbleUtils.getNumberOf(letter++);
+			}
+
+			rack[letter - 'A']++;
+		}
+
+		return rack;
+	}
+}
@@ -0,0 +1,230 @@
+package com.myscrabble.ai;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.myscrabble.util.AnagramIndex;
+import com.myscrabble.util.ScrabbleDictionary;
+import com.myscrabble.util.ScrabbleUtils;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Checks EndgameSolver against a plain minimax over every move and
+ * pass of both players, scored with the same end of game rules, on
+ * small endgames: 2 or 3 tiles between the two racks on the boards
+ * of a few seeded self-play games. The solver's spread must be the
+ * minimax value and the move it returns must secure that spread.
+ */
+public class EndgameSolverTest
+{
+	private static final long SEED = 1L;
+	private static final int GAMES = 4;
+	private static final int TURNS = 8;
+	private static final int ENDGAMES_PER_BOARD = 12;
+
+	/* Tiles on each rack: every endgame has 2 or 3 tiles in all */
+	private static final int[][] RACK_SIZES = { { 1, 1 }, { 2, 1 }, { 1, 2 } };
+
+	private static MoveGenerator generator;
+	private static ArrayList<char[]> boards;
+
+	/* Minimax values of the positions already searched, keyed by position */
+	private HashMap<String, Integer> values = new HashMap<>();
+
+	@BeforeClass
+	public static void playGames()
+	{
+		generator = new MoveGenerator(new ScrabbleDictionary().getDawg());
+		boards = new ArrayList<>();
+		Random random = new Random(SEED);
+
+		for(int game = 0; game < GAMES; game++)
+		{
+			char[] board = new char[MoveGenerator.SQUARES];
+
+			for(int turn = 0; turn < TURNS; turn++)
+			{
+				ArrayList<Move> moves = generator.generate(board, drawRack(random, 7));
+
+				if(moves.isEmpty())
+				{
+					break;
+				}
+
+				moves.get(random.nextInt(Math.min(3, moves.size()))).placeOn(board);
+			}
+
+			boards.add(board);
+		}
+	}
+
+	@Test
+	public void solvesSmallEndgamesAsMinimax()
+	{
+		Random random = new Random(SEED);
+		EndgameSolver solver = new EndgameSolver(new MoveGenerator(generator.getDawg()));
+
+		for(char[] board : boards)
+		{
+			for(int i = 0; i < ENDGAMES_PER_BOARD; i++)
+			{
+				int[] sizes = RACK_SIZES[i % RACK_SIZES.length];
+				int[][] racks = { drawRack(random, sizes[0]), drawRack(random, sizes[1]) };
+
+				int expected = minimax(board, racks, 0, 0);
+				Move move = solver.solve(board, racks[0], racks[1], AnytimeSearch.NO_TIME_LIMIT,
+										 EndgameSolver.NO_NODE_LIMIT, new Cancellation());
+				String endgame = describe(board, racks);
+
+				assertEquals("spread of " + endgame, expected, solver.getLastSpread());
+				assertEquals("spread secured by " + (move == null ? "passing" : move.toString()) + " in " + endgame,
+							 expected, move == null ? passValue(board, racks, 0, 0) : playValue(board, racks, 0, move));
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return The best spread the side to move can secure from now
+	 * until the end of the game, searching every move and pass
+	 */
+	private int minimax(char[] board, int[][] racks, int side, int passes)
+	{
+		String key = describe(board, racks) + side + passes;
+		Integer known = values.get(key);
+
+		if(known != null)
+		{
+			return known;
+		}
+
+		int best = passValue(board, racks, side, passes);
+
+		for(Move move : generator.generate(board, racks[side]))
+		{
+			best = Math.max(best, playValue(board, racks, side, move));
+		}
+
+		values.put(key, best);
+		return best;
+	}
+
+	private int playValue(char[] board, int[][] racks, int side, Move move)
+	{
+		char[] after = board.clone();
+		int[][] racksAfter = { racks[0].clone(), racks[1].clone() };
+
+		move.placeOn(after);
+
+		for(int i = 0; i < move.getWord().length(); i++)
+		{
+			if(move.isPlaced(i))
+			{
+				racksAfter[side][move.getWord().charAt(i) - 'A']--;
+			}
+		}
+
+		if(isEmpty(racksAfter[side]))
+		{
+			/* Went out: the opponent's rack counts for the mover and against the opponent */
+			return move.getScore() + 2 * rackValue(racks[1 - side]);
+		}
+
+		return move.getScore() - minimax(after, racksAfter, 1 - side, 0);
+	}
+
+	private int passValue(char[] board, int[][] racks, int side, int passes)
+	{
+		if(passes + 1 >= EndgameSolver.PASSES_ENDING_GAME)
+		{
+			/* Game over: both players lose their rack's value */
+			return rackValue(racks[1 - side]) - rackValue(racks[side]);
+		}
+
+		return -minimax(board, racks, 1 - side, passes + 1);
+	}
+
+	private static int rackValue(int[] rack)
+	{
+		int value = 0;
+
+		for(int symbol = 0; symbol < rack.length; symbol++)
+		{
+			value += rack[symbol] * ScrabbleUtils.getValueOf((char)('A' + symbol));
+		}
+
+		return value;
+	}
+
+	private static boolean isEmpty(int[] rack)
+	{
+		for(int count : rack)
+		{
+			if(count > 0)
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static String describe(char[] board, int[][] racks)
+	{
+		StringBuilder result = new StringBuilder();
+
+		for(char letter : board)
+		{
+			result.append(letter == 0 ? '.' : letter);
+		}
+
+		for(int[] rack : racks)
+		{
+			result.append(' ');
+
+			for(int symbol = 0; symbol < rack.length; symbol++)
+			{
+				for(int i = 0; i < rack[symbol]; i++)
+				{
+					result.append((char)('A' + symbol));
+				}
+			}
+		}
+
+		return result.toString();
+	}
+
+	private static int[] drawRack(Random random, int size)
+	{
+		int[] rack = new int[AnagramIndex.ALPHABET_SIZE];
+		int bagSize = 0;
+
+		for(char letter = 'A'; letter <= 'Z'; letter++)
+		{
+			bagSize += ScrabbleUtils.getNumberOf(letter);
+		}
+
+		for(int i = 0; i < size; i++)
+		{
+			int tile = random.nextInt(bagSize);
+			char letter = 'A';
+
+			while(tile >= ScrabbleUtils.getNumberOf(letter))
+			{
+				tile -= ScrabbleUtils.getNumberOf(letter++);
+			}
+
+			rack[letter - 'A']++;
+		}
+
+		return rack;
+	}
+}
@@ -0,0 +1,130 @@
+package com.myscrabble.ai;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.myscrabble.entities.TileRack;
+import com.myscrabble.util.AnagramIndex;
+import com.myscrabble.util.Dawg;
+import com.myscrabble.util.ScrabbleDictionary;
+import com.myscrabble.util.ScrabbleUtils;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Checks the GADDAG move generation against the DAWG one: on every
+ * position of a few seeded self-play games, searched with random
+ * racks, both must generate the same moves with the same scores, in
+ * the same order.
+ */
+public class GaddagMoveGeneratorTest
+{
+	private static final long SEED = 1L;
+	private static final int GAMES = 6;
+	private static final int TURNS = 25;
+	private static final int RACKS_PER_POSITION = 2;
+
+	private static Dawg dawg;
+
+	@BeforeClass
+	public static void loadDictionary()
+	{
+		dawg = new ScrabbleDictionary().getDawg();
+	}
+
+	@Test
+	public void generatesTheMovesOfTheDawgGenerator()
+	{
+		MoveGenerator dawgGenerator = new MoveGenerator(dawg);
+		MoveGenerator gaddagGenerator = new GaddagMoveGenerator(dawg, ScrabbleDictionary.getGaddag());
+		Random random = new Random(SEED);
+
+		for(int game = 0; game < GAMES; game++)
+		{
+			char[] board = new char[MoveGenerator.SQUARES];
+
+			for(int turn = 0; turn < TURNS; turn++)
+			{
+				ArrayList<Move> expected = null;
+
+				for(int i = 0; i < RACKS_PER_POSITION; i++)
+				{
+					int[] rack = drawRack(random);
+					String position = describe(board, rack);
+
+					expected = new ArrayList<>(dawgGenerator.generate(board, rack));
+					ArrayList<Move> actual = gaddagGenerator.generate(board, rack);
+
+					assertEquals("moves of " + position, expected, actual);
+
+					for(int m = 0; m < expected.size(); m++)
+					{
+						assertEquals("score of " + expected.get(m) + " in " + position,
+									 expected.get(m).getScore(), actual.get(m).getScore());
+					}
+				}
+
+				if(expected.isEmpty())
+				{
+					break;
+				}
+
+				expected.get(random.nextInt(Math.min(3, expected.size()))).placeOn(board);
+			}
+		}
+	}
+
+	private static String describe(char[] board, int[] rack)
+	{
+		StringBuilder result = new StringBuilder();
+
+		for(char letter : board)
+		{
+			result.append(letter == 0 ? '.' : letter);
+		}
+
+		result.append(' ');
+
+		for(int symbol = 0; symbol < rack.length; symbol++)
+		{
+			for(int i = 0; i < rack[symbol]; i++)
+			{
+				result.append((char)('A' + symbol));
+			}
+		}
+
+		return result.toString();
+	}
+
+	private static int[] drawRack(Random random)
+	{
+		int[] rack = new int[AnagramIndex.ALPHABET_SIZE];
+		int bagSize = 0;
+
+		for(char letter = 'A'; letter <= 'Z'; letter++)
+		{
+			bagSize += ScrabbleUtils.getNumberOf(letter);
+		}
+
+		for(int i = 0; i < TileRack.MAX_NO_TILES; i++)
+		{
+			int tile = random.nextInt(bagSize);
+			char letter = 'A';
+
+			while(tile >= ScrabbleUtils.getNumberOf(letter))
+			{
+				tile -= ScrabbleUtils.getNumberOf(letter++);
+			}
+
+			rack[letter - 'A']++;
+		}
+
+		return rack;
+	}
+}
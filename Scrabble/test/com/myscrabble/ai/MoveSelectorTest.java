@@ -0,0 +1,140 @@
+package com.myscrabble.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.myscrabble.ai.AIController.AILevel;
+import com.myscrabble.ai.AIController.MoveGeneration;
+import com.myscrabble.entities.BagState;
+import com.myscrabble.util.AnagramIndex;
+import com.myscrabble.util.ScrabbleDictionary;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Checks the cancellation of HARD move selections: a selection
+ * cancelled before its search has started returns at once instead
+ * of using up its budget (1.5 s of simulation, or 5 s for an
+ * endgame), and a cancellation never reaches a later selection.
+ */
+public class MoveSelectorTest
+{
+	private static final long SEED = 1L;
+
+	/* Well under the budgets, so only a search that stopped at once passes */
+	private static final long CANCELLED_MILLIS = 500;
+
+	private static final String RACK = "AEINRST";
+	private static final String OPPONENT_RACK = "DEILORU";
+
+	private static ScrabbleDictionary dictionary;
+
+	@BeforeClass
+	public static void loadDictionary()
+	{
+		dictionary = new ScrabbleDictionary();
+	}
+
+	@Test
+	public void searchCancelledBeforeItStartsReturnsAtOnce()
+	{
+		MoveSelector selector = newSelector();
+		Cancellation cancellation = new Cancellation();
+		cancellation.cancel();
+
+		long start = System.nanoTime();
+		selector.selectMove(new char[MoveGenerator.SQUARES], AnagramIndex.countLetters(RACK), false,
+							unseenBy(RACK), cancellation);
+
+		assertTrue("cancelled search took " + millisSince(start) + " ms", millisSince(start) < CANCELLED_MILLIS);
+	}
+
+	@Test
+	public void endgameCancelledBeforeItStartsReturnsAtOnce()
+	{
+		MoveSelector selector = newSelector();
+		Cancellation cancellation = new Cancellation();
+		cancellation.cancel();
+
+		long start = System.nanoTime();
+		selector.selectMove(new char[MoveGenerator.SQUARES], AnagramIndex.countLetters(RACK), true,
+							unseenOnly(OPPONENT_RACK), cancellation);
+
+		assertTrue("cancelled endgame took " + millisSince(start) + " ms", millisSince(start) < CANCELLED_MILLIS);
+	}
+
+	@Test
+	public void cancellationOnlyStopsItsOwnSelection()
+	{
+		MoveSelector reference = newSelector();
+		MoveSelector selector = newSelector();
+
+		reference.setBudgets(AnytimeSearch.NO_TIME_LIMIT, 20000, AnytimeSearch.NO_TIME_LIMIT, 20000);
+		selector.setBudgets(AnytimeSearch.NO_TIME_LIMIT, 20000, AnytimeSearch.NO_TIME_LIMIT, 20000);
+
+		char[] board = new char[MoveGenerator.SQUARES];
+		Move expected = reference.selectMove(board, AnagramIndex.countLetters(RACK), false, unseenBy(RACK));
+
+		Cancellation cancellation = new Cancellation();
+		cancellation.cancel();
+		selector.selectMove(board, AnagramIndex.countLetters(RACK), false, unseenBy(RACK), cancellation);
+
+		/* Planned again after the cancel, as when a paused game resumes */
+		assertEquals(expected, selector.selectMove(board, AnagramIndex.countLetters(RACK), false, unseenBy(RACK),
+												   new Cancellation()));
+	}
+
+	private static MoveSelector newSelector()
+	{
+		return new MoveSelector(AILevel.HARD, MoveGeneration.DAWG, dictionary, new SplittableRandom(SEED));
+	}
+
+	/**
+	 *
+	 * @return The unseen tiles of a player who has only seen its own rack
+	 */
+	private static UnseenTiles unseenBy(String rack)
+	{
+		UnseenTiles unseen = new UnseenTiles();
+
+		for(int i = 0; i < rack.length(); i++)
+		{
+			unseen.tileSeen(rack.charAt(i));
+		}
+
+		return unseen;
+	}
+
+	/**
+	 *
+	 * @return The unseen tiles of a player who has seen every
+	 * tile but those of the letters given (the opponent's rack)
+	 */
+	private static UnseenTiles unseenOnly(String letters)
+	{
+		UnseenTiles unseen = new UnseenTiles();
+		int[] distribution = BagState.getDistribution();
+		int[] kept = AnagramIndex.countLetters(letters);
+
+		for(int symbol = 0; symbol < distribution.length; symbol++)
+		{
+			for(int i = kept[symbol]; i < distribution[symbol]; i++)
+			{
+				unseen.tileSeen((char)('A' + symbol));
+			}
+		}
+
+		return unseen;
+	}
+
+	private static long millisSince(long start)
+	{
+		return (System.nanoTime() - start) / 1000000L;
+	}
+}
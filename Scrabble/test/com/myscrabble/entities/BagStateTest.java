@@ -0,0 +1,175 @@
+package com.myscrabble.entities;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Checks the draws of BagState: swap-remove draws keep the letter
+ * counts in step and empty the bag of exactly its distribution, the
+ * same seed replays the same draws (on copies too), restricted draws
+ * keep to their letters, and the opening racks are balanced between
+ * vowels and consonants.
+ */
+public class BagStateTest
+{
+	private static final long SEED = 1L;
+	private static final int SEEDS = 2000;
+
+	@Test
+	public void drawsEmptyTheBagOfItsDistribution()
+	{
+		for(long seed = SEED; seed < SEED + SEEDS; seed++)
+		{
+			BagState bag = new BagState();
+			SplittableRandom random = new SplittableRandom(seed);
+			int[] expected = BagState.getDistribution();
+			int[] drawn = new int[BagState.LETTERS];
+			int size = bag.size();
+
+			while(!bag.isEmpty())
+			{
+				char letter = bag.draw(random);
+				drawn[letter - 'A']++;
+
+				assertEquals(--size, bag.size());
+				assertEquals(expected[letter - 'A'] - drawn[letter - 'A'], bag.getCount(letter));
+			}
+
+			assertArrayEquals(expected, drawn);
+			assertArrayEquals(new int[BagState.LETTERS], bag.getCounts(new int[BagState.LETTERS]));
+			assertEquals(0, bag.draw(random));
+		}
+	}
+
+	@Test
+	public void sameSeedReplaysTheSameDraws()
+	{
+		BagState bag = new BagState();
+		BagState replay = new BagState();
+		SplittableRandom random = new SplittableRandom(SEED);
+		SplittableRandom replayRandom = new SplittableRandom(SEED);
+
+		for(int i = 0; i < 3 * TileRack.MAX_NO_TILES; i++)
+		{
+			assertEquals(bag.drawForRack(random), replay.drawForRack(replayRandom));
+		}
+
+		/* A copy drawn with an equal generator carries on as the original */
+		BagState copy = bag.copy();
+		SplittableRandom copyRandom = random.split();
+		SplittableRandom bagRandom = replayRandom.split();
+
+		while(!bag.isEmpty())
+		{
+			assertEquals(bag.draw(bagRandom), copy.draw(copyRandom));
+		}
+
+		assertTrue(copy.isEmpty());
+	}
+
+	@Test
+	public void restrictedDrawsKeepToTheirLetters()
+	{
+		BagState bag = new BagState();
+		SplittableRandom random = new SplittableRandom(SEED);
+
+		while(bag.getCount('E') > 0)
+		{
+			assertEquals('E', bag.draw(random, BagState.getLetterMask("E")));
+		}
+
+		/* With none of the allowed letters left the draw comes from any tile */
+		int size = bag.size();
+		assertTrue(bag.draw(random, BagState.getLetterMask("E")) != 0);
+		assertEquals(size - 1, bag.size());
+
+		while(!bag.isEmpty())
+		{
+			char letter = bag.draw(random, BagState.VOWELS);
+			boolean vowelsLeft = false;
+
+			for(char vowel : "AEIOUWY".toCharArray())
+			{
+				vowelsLeft |= bag.getCount(vowel) > 0;
+			}
+
+			assertTrue(letter + " drawn with vowels left", isVowel(letter) || !vowelsLeft);
+		}
+	}
+
+	@Test
+	public void openingRacksAreBalanced()
+	{
+		/* A bag made mostly of vowels, so unbalanced racks would be common */
+		int[] counts = new int[BagState.LETTERS];
+		counts['A' - 'A'] = 40;
+		counts['E' - 'A'] = 40;
+		counts['T' - 'A'] = 3;
+		counts['S' - 'A'] = 3;
+
+		for(long seed = SEED; seed < SEED + SEEDS; seed++)
+		{
+			for(BagState bag : new BagState[] { new BagState(), new BagState(counts) })
+			{
+				SplittableRandom random = new SplittableRandom(seed);
+
+				for(int rack = 0; rack < 2; rack++)
+				{
+					int vowels = 0;
+
+					for(int i = 0; i < TileRack.MAX_NO_TILES; i++)
+					{
+						vowels += isVowel(bag.drawForRack(random)) ? 1 : 0;
+					}
+
+					assertTrue("rack " + rack + " of seed " + seed + " has " + vowels + " vowels",
+							   vowels > 0 && vowels < TileRack.MAX_NO_TILES);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void laterRacksAreNotBalanced()
+	{
+		int[] counts = new int[BagState.LETTERS];
+		counts['A' - 'A'] = 40;
+		counts['T' - 'A'] = 2;
+		boolean allVowels = false;
+
+		for(long seed = SEED; seed < SEED + SEEDS && !allVowels; seed++)
+		{
+			BagState bag = new BagState(counts);
+			SplittableRandom random = new SplittableRandom(seed);
+
+			for(int i = 0; i < 2 * TileRack.MAX_NO_TILES; i++)
+			{
+				bag.drawForRack(random);
+			}
+
+			int vowels = 0;
+
+			for(int i = 0; i < TileRack.MAX_NO_TILES; i++)
+			{
+				vowels += isVowel(bag.drawForRack(random)) ? 1 : 0;
+			}
+
+			allVowels = vowels == TileRack.MAX_NO_TILES;
+		}
+
+		assertTrue(allVowels);
+	}
+
+	private static boolean isVowel(char letter)
+	{
+		return (BagState.VOWELS & (1 << (letter - 'A'))) != 0;
+	}
+}
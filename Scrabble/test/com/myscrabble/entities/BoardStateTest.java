@@ -0,0 +1,185 @@
+package com.myscrabble.entities;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Checks the occupancy bitboards of BoardState against walks over
+ * the squares: line masks, filled spans, anchors and the free and
+ * filled runs next to every square must agree on seeded random
+ * boards, both as they are filled and after changes are undone.
+ */
+public class BoardStateTest
+{
+	private static final long SEED = 1L;
+	private static final int BOARDS = 2000;
+	private static final int MAX_TILES = 60;
+
+	@Test
+	public void queriesMatchSquareWalks()
+	{
+		Random random = new Random(SEED);
+		BoardState state = new BoardState();
+
+		for(int i = 0; i < BOARDS; i++)
+		{
+			int mark = state.mark();
+			int tiles = random.nextInt(MAX_TILES + 1);
+
+			for(int t = 0; t < tiles; t++)
+			{
+				state.set(random.nextInt(BoardState.SQUARES), (char)('A' + random.nextInt(26)));
+			}
+
+			/* Some squares are cleared again, as when tiles are withdrawn */
+			for(int t = random.nextInt(tiles / 4 + 1); t > 0; t--)
+			{
+				state.set(random.nextInt(BoardState.SQUARES), (char)0);
+			}
+
+			checkQueries(state, random);
+
+			if(random.nextBoolean())
+			{
+				state.undo(mark);
+				checkQueries(state, random);
+			}
+			else
+			{
+				state.copyFrom(new BoardState());
+			}
+		}
+	}
+
+	@Test
+	public void copiesKeepTheBitboards()
+	{
+		Random random = new Random(SEED);
+		BoardState state = new BoardState();
+
+		for(int t = 0; t < MAX_TILES; t++)
+		{
+			state.set(random.nextInt(BoardState.SQUARES), (char)('A' + random.nextInt(26)));
+		}
+
+		BoardState copy = state.copy();
+
+		for(int dir = BoardState.ACROSS; dir <= BoardState.DOWN; dir++)
+		{
+			for(int line = 0; line < BoardState.SIZE; line++)
+			{
+				assertEquals(state.getLineMask(dir, line), copy.getLineMask(dir, line));
+			}
+		}
+
+		checkQueries(copy, random);
+	}
+
+	private static void checkQueries(BoardState state, Random random)
+	{
+		boolean emptyBoard = true;
+
+		for(int square = 0; square < BoardState.SQUARES; square++)
+		{
+			emptyBoard &= state.isEmpty(square);
+		}
+
+		assertEquals(emptyBoard, state.isEmpty());
+
+		for(int dir = BoardState.ACROSS; dir <= BoardState.DOWN; dir++)
+		{
+			for(int line = 0; line < BoardState.SIZE; line++)
+			{
+				int mask = 0;
+
+				for(int pos = 0; pos < BoardState.SIZE; pos++)
+				{
+					mask |= isFilled(state, dir, line, pos) ? 1 << pos : 0;
+				}
+
+				assertEquals("mask of line " + dir + "/" + line, mask, state.getLineMask(dir, line));
+
+				int from = random.nextInt(BoardState.SIZE);
+				int to = from + random.nextInt(BoardState.SIZE - from);
+				boolean filled = true;
+
+				for(int pos = from; pos <= to; pos++)
+				{
+					filled &= isFilled(state, dir, line, pos);
+				}
+
+				assertEquals("span " + from + ".." + to + " of line " + dir + "/" + line, filled,
+							 state.isSpanFilled(dir, line, from, to));
+
+				for(int pos = 0; pos < BoardState.SIZE; pos++)
+				{
+					String square = "square " + pos + " of line " + dir + "/" + line;
+
+					assertEquals("free after " + square, walk(state, dir, line, pos, 1, false),
+								 BoardState.freeAfter(mask, pos));
+					assertEquals("free before " + square, walk(state, dir, line, pos, -1, false),
+								 BoardState.freeBefore(mask, pos));
+					assertEquals("filled after " + square, walk(state, dir, line, pos, 1, true),
+								 state.filledAfter(dir, line, pos));
+					assertEquals("filled before " + square, walk(state, dir, line, pos, -1, true),
+								 state.filledBefore(dir, line, pos));
+				}
+			}
+		}
+
+		for(int square = 0; square < BoardState.SQUARES; square++)
+		{
+			assertEquals("anchor " + square, isAnchor(state, emptyBoard, square), state.isAnchor(square));
+		}
+	}
+
+	/**
+	 *
+	 * @param step 1 to walk towards the end of the line, -1 towards its start
+	 * @param filled Whether to count filled squares rather than empty ones
+	 * @return The number of squares next to pos that are all filled
+	 * (or all empty), up to the edge of the board
+	 */
+	private static int walk(BoardState state, int dir, int line, int pos, int step, boolean filled)
+	{
+		int count = 0;
+
+		for(int p = pos + step; p >= 0 && p < BoardState.SIZE; p += step)
+		{
+			if(isFilled(state, dir, line, p) != filled)
+			{
+				break;
+			}
+
+			count++;
+		}
+
+		return count;
+	}
+
+	private static boolean isAnchor(BoardState state, boolean emptyBoard, int square)
+	{
+		if(emptyBoard)
+		{
+			return square == BoardState.CENTRE;
+		}
+
+		int row = square / BoardState.SIZE;
+		int col = square % BoardState.SIZE;
+
+		return state.isEmpty(square) &&
+			   (!state.isEmpty(col - 1, row) || !state.isEmpty(col + 1, row) ||
+				!state.isEmpty(col, row - 1) || !state.isEmpty(col, row + 1));
+	}
+
+	private static boolean isFilled(BoardState state, int dir, int line, int pos)
+	{
+		return dir == BoardState.ACROSS ? !state.isEmpty(pos, line) : !state.isEmpty(line, pos);
+	}
+}
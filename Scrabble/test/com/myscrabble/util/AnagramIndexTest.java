@@ -0,0 +1,141 @@
+package com.myscrabble.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Checks ScrabbleDictionary.getAnagrams, which walks the anagram
+ * index, against a brute-force scan of every word of the Dawg. The
+ * racks and extra letters are seeded random draws from the bag's
+ * letter distribution, queried over a few ranges of extra letters.
+ */
+public class AnagramIndexTest
+{
+	private static final long SEED = 1L;
+	private static final int RACKS = 40;
+	private static final int RACK_SIZE = 7;
+	private static final int MAX_EXTRA_LETTERS = 8;
+
+	/* Minimum and maximum number of extra letters of each query */
+	private static final int[][] EXTRA_RANGES = { { 0, 0 }, { 1, 1 }, { 0, 2 }, { 1, 3 }, { 0, Integer.MAX_VALUE } };
+
+	private static ScrabbleDictionary dictionary;
+
+	@BeforeClass
+	public static void loadDictionary()
+	{
+		dictionary = new ScrabbleDictionary();
+	}
+
+	@Test
+	public void findsTheAnagramsOfARack()
+	{
+		ArrayList<String> words = dictionary.getAnagrams("AEINRST", "", 0, 0);
+
+		assertTrue(words.contains("RETAINS"));
+		assertTrue(words.contains("NASTIER"));
+		assertTrue(words.contains("RAIN"));
+		assertEquals(bruteForce("AEINRST", "", 0, 0), sorted(words));
+	}
+
+	@Test
+	public void agreesWithAScanOfTheDawg()
+	{
+		Random random = new Random(SEED);
+
+		for(int i = 0; i < RACKS; i++)
+		{
+			String rack = drawLetters(random, RACK_SIZE);
+			String extra = drawLetters(random, random.nextInt(MAX_EXTRA_LETTERS + 1));
+
+			for(int[] range : EXTRA_RANGES)
+			{
+				assertEquals("anagrams of " + rack + " with " + range[0] + " to " + range[1] + " of " + extra,
+							 bruteForce(rack, extra, range[0], range[1]),
+							 sorted(dictionary.getAnagrams(rack, extra, range[0], range[1])));
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return Every word of the Dawg formed from the rack letters and
+	 * between minExtra and maxExtra extra letters, rack letters being
+	 * used before extra letters of the same kind, in sorted order
+	 */
+	private static ArrayList<String> bruteForce(String rackLetters, String extraLetters, int minExtra, int maxExtra)
+	{
+		int[] rack = AnagramIndex.countLetters(rackLetters);
+		int[] extra = AnagramIndex.countLetters(extraLetters);
+		ArrayList<String> result = new ArrayList<>();
+
+		for(String word : dictionary.getDawg())
+		{
+			int[] needed = AnagramIndex.countLetters(word);
+			int extraUsed = 0;
+			boolean formable = true;
+
+			for(int letter = 0; letter < AnagramIndex.ALPHABET_SIZE; letter++)
+			{
+				if(needed[letter] > rack[letter] + extra[letter])
+				{
+					formable = false;
+					break;
+				}
+
+				extraUsed += Math.max(0, needed[letter] - rack[letter]);
+			}
+
+			if(formable && extraUsed >= minExtra && extraUsed <= maxExtra)
+			{
+				result.add(word);
+			}
+		}
+
+		return sorted(result);
+	}
+
+	private static ArrayList<String> sorted(ArrayList<String> words)
+	{
+		ArrayList<String> result = new ArrayList<>(words);
+		Collections.sort(result);
+		return result;
+	}
+
+	private static String drawLetters(Random random, int count)
+	{
+		int bagSize = 0;
+
+		for(char letter = 'A'; letter <= 'Z'; letter++)
+		{
+			bagSize += ScrabbleUtils.getNumberOf(letter);
+		}
+
+		StringBuilder letters = new StringBuilder();
+
+		for(int i = 0; i < count; i++)
+		{
+			int tile = random.nextInt(bagSize);
+			char letter = 'A';
+
+			while(tile >= ScrabbleUtils.getNumberOf(letter))
+			{
+				tile -= ScrabbleUtils.getNumberOf(letter++);
+			}
+
+			letters.append(letter);
+		}
+
+		return letters.toString();
+	}
+}
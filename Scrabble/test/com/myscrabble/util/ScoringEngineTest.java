@@ -0,0 +1,290 @@
+package com.myscrabble.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.myscrabble.ai.Move;
+import com.myscrabble.ai.MoveGenerator;
+import com.myscrabble.entities.BoardState;
+import com.myscrabble.entities.TileRack;
+
+/**
+ *
+ * @author Alex Koukoulas
+ * Class Description:
+ * Checks ScoringEngine against a slow reference scorer that finds
+ * every word of two or more letters through a new tile by scanning
+ * the whole board. The positions come from a few seeded self-play
+ * games; on each one every generated move is scored by the engine,
+ * the reference and the move generator, and random placements (any
+ * letters, in one line, next to the board's tiles or not) are scored
+ * by the engine and the reference.
+ */
+public class ScoringEngineTest
+{
+	private static final long SEED = 1L;
+	private static final int GAMES = 4;
+	private static final int MAX_TURNS = 30;
+	private static final int RANDOM_PLACEMENTS = 50;
+
+	/* The positions of the self-play games and the moves generated on each */
+	private static ArrayList<BoardState> positions;
+	private static ArrayList<ArrayList<Move>> positionMoves;
+
+	@BeforeClass
+	public static void playGames()
+	{
+		MoveGenerator generator = new MoveGenerator(new ScrabbleDictionary().getDawg());
+		Random random = new Random(SEED);
+
+		positions = new ArrayList<>();
+		positionMoves = new ArrayList<>();
+
+		for(int game = 0; game < GAMES; game++)
+		{
+			char[] board = new char[MoveGenerator.SQUARES];
+
+			for(int turn = 0; turn < MAX_TURNS; turn++)
+			{
+				ArrayList<Move> moves = generator.generate(board, drawRack(random));
+
+				positions.add(toState(board));
+				positionMoves.add(moves);
+
+				if(moves.isEmpty())
+				{
+					break;
+				}
+
+				/* Vary the games a little so they do not all look alike */
+				moves.get(random.nextInt(Math.min(3, moves.size()))).placeOn(board);
+			}
+		}
+	}
+
+	@Test
+	public void generatedMovesScoreAsReference()
+	{
+		for(int p = 0; p < positions.size(); p++)
+		{
+			for(Move move : positionMoves.get(p))
+			{
+				BoardState board = positions.get(p).copy();
+				int[] squares = new int[move.getTilesPlaced()];
+				int count = 0;
+
+				for(int i = 0; i < move.getWord().length(); i++)
+				{
+					if(move.isPlaced(i))
+					{
+						int square = move.getRow(i) * BoardState.SIZE + move.getCol(i);
+						board.set(square, move.getWord().charAt(i));
+						squares[count++] = square;
+					}
+				}
+
+				int expected = referenceScore(board, squares);
+
+				assertEquals("engine score of " + move, expected, ScoringEngine.score(board, squares, count));
+				assertEquals("generator score of " + move, expected, move.getScore());
+			}
+		}
+	}
+
+	/**
+	 * Places 1 to 7 random letters on the empty squares of a
+	 * random line, starting from a random empty square and
+	 * skipping over the tiles already there
+	 */
+	@Test
+	public void randomPlacementsScoreAsReference()
+	{
+		Random random = new Random(SEED);
+
+		for(BoardState position : positions)
+		{
+			for(int placement = 0; placement < RANDOM_PLACEMENTS; placement++)
+			{
+				int dir = random.nextInt(2);
+				int line = random.nextInt(BoardState.SIZE);
+				int pos = random.nextInt(BoardState.SIZE);
+				int tiles = 1 + random.nextInt(TileRack.MAX_NO_TILES);
+
+				BoardState board = position.copy();
+				int[] squares = new int[tiles];
+				int count = 0;
+
+				for(; pos < BoardState.SIZE && count < tiles; pos++)
+				{
+					int square = squareOf(dir, line, pos);
+
+					if(board.isEmpty(square))
+					{
+						board.set(square, (char)('A' + random.nextInt(AnagramIndex.ALPHABET_SIZE)));
+						squares[count++] = square;
+					}
+				}
+
+				if(count < tiles)
+				{
+					continue;
+				}
+
+				assertEquals("engine score of" + describe(board, squares), referenceScore(board, squares),
+							 ScoringEngine.score(board, squares, count));
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return The score of the placement found the slow way: every
+	 * maximal run of two or more letters, in both directions, holding
+	 * a newly placed tile is a word, scored with the premiums under its
+	 * new tiles. A lone tile forming no word scores as a word by itself.
+	 */
+	private static int referenceScore(BoardState board, int[] squares)
+	{
+		boolean[] isNew = new boolean[BoardState.SQUARES];
+
+		for(int square : squares)
+		{
+			isNew[square] = true;
+		}
+
+		int total = 0;
+		int words = 0;
+
+		for(int dir = BoardState.ACROSS; dir <= BoardState.DOWN; dir++)
+		{
+			for(int line = 0; line < BoardState.SIZE; line++)
+			{
+				int pos = 0;
+
+				while(pos < BoardState.SIZE)
+				{
+					ArrayList<Integer> run = new ArrayList<>();
+
+					while(pos < BoardState.SIZE && !board.isEmpty(squareOf(dir, line, pos)))
+					{
+						run.add(squareOf(dir, line, pos++));
+					}
+
+					pos++;
+
+					boolean hasNew = false;
+
+					for(int square : run)
+					{
+						hasNew |= isNew[square];
+					}
+
+					if(run.size() >= 2 && hasNew)
+					{
+						total += wordScore(board, run, isNew);
+						words++;
+					}
+				}
+			}
+		}
+
+		if(words == 0 && squares.length == 1)
+		{
+			ArrayList<Integer> single = new ArrayList<>();
+			single.add(squares[0]);
+			total = wordScore(board, single, isNew);
+		}
+
+		if(squares.length == TileRack.MAX_NO_TILES)
+		{
+			total += ScoringEngine.BINGO_BONUS;
+		}
+
+		return total;
+	}
+
+	private static int wordScore(BoardState board, ArrayList<Integer> word, boolean[] isNew)
+	{
+		int sum = 0;
+		int multiplier = 1;
+
+		for(int square : word)
+		{
+			int value = ScrabbleUtils.getValueOf(board.getLetter(square));
+
+			if(isNew[square])
+			{
+				sum += value * BoardState.getLetterMultiplier(square);
+				multiplier *= BoardState.getWordMultiplier(square);
+			}
+			else
+			{
+				sum += value;
+			}
+		}
+
+		return sum * multiplier;
+	}
+
+	private static String describe(BoardState board, int[] squares)
+	{
+		StringBuilder placement = new StringBuilder();
+
+		for(int square : squares)
+		{
+			placement.append(" ").append(board.getLetter(square)).append("@")
+					 .append(square / BoardState.SIZE).append(",").append(square % BoardState.SIZE);
+		}
+
+		return placement.toString();
+	}
+
+	private static int squareOf(int dir, int line, int pos)
+	{
+		return dir == BoardState.ACROSS ? line * BoardState.SIZE + pos : pos * BoardState.SIZE + line;
+	}
+
+	private static BoardState toState(char[] board)
+	{
+		BoardState state = new BoardState();
+
+		for(int square = 0; square < board.length; square++)
+		{
+			state.set(square, board[square]);
+		}
+
+		state.clearUndo();
+		return state;
+	}
+
+	private static int[] drawRack(Random random)
+	{
+		int[] rack = new int[AnagramIndex.ALPHABET_SIZE];
+		int bagSize = 0;
+
+		for(char letter = 'A'; letter <= 'Z'; letter++)
+		{
+			bagSize += ScrabbleUtils.getNumberOf(letter);
+		}
+
+		for(int i = 0; i < TileRack.MAX_NO_TILES; i++)
+		{
+			int tile = random.nextInt(bagSize);
+			char letter = 'A';
+
+			while(tile >= ScrabbleUtils.getNumberOf(letter))
+			{
+				tile -= ScrabbleUtils.getNumberOf(letter++);
+			}
+
+			rack[letter - 'A']++;
+		}
+
+		return rack;
+	}
+}